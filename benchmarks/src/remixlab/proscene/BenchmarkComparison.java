@@ -0,0 +1,147 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Compares two JMH result files written with {@code -rf csv} (typically the stored
+ * {@code benchmarks/baseline.csv} and a new run) and prints, for each benchmark
+ * and parameter combination, the relative change of its score and of its
+ * allocation rate per operation ({@code gc.alloc.rate.norm}, reported by the
+ * {@code -prof gc} profiler).
+ * <p>
+ * Usage: {@code BenchmarkComparison baseline.csv result.csv [tolerance]}, where
+ * {@code tolerance} is the score increase (in percent, 10 by default) above which
+ * a benchmark is reported as a regression. Allocation regressions are reported
+ * when more than {@link #ALLOCATION_TOLERANCE} additional bytes are allocated
+ * per operation. The exit status is the number of regressions (at most 255).
+ */
+public class BenchmarkComparison {
+	public static final String ALLOCATION_SUFFIX = ":gc.alloc.rate.norm";
+	public static final float ALLOCATION_TOLERANCE = 8;
+
+	private static class Result {
+		float score = Float.NaN;
+		float allocation = Float.NaN;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: BenchmarkComparison baseline.csv result.csv [tolerance]");
+			System.exit(-1);
+		}
+		float tolerance = args.length > 2 ? Float.parseFloat(args[2]) : 10;
+		Map<String, Result> baseline = read(new File(args[0]));
+		Map<String, Result> current = read(new File(args[1]));
+
+		int regressions = 0;
+		System.out.println(String.format("%-84s %12s %12s %8s %10s %10s", "Benchmark", "Baseline", "Current", "Change",
+				"B/op (old)", "B/op (new)"));
+		for (Map.Entry<String, Result> entry : current.entrySet()) {
+			Result now = entry.getValue();
+			Result before = baseline.get(entry.getKey());
+			if (before == null) {
+				System.out.println(String.format("%-84s %12s %12.3f %8s %10s %10.1f", entry.getKey(), "-", now.score, "new",
+						"-", now.allocation));
+				continue;
+			}
+			float change = 100 * (now.score - before.score) / before.score;
+			boolean slower = change > tolerance;
+			boolean allocates = now.allocation - before.allocation > ALLOCATION_TOLERANCE;
+			if (slower || allocates)
+				regressions++;
+			System.out.println(String.format("%-84s %12.3f %12.3f %+7.1f%% %10.1f %10.1f%s", entry.getKey(), before.score,
+					now.score, change, before.allocation, now.allocation, slower || allocates ? "  <-- regression" : ""));
+		}
+		for (String key : baseline.keySet())
+			if (!current.containsKey(key))
+				System.out.println(String.format("%-84s (not run)", key));
+		System.out.println(regressions + " regression(s) in " + current.size() + " benchmark(s), with a " + tolerance
+				+ "% tolerance");
+		System.exit(Math.min(regressions, 255));
+	}
+
+	/**
+	 * Reads a JMH csv result file. Results are keyed by benchmark name followed
+	 * by its non empty parameters.
+	 */
+	private static Map<String, Result> read(File file) throws IOException {
+		Map<String, Result> results = new TreeMap<String, Result>();
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String[] header = split(reader.readLine());
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().length() == 0)
+					continue;
+				String[] fields = split(line);
+				String name = fields[0];
+				boolean allocation = name.endsWith(ALLOCATION_SUFFIX);
+				if (allocation)
+					name = name.substring(0, name.length() - ALLOCATION_SUFFIX.length());
+				else if (name.indexOf(':') >= 0)
+					continue;
+				StringBuilder key = new StringBuilder(name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1));
+				for (int i = 7; i < fields.length && i < header.length; i++)
+					if (fields[i].length() > 0)
+						key.append(' ').append(header[i].replace("Param: ", "")).append('=').append(fields[i]);
+				Result result = results.get(key.toString());
+				if (result == null) {
+					result = new Result();
+					results.put(key.toString(), result);
+				}
+				if (allocation)
+					result.allocation = Float.parseFloat(fields[4]);
+				else
+					result.score = Float.parseFloat(fields[4]);
+			}
+		} finally {
+			reader.close();
+		}
+		return results;
+	}
+
+	private static String[] split(String line) {
+		List<String> fields = new ArrayList<String>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == '"')
+				quoted = !quoted;
+			else if (c == ',' && !quoted) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else
+				field.append(c);
+		}
+		fields.add(field.toString());
+		return fields.toArray(new String[fields.size()]);
+	}
+}
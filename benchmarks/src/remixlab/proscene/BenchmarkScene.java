@@ -0,0 +1,87 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import processing.core.*;
+import processing.opengl.*;
+
+/**
+ * Builds the Cameras used by the benchmarks.
+ * <p>
+ * {@link #createCamera()} returns a headless Camera (see
+ * {@link remixlab.proscene.HeadlessHost}), which needs neither a PApplet nor a
+ * display. {@link #create()} builds an off-screen Scene instead: no OpenGL
+ * context is created, the renderer is only used to hold the matrices, but
+ * creating the PApplet requires a non headless AWT environment.
+ */
+public class BenchmarkScene {
+	public static final int WIDTH = 800;
+	public static final int HEIGHT = 600;
+
+	/**
+	 * Returns a new headless Camera whose matrices and frustum plane equations
+	 * are up to date.
+	 */
+	public static Camera createCamera() {
+		Camera camera = new Camera(new HeadlessHost());
+		camera.setScreenWidthAndHeight(WIDTH, HEIGHT);
+		update(camera);
+		return camera;
+	}
+
+	/**
+	 * Returns a new off-screen Scene whose Camera matrices and frustum plane
+	 * equations are up to date.
+	 */
+	public static Scene create() {
+		PApplet parent = new PApplet();
+		// the main renderer is only queried for the frame rate
+		parent.g = new PGraphics();
+		parent.width = WIDTH;
+		parent.height = HEIGHT;
+		PGraphics3D renderer = new PGraphics3D();
+		renderer.setParent(parent);
+		renderer.setPrimary(false);
+		renderer.setSize(WIDTH, HEIGHT);
+
+		Scene scene = new Scene(parent, renderer);
+		scene.enableFrustumEquationsUpdate();
+		update(scene.camera());
+		return scene;
+	}
+
+	/**
+	 * Recomputes the {@code camera} matrices and frustum plane equations, as
+	 * {@link remixlab.proscene.Scene#pre()} does.
+	 */
+	public static void update(Camera camera) {
+		camera.computeProjectionMatrix();
+		camera.computeModelViewMatrix();
+		camera.calcProjModelView();
+		camera.computeFrustumEquations(camera.getFrustumEquations());
+	}
+}
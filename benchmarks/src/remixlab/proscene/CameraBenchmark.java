@@ -0,0 +1,85 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import processing.core.*;
+
+/**
+ * Camera frustum equations, visibility tests and (un)projections, using the
+ * headless Camera built by {@link remixlab.proscene.BenchmarkScene}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CameraBenchmark {
+	private Camera camera;
+	private float[][] coefficients;
+	private PVector center, boxMin, boxMax, point, pixel;
+
+	@Setup
+	public void setup() {
+		camera = BenchmarkScene.createCamera();
+		coefficients = new float[6][4];
+		center = new PVector(20, -10, 5);
+		boxMin = new PVector(-30, -20, -10);
+		boxMax = new PVector(10, 40, 15);
+		point = new PVector(12, 34, -5);
+		pixel = camera.projectedCoordinatesOf(point);
+	}
+
+	@Benchmark
+	public float[][] computeFrustumEquations() {
+		return camera.computeFrustumEquations(coefficients);
+	}
+
+	@Benchmark
+	public Camera.Visibility sphereIsVisible() {
+		return camera.sphereIsVisible(center, 15);
+	}
+
+	@Benchmark
+	public Camera.Visibility aaBoxIsVisible() {
+		return camera.aaBoxIsVisible(boxMin, boxMax);
+	}
+
+	@Benchmark
+	public PVector projectedCoordinatesOf() {
+		return camera.projectedCoordinatesOf(point);
+	}
+
+	@Benchmark
+	public PVector unprojectedCoordinatesOf() {
+		return camera.unprojectedCoordinatesOf(pixel);
+	}
+}
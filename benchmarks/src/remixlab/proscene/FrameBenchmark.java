@@ -0,0 +1,106 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import processing.core.*;
+
+/**
+ * Frame world transformation queries as a function of the depth of the Frame
+ * hierarchy.
+ * <p>
+ * The {@code ...AfterRootMove} benchmarks move the root Frame before each
+ * query, so that the whole chain of cached world transformations has to be
+ * recomputed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameBenchmark {
+	@Param({ "1", "4", "16", "64" })
+	public int depth;
+
+	private Frame root, leaf;
+	private PVector point, result, step;
+
+	@Setup
+	public void setup() {
+		root = new Frame();
+		leaf = root;
+		for (int i = 1; i < depth; i++) {
+			Frame frame = new Frame(new PVector(1, 0.5f, 0.25f), new Quaternion(new PVector(i, 1, 2), 0.1f));
+			frame.setReferenceFrame(leaf);
+			leaf = frame;
+		}
+		point = new PVector(3, 2, 1);
+		result = new PVector();
+		step = new PVector(0.001f, 0, 0);
+	}
+
+	private void moveRoot() {
+		step.x = -step.x;
+		root.translate(step.x, step.y, step.z);
+	}
+
+	@Benchmark
+	public PVector position() {
+		return leaf.position();
+	}
+
+	@Benchmark
+	public PVector positionAfterRootMove() {
+		moveRoot();
+		return leaf.position();
+	}
+
+	@Benchmark
+	public PVector coordinatesOf() {
+		return leaf.coordinatesOf(point);
+	}
+
+	@Benchmark
+	public PVector coordinatesOfDest() {
+		return leaf.coordinatesOf(point, result);
+	}
+
+	@Benchmark
+	public PVector coordinatesOfAfterRootMove() {
+		moveRoot();
+		return leaf.coordinatesOf(point, result);
+	}
+
+	@Benchmark
+	public PVector inverseCoordinatesOf() {
+		return leaf.inverseCoordinatesOf(point);
+	}
+}
@@ -0,0 +1,80 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import processing.core.*;
+
+/**
+ * KeyFrameInterpolator evaluation and {@link remixlab.proscene.KeyFrameInterpolator#drawPath(int, int, float)}
+ * path rebuilding, for each orientation interpolation method.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyFrameInterpolatorBenchmark {
+	@Param({ "8", "64" })
+	public int keyFrames;
+
+	@Param({ "SQUAD", "CORRECTED_NLERP", "NLERP" })
+	public KeyFrameInterpolator.OrientationInterpolation interpolation;
+
+	private KeyFrameInterpolator kfi;
+	private float time;
+
+	@Setup
+	public void setup() {
+		kfi = new KeyFrameInterpolator(new HeadlessHost(), new Frame());
+		kfi.setOrientationInterpolation(interpolation);
+		for (int i = 0; i < keyFrames; i++) {
+			Frame frame = new Frame(new PVector(i, (i % 3) * 10, -i), new Quaternion(new PVector(1, i, 2), 0.4f * i));
+			kfi.addKeyFrame(frame, i, false);
+		}
+		time = 0;
+	}
+
+	@Benchmark
+	public Frame interpolateAtTime() {
+		time += 0.37f;
+		if (time > kfi.lastTime())
+			time -= kfi.lastTime();
+		kfi.interpolateAtTime(time);
+		return kfi.frame();
+	}
+
+	@Benchmark
+	public KeyFrameInterpolator updatePath() {
+		kfi.updatePath();
+		return kfi;
+	}
+}
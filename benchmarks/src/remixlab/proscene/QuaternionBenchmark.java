@@ -0,0 +1,119 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import processing.core.*;
+
+/**
+ * Quaternion interpolation, both allocating and {@code dest} versions, and the
+ * corresponding QuaternionBuffer batch operations (per {@link #BATCH} quaternions).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuaternionBenchmark {
+	public static final int BATCH = 1024;
+
+	private Quaternion a, b, tgA, tgB, result;
+	private float t;
+	private QuaternionBuffer bufferA, bufferB, bufferResult;
+	private float[] vectors;
+
+	@Setup
+	public void setup() {
+		a = new Quaternion(new PVector(1, 2, 3), 0.3f);
+		b = new Quaternion(new PVector(-1, 0.5f, 2), 1.2f);
+		Quaternion before = new Quaternion(new PVector(0, 1, 0), -0.4f);
+		Quaternion after = new Quaternion(new PVector(2, 1, 0), 1.9f);
+		tgA = Quaternion.squadTangent(before, a, b);
+		tgB = Quaternion.squadTangent(a, b, after);
+		result = new Quaternion();
+		t = 0.37f;
+
+		bufferA = new QuaternionBuffer(BATCH);
+		bufferB = new QuaternionBuffer(BATCH);
+		bufferResult = new QuaternionBuffer(BATCH);
+		vectors = new float[3 * BATCH];
+		for (int i = 0; i < BATCH; i++) {
+			bufferA.set(i, new Quaternion(new PVector(1, i, 3), 0.001f * i));
+			bufferB.set(i, new Quaternion(new PVector(i, 1, -1), 1.0f - 0.0005f * i));
+			vectors[3 * i] = i;
+			vectors[3 * i + 1] = 1;
+			vectors[3 * i + 2] = -i;
+		}
+	}
+
+	@Benchmark
+	public Quaternion slerp() {
+		return Quaternion.slerp(a, b, t);
+	}
+
+	@Benchmark
+	public Quaternion slerpDest() {
+		return Quaternion.slerp(a, b, t, true, result);
+	}
+
+	@Benchmark
+	public Quaternion squad() {
+		return Quaternion.squad(a, tgA, tgB, b, t);
+	}
+
+	@Benchmark
+	public Quaternion squadDest() {
+		return Quaternion.squad(a, tgA, tgB, b, t, result);
+	}
+
+	@Benchmark
+	public Quaternion multiply() {
+		return Quaternion.multiply(a, b);
+	}
+
+	@Benchmark
+	public QuaternionBuffer bufferSlerp() {
+		QuaternionBuffer.slerp(bufferA, bufferB, t, bufferResult, 0, BATCH);
+		return bufferResult;
+	}
+
+	@Benchmark
+	public QuaternionBuffer bufferMultiply() {
+		QuaternionBuffer.multiply(bufferA, bufferB, bufferResult, 0, BATCH);
+		return bufferResult;
+	}
+
+	@Benchmark
+	public float[] bufferRotate() {
+		bufferA.rotate(vectors, vectors, 0, BATCH);
+		return vectors;
+	}
+}
@@ -0,0 +1,267 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scheduler that runs all the timed animations of a Scene (KeyFrameInterpolator
+ * interpolations, InteractiveFrame spinning and tossing, InteractiveDrivableFrame
+ * flying, visual hints timeouts...) in a single pass.
+ * <p>
+ * Each animated object owns a {@link Task} which is (re)scheduled with
+ * {@link Task#schedule(long)} or {@link Task#scheduleAtFixedRate(long)} and
+ * cancelled with {@link Task#cancel()}. Tasks are executed by {@link #tick()}.
+ * <p>
+ * By default the scheduler is frame synchronous: {@link #tick()} is called by the
+ * Scene once per frame (see {@link remixlab.proscene.Scene#drawCommon()}), so that
+ * all the animated Frames are updated from the drawing thread. Tasks whose period is
+ * shorter than the frame duration are executed several times within the same tick
+ * (fixed rate semantics), so that animation speeds do not depend on the frame rate.
+ * <p>
+ * Alternatively, a {@code ScheduledExecutorService} may drive the ticks (see
+ * {@link #setExecutor(ScheduledExecutorService, long)}). Note that in this case
+ * Frames are modified from the executor thread.
+ */
+public class AnimationScheduler {
+	/**
+	 * A scheduled action. Implement {@link #execute()}.
+	 */
+	public static abstract class Task {
+		protected AnimationScheduler scheduler;
+		private long next;
+		private long period;
+		private boolean scheduled;
+		private boolean listed;
+
+		/**
+		 * Creates an unscheduled task to be run by {@code s}.
+		 */
+		public Task(AnimationScheduler s) {
+			scheduler = s;
+		}
+
+		/**
+		 * Schedules a single execution of the task after {@code delay} milliseconds.
+		 * A previous schedule of the task is cancelled.
+		 */
+		public void schedule(long delay) {
+			scheduler.schedule(this, delay, 0);
+		}
+
+		/**
+		 * Schedules the repeated execution of the task every {@code period}
+		 * milliseconds, starting with the next {@link AnimationScheduler#tick()}.
+		 * A previous schedule of the task is cancelled.
+		 */
+		public void scheduleAtFixedRate(long period) {
+			scheduler.schedule(this, 0, period);
+		}
+
+		/**
+		 * Cancels the task. It may be called from {@link #execute()}.
+		 */
+		public void cancel() {
+			scheduler.cancel(this);
+		}
+
+		/**
+		 * Returns {@code true} if the task is scheduled for (further) execution.
+		 */
+		public boolean isScheduled() {
+			return scheduled;
+		}
+
+		/**
+		 * Returns the task period in milliseconds, or 0 for a single execution task.
+		 */
+		public long period() {
+			return period;
+		}
+
+		/**
+		 * The action performed by the task.
+		 */
+		protected abstract void execute();
+	}
+
+	/**
+	 * Maximum number of times a periodic task is executed within a single
+	 * {@link #tick()}. When the scheduler falls behind (e.g., after the sketch was
+	 * stalled) the remaining executions are dropped.
+	 */
+	public static final int MAX_EXECUTIONS_PER_TICK = 100;
+
+	protected List<Task> tasks;
+	private Task[] pass;
+
+	private ScheduledExecutorService executor;
+	private ScheduledFuture<?> executorTick;
+	private Host host;
+
+	/**
+	 * Creates a frame synchronous scheduler driven by the system clock.
+	 */
+	public AnimationScheduler() {
+		this(null);
+	}
+
+	/**
+	 * Creates a frame synchronous scheduler driven by the {@code h} clock (see
+	 * {@link remixlab.proscene.Host#time()}). Pass {@code null} to use the system
+	 * clock.
+	 */
+	public AnimationScheduler(Host h) {
+		host = h;
+		tasks = new ArrayList<Task>();
+		pass = new Task[16];
+	}
+
+	/**
+	 * Returns the current time of the scheduler clock, in milliseconds: the
+	 * {@link remixlab.proscene.Host#time()} of its host, or
+	 * {@code System.currentTimeMillis()} when it has none.
+	 */
+	public long time() {
+		return host == null ? System.currentTimeMillis() : host.time();
+	}
+
+	/**
+	 * Returns {@code true} if the scheduler should be {@link #tick()}ed once per frame,
+	 * i.e., if no {@link #executor()} has been set.
+	 */
+	public boolean isFrameSynchronous() {
+		return executor == null;
+	}
+
+	/**
+	 * Returns the {@code ScheduledExecutorService} driving the scheduler, or
+	 * {@code null} if the scheduler is frame synchronous (default).
+	 */
+	public ScheduledExecutorService executor() {
+		return executor;
+	}
+
+	/**
+	 * Drives the scheduler with {@code exec}, which will {@link #tick()} it every
+	 * {@code period} milliseconds. Pass {@code null} to go back to frame synchronous
+	 * ticks. The executor is not shut down by the scheduler.
+	 */
+	public synchronized void setExecutor(ScheduledExecutorService exec, long period) {
+		if (executorTick != null) {
+			executorTick.cancel(false);
+			executorTick = null;
+		}
+		executor = exec;
+		if (executor != null)
+			executorTick = executor.scheduleAtFixedRate(new Runnable() {
+				public void run() {
+					tick();
+				}
+			}, 0, Math.max(1, period), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the number of scheduled tasks.
+	 */
+	public synchronized int scheduledTasks() {
+		int count = 0;
+		for (Task t : tasks)
+			if (t.scheduled)
+				count++;
+		return count;
+	}
+
+	/**
+	 * Convenience function that simply calls {@code tick(time())}.
+	 */
+	public void tick() {
+		tick(time());
+	}
+
+	/**
+	 * Executes all the tasks that are due at time {@code now}, expressed in
+	 * milliseconds in the {@link #time()} time base. Tasks
+	 * scheduled from within this pass are executed from the next tick on.
+	 */
+	public synchronized void tick(long now) {
+		int n = tasks.size();
+		if (pass.length < n)
+			pass = new Task[Math.max(n, pass.length * 2)];
+		tasks.toArray(pass);
+
+		for (int i = 0; i < n; i++) {
+			Task t = pass[i];
+			int runs = 0;
+			while (t.scheduled && now >= t.next) {
+				if (t.period > 0)
+					t.next += t.period;
+				else
+					t.scheduled = false;
+				t.execute();
+				if (++runs == MAX_EXECUTIONS_PER_TICK) {
+					if (t.scheduled && t.period > 0 && now >= t.next)
+						t.next = now + t.period;
+					break;
+				}
+			}
+		}
+
+		for (int i = 0; i < n; i++)
+			pass[i] = null;
+
+		// drop the tasks that are no longer scheduled
+		int j = 0;
+		for (int i = 0; i < tasks.size(); i++) {
+			Task t = tasks.get(i);
+			if (t.scheduled)
+				tasks.set(j++, t);
+			else
+				t.listed = false;
+		}
+		for (int i = tasks.size() - 1; i >= j; i--)
+			tasks.remove(i);
+	}
+
+	protected synchronized void schedule(Task t, long delay, long period) {
+		t.next = time() + Math.max(0, delay);
+		t.period = Math.max(0, period);
+		t.scheduled = true;
+		if (!t.listed) {
+			t.listed = true;
+			tasks.add(t);
+		}
+	}
+
+	protected synchronized void cancel(Task t) {
+		t.scheduled = false;
+	}
+}
@@ -0,0 +1,1172 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import java.util.Arrays;
+
+import processing.core.*;
+
+/**
+ * A bounding volume hierarchy of axis aligned boxes which is used to cull
+ * (many) objects against the camera frustum.
+ * <p>
+ * Objects are registered with their bounding box (see
+ * {@link #add(PVector, PVector)} and {@link #add(PVector, PVector, Frame)})
+ * and are thereafter referred to by the integer id those methods return. When
+ * an object is attached to a Frame, its box is defined in the Frame coordinate
+ * system and the world box is refitted whenever the Frame (or one of its
+ * reference frames) moves (see {@link #refit()}).
+ * <p>
+ * Culling is hierarchical: a node which is completely inside a frustum plane
+ * does not test that plane again for its children, and the plane which
+ * rejected a node last time is tested first next time (plane coherency). Use
+ * it like this:
+ * <p>
+ * {@code int n = bvh.cull(scene.camera());}<br>
+ * {@code int [] ids = bvh.visibleObjects();}<br>
+ * {@code for (int i = 0; i < n; i++)}<br>
+ * {@code   drawObject(ids[i]);}<br>
+ * <p>
+ * No objects are created while culling or refitting.
+ * <p>
+ * <b>Attention:</b> The camera frustum plane equations should be updated
+ * before calling {@link #cull(Camera)}. Enable them to be automatic updated in
+ * your Scene setup (with
+ * {@link remixlab.proscene.Scene#enableFrustumEquationsUpdate()}).
+ * <p>
+ * The hierarchy may also be used to pick objects by casting rays (see
+ * {@link #raycast(PVector, PVector, PVector)}), against their boxes or against
+ * optional triangle meshes (see {@link #setMesh(int, float[], int[])}). Set it
+ * as the {@link remixlab.proscene.Camera#pickingHierarchy()} to have
+ * {@link remixlab.proscene.Camera#pointUnderPixel(Point)} use it instead of
+ * reading back the depth buffer.
+ * <p>
+ * By default the hierarchy is rebuilt within {@link #refit()} (i.e., within
+ * the next {@link #cull(Camera)}) after objects are added or removed. To avoid
+ * the frame time spike that rebuilding large hierarchies causes, call
+ * {@link #setAsynchronousBuild(JobExecutor)} so that it is rebuilt in the
+ * background instead.
+ */
+public class BoundingVolumeHierarchy {
+	static final int LEAF_SIZE = 4;
+	static final int ALL_PLANES = 63;
+
+	static final int OUTSIDE = 0;
+	static final int INTERSECTING = 1;
+	static final int INSIDE = 2;
+
+	// O b j e c t s (6 floats per box: min x, y, z and max x, y, z)
+	protected int objCount;
+	protected int liveCount;
+	protected float[] localBounds;
+	protected float[] worldBounds;
+	protected Frame[] frames;
+	protected long[] versions;
+	protected boolean[] alive;
+	protected int[] leafOf;
+	protected int[] freeIds;
+	protected int freeCount;
+
+	// N o d e s (children are always stored after their parent)
+	protected int nodeCount;
+	protected float[] nodeBounds;
+	protected int[] nodeLeft; // -1 for leaves. The right child is nodeLeft + 1
+	protected int[] nodeParent;
+	protected int[] nodeStart;
+	protected int[] nodeSize;
+	protected byte[] nodePlane;
+	protected boolean[] nodeDirty;
+	protected int[] order;
+	protected int depth;
+	protected boolean needsBuild;
+
+	// C u l l i n g
+	protected int[] visible;
+	protected int visibleCount;
+	protected int[] stackNode;
+	protected int[] stackMask;
+
+	// M u l t i - v i e w c u l l i n g (one plane mask per view, -1 once out)
+	protected int[][] viewVisible;
+	protected int[] viewVisibleCount;
+	protected int[] viewStackMask;
+	protected int[] viewMask;
+	protected boolean[] seen;
+
+	// P i c k i n g (optional meshes, defined in the object frame)
+	protected float[][] meshVertices;
+	protected int[][] meshTriangles;
+	protected float rayDistance;
+
+	// B a c k g r o u n d b u i l d
+	private JobExecutor buildExecutor;
+	private JobExecutor.Job<BoundingVolumeHierarchy> buildJob;
+
+	private PVector tmpVec;
+	private PVector tmpDir;
+	private Quaternion tmpQuat;
+
+	/**
+	 * Creates an empty hierarchy.
+	 */
+	public BoundingVolumeHierarchy() {
+		this(64);
+	}
+
+	/**
+	 * Creates an empty hierarchy with room for {@code capacity} objects. The
+	 * hierarchy grows as needed.
+	 */
+	public BoundingVolumeHierarchy(int capacity) {
+		capacity = PApplet.max(1, capacity);
+		localBounds = new float[6 * capacity];
+		worldBounds = new float[6 * capacity];
+		frames = new Frame[capacity];
+		versions = new long[capacity];
+		alive = new boolean[capacity];
+		leafOf = new int[capacity];
+		Arrays.fill(leafOf, -1);
+		freeIds = new int[capacity];
+		order = new int[capacity];
+		visible = new int[capacity];
+		nodeBounds = new float[0];
+		nodeLeft = new int[0];
+		nodeParent = new int[0];
+		nodeStart = new int[0];
+		nodeSize = new int[0];
+		nodePlane = new byte[0];
+		nodeDirty = new boolean[0];
+		stackNode = new int[0];
+		stackMask = new int[0];
+		viewVisible = new int[0][];
+		viewVisibleCount = new int[0];
+		viewStackMask = new int[0];
+		viewMask = new int[0];
+		seen = new boolean[capacity];
+		meshVertices = new float[capacity][];
+		meshTriangles = new int[capacity][];
+		tmpVec = new PVector();
+		tmpDir = new PVector();
+		tmpQuat = new Quaternion();
+	}
+
+	// a bare hierarchy holding the nodes built on a snapshot, see submitBuild()
+	private BoundingVolumeHierarchy(float[] bounds, int[] ids, int capacity) {
+		worldBounds = bounds;
+		order = ids;
+		leafOf = new int[capacity];
+		Arrays.fill(leafOf, -1);
+		nodeBounds = new float[0];
+		nodeLeft = new int[0];
+		nodeParent = new int[0];
+		nodeStart = new int[0];
+		nodeSize = new int[0];
+		nodePlane = new byte[0];
+		nodeDirty = new boolean[0];
+	}
+
+	/**
+	 * Registers an object whose axis aligned bounding box (defined by corners
+	 * {@code min} and {@code max}) is defined in the world coordinate system.
+	 * Returns the object id.
+	 * 
+	 * @see #add(PVector, PVector, Frame)
+	 */
+	public int add(PVector min, PVector max) {
+		return add(min, max, null);
+	}
+
+	/**
+	 * Registers an object whose bounding box (defined by corners {@code min}
+	 * and {@code max}) is defined in the coordinate system of {@code frame}.
+	 * Returns the object id.
+	 * <p>
+	 * The world box of the object is the axis aligned box enclosing the
+	 * {@code frame} box, and it is refitted each time {@code frame} moves.
+	 * {@code frame} may be {@code null}, meaning the world coordinate system.
+	 * 
+	 * @see #remove(int)
+	 * @see #refit()
+	 */
+	public int add(PVector min, PVector max, Frame frame) {
+		int id;
+		if (freeCount > 0)
+			id = freeIds[--freeCount];
+		else {
+			if (objCount == frames.length)
+				growObjects(2 * objCount);
+			id = objCount++;
+		}
+		alive[id] = true;
+		frames[id] = frame;
+		meshVertices[id] = null;
+		meshTriangles[id] = null;
+		setLocalBounds(id, min, max);
+		if (frame != null)
+			versions[id] = frame.worldTransformVersion();
+		updateWorldBounds(id);
+		// a recycled id may still be referenced by a hierarchy being rebuilt
+		if (leafOf[id] >= 0)
+			nodeDirty[leafOf[id]] = true;
+		liveCount++;
+		needsBuild = true;
+		cancelBuild();
+		return id;
+	}
+
+	/**
+	 * Registers an object defined by a triangle mesh (see
+	 * {@link #setMesh(int, float[], int[])}) in the coordinate system of
+	 * {@code frame}. Its bounding box is the one of the mesh vertices. Returns
+	 * the object id.
+	 * <p>
+	 * Throws an {@code IllegalArgumentException} if {@code vertices} is
+	 * {@code null} or does not hold a single vertex, since the object would have
+	 * no bounding box.
+	 */
+	public int add(float[] vertices, int[] triangles, Frame frame) {
+		if (vertices == null || vertices.length < 3)
+			throw new IllegalArgumentException("A mesh object needs at least one vertex");
+		PVector min = new PVector();
+		PVector max = new PVector();
+		meshBounds(vertices, min, max);
+		int id = add(min, max, frame);
+		meshVertices[id] = vertices;
+		meshTriangles[id] = triangles;
+		return id;
+	}
+
+	/**
+	 * Attaches a triangle mesh to the object {@code id}, so that
+	 * {@link #raycast(PVector, PVector, PVector)} intersects the mesh instead of
+	 * the object box. The bounding box of the object is set to the one of the
+	 * mesh.
+	 * <p>
+	 * {@code vertices} holds consecutive x, y, z vertex coordinates, defined in
+	 * the coordinate system of the object {@link #frame(int)}. Each consecutive
+	 * index triplet of {@code triangles} defines a triangle. When
+	 * {@code triangles} is {@code null}, each consecutive vertex triplet defines
+	 * a triangle. Both arrays are referenced, not copied: call this method again
+	 * after modifying them. A {@code null} {@code vertices} removes the mesh.
+	 */
+	public void setMesh(int id, float[] vertices, int[] triangles) {
+		if (!isRegistered(id))
+			return;
+		meshVertices[id] = vertices;
+		meshTriangles[id] = vertices == null ? null : triangles;
+		if (vertices == null || vertices.length < 3)
+			return;
+		PVector min = new PVector();
+		PVector max = new PVector();
+		meshBounds(vertices, min, max);
+		setBounds(id, min, max);
+	}
+
+	/**
+	 * Fills {@code min} and {@code max} with the bounding box of the (at least
+	 * one) {@code vertices}.
+	 */
+	protected static void meshBounds(float[] vertices, PVector min, PVector max) {
+		min.set(Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE);
+		max.set(-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE);
+		for (int i = 0; i + 2 < vertices.length; i += 3) {
+			min.set(PApplet.min(min.x, vertices[i]), PApplet.min(min.y, vertices[i + 1]), PApplet.min(min.z, vertices[i + 2]));
+			max.set(PApplet.max(max.x, vertices[i]), PApplet.max(max.y, vertices[i + 1]), PApplet.max(max.z, vertices[i + 2]));
+		}
+	}
+
+	/**
+	 * Unregisters the object {@code id}. Its id may be returned again by a
+	 * later {@link #add(PVector, PVector, Frame)}.
+	 */
+	public void remove(int id) {
+		if (!isRegistered(id))
+			return;
+		alive[id] = false;
+		frames[id] = null;
+		meshVertices[id] = null;
+		meshTriangles[id] = null;
+		freeIds[freeCount++] = id;
+		liveCount--;
+		needsBuild = true;
+		cancelBuild();
+	}
+
+	/**
+	 * Removes all the objects from the hierarchy.
+	 */
+	public void clear() {
+		for (int i = 0; i < objCount; i++) {
+			alive[i] = false;
+			frames[i] = null;
+			meshVertices[i] = null;
+			meshTriangles[i] = null;
+			leafOf[i] = -1;
+		}
+		cancelBuild();
+		objCount = 0;
+		liveCount = 0;
+		freeCount = 0;
+		nodeCount = 0;
+		visibleCount = 0;
+		needsBuild = false;
+	}
+
+	/**
+	 * Returns {@code true} if {@code id} refers to a registered object.
+	 */
+	public boolean isRegistered(int id) {
+		return id >= 0 && id < objCount && alive[id];
+	}
+
+	/**
+	 * Returns the number of registered objects.
+	 */
+	public int size() {
+		return liveCount;
+	}
+
+	/**
+	 * Returns the Frame the object {@code id} is attached to, or {@code null}
+	 * if its box is defined in the world coordinate system.
+	 */
+	public Frame frame(int id) {
+		return frames[id];
+	}
+
+	/**
+	 * Redefines the bounding box of the object {@code id} (in the coordinate
+	 * system of its {@link #frame(int)}). The hierarchy is refitted, not
+	 * rebuilt.
+	 */
+	public void setBounds(int id, PVector min, PVector max) {
+		if (!isRegistered(id))
+			return;
+		setLocalBounds(id, min, max);
+		if (needsBuild && buildExecutor == null)
+			return;
+		updateWorldBounds(id);
+		if (leafOf[id] >= 0) {
+			nodeDirty[leafOf[id]] = true;
+			refitNodes();
+		}
+	}
+
+	/**
+	 * Fills {@code min} and {@code max} with the world axis aligned bounding
+	 * box of the object {@code id}, as of the last {@link #refit()}.
+	 */
+	public void worldBounds(int id, PVector min, PVector max) {
+		int o = 6 * id;
+		min.set(worldBounds[o], worldBounds[o + 1], worldBounds[o + 2]);
+		max.set(worldBounds[o + 3], worldBounds[o + 4], worldBounds[o + 5]);
+	}
+
+	/**
+	 * (Re)builds the hierarchy from scratch, using a median split of the object
+	 * box centers along the largest axis.
+	 * <p>
+	 * This is automatically called after objects are added or removed.
+	 * Refitting keeps the hierarchy valid when objects move, but you may want to
+	 * call this method when they moved far away from their original location.
+	 * <p>
+	 * The hierarchy is rebuilt right away, even if a background build (see
+	 * {@link #setAsynchronousBuild(JobExecutor)}) is pending, which is then
+	 * cancelled.
+	 */
+	public void build() {
+		cancelBuild();
+		int n = 0;
+		for (int i = 0; i < objCount; i++) {
+			leafOf[i] = -1;
+			if (alive[i]) {
+				order[n++] = i;
+				if (frames[i] != null)
+					versions[i] = frames[i].worldTransformVersion();
+				updateWorldBounds(i);
+			}
+		}
+		needsBuild = false;
+		buildNodes(n);
+		growStacks();
+	}
+
+	/**
+	 * Returns the JobExecutor rebuilding the hierarchy in the background, or
+	 * {@code null} (the default) if it is rebuilt within {@link #refit()}.
+	 * 
+	 * @see #setAsynchronousBuild(JobExecutor)
+	 */
+	public JobExecutor asynchronousBuild() {
+		return buildExecutor;
+	}
+
+	/**
+	 * When {@code executor} is not {@code null}, the hierarchy is rebuilt after
+	 * objects are added or removed by a job of {@code executor} (typically the
+	 * {@link remixlab.proscene.Scene#jobExecutor()}), keyed by the hierarchy,
+	 * instead of within {@link #refit()}. The job builds the nodes on a snapshot
+	 * of the world boxes and the new nodes are swapped in when the job is
+	 * published (at the next {@link remixlab.proscene.Scene#pre()}). The job is
+	 * cancelled (and submitted again by the next {@link #refit()}) if objects are
+	 * added or removed meanwhile.
+	 * <p>
+	 * Until then, the previous hierarchy is refitted and culled as usual: removed
+	 * objects are skipped, but objects added since the last build are neither
+	 * reported by {@link #cull(float[][])} nor hit by
+	 * {@link #raycast(PVector, PVector, PVector)} (unless they recycle the id of
+	 * a removed object). The first build is always done within {@link #refit()}.
+	 * Pass {@code null} to rebuild within {@link #refit()} again.
+	 */
+	public void setAsynchronousBuild(JobExecutor executor) {
+		if (executor != buildExecutor)
+			cancelBuild();
+		buildExecutor = executor;
+	}
+
+	private void cancelBuild() {
+		if (buildJob != null) {
+			buildJob.cancel();
+			buildJob = null;
+		}
+	}
+
+	/**
+	 * Builds the nodes on a copy of the world boxes in the background. The new
+	 * nodes are swapped in by the job publication, from the drawing thread.
+	 */
+	private void submitBuild() {
+		final int[] ids = new int[liveCount];
+		int n = 0;
+		for (int i = 0; i < objCount; i++)
+			if (alive[i])
+				ids[n++] = i;
+		final float[] bounds = PApplet.subset(worldBounds, 0, 6 * objCount);
+		final int capacity = leafOf.length;
+		buildJob = buildExecutor.submit(this, new JobExecutor.Job<BoundingVolumeHierarchy>() {
+			protected BoundingVolumeHierarchy compute() {
+				BoundingVolumeHierarchy tree = new BoundingVolumeHierarchy(bounds, ids, capacity);
+				tree.buildNodes(ids.length);
+				return tree;
+			}
+
+			protected void publish(BoundingVolumeHierarchy tree) {
+				buildJob = null;
+				swapNodes(tree);
+			}
+		});
+	}
+
+	/**
+	 * Replaces the nodes by those of {@code tree}, built in the background on the
+	 * current set of objects, and refits them to the current world boxes.
+	 */
+	private void swapNodes(BoundingVolumeHierarchy tree) {
+		nodeCount = tree.nodeCount;
+		nodeBounds = tree.nodeBounds;
+		nodeLeft = tree.nodeLeft;
+		nodeParent = tree.nodeParent;
+		nodeStart = tree.nodeStart;
+		nodeSize = tree.nodeSize;
+		nodePlane = tree.nodePlane;
+		nodeDirty = tree.nodeDirty;
+		depth = tree.depth;
+		System.arraycopy(tree.order, 0, order, 0, tree.order.length);
+		System.arraycopy(tree.leafOf, 0, leafOf, 0, tree.leafOf.length);
+		needsBuild = false;
+		growStacks();
+		// objects may have moved (or been resized) since the snapshot
+		for (int i = 0; i < objCount; i++)
+			if (alive[i]) {
+				if (frames[i] != null)
+					versions[i] = frames[i].worldTransformVersion();
+				updateWorldBounds(i);
+			}
+		for (int node = nodeCount - 1; node >= 0; node--)
+			fitNode(node);
+	}
+
+	/**
+	 * Updates the world boxes of the objects whose frame moved since the last
+	 * call, and the boxes of the nodes containing them. Calls {@link #build()}
+	 * instead if objects were added or removed, unless the hierarchy is rebuilt
+	 * in the background (see {@link #setAsynchronousBuild(JobExecutor)}), in
+	 * which case the rebuild job is submitted, if it is not pending already.
+	 * <p>
+	 * This is automatically called by {@link #cull(float[][])}.
+	 * 
+	 * @see remixlab.proscene.Frame#worldTransformVersion()
+	 */
+	public void refit() {
+		if (needsBuild && (buildExecutor == null || nodeCount == 0)) {
+			build();
+			return;
+		}
+		// objects added since the last build may have dirtied nodes
+		boolean moved = needsBuild;
+		for (int i = 0; i < objCount; i++) {
+			if (!alive[i] || frames[i] == null)
+				continue;
+			long v = frames[i].worldTransformVersion();
+			if (v != versions[i]) {
+				versions[i] = v;
+				updateWorldBounds(i);
+				if (leafOf[i] >= 0)
+					nodeDirty[leafOf[i]] = true;
+				moved = true;
+			}
+		}
+		if (moved)
+			refitNodes();
+		if (needsBuild && buildJob == null)
+			submitBuild();
+	}
+
+	/**
+	 * Convenience function that simply returns
+	 * {@code cull(camera.getFrustumEquations())}.
+	 */
+	public int cull(Camera camera) {
+		return cull(camera.getFrustumEquations());
+	}
+
+	/**
+	 * Culls the hierarchy against the six {@code planes} (given in the format
+	 * of {@link remixlab.proscene.Camera#getFrustumEquations()}) and returns
+	 * the number of objects that are not
+	 * {@link remixlab.proscene.Camera.Visibility#INVISIBLE}. Their ids are the
+	 * first entries of {@link #visibleObjects()}.
+	 * <p>
+	 * Calls {@link #refit()} first.
+	 */
+	public int cull(float[][] planes) {
+		refit();
+		visibleCount = 0;
+		if (nodeCount == 0)
+			return 0;
+		int sp = 0;
+		stackNode[sp] = 0;
+		stackMask[sp++] = ALL_PLANES;
+		while (sp > 0) {
+			int node = stackNode[--sp];
+			int mask = stackMask[sp];
+			// test the plane which rejected the node last time first
+			int last = nodePlane[node];
+			boolean out = false;
+			for (int k = 0; k < 6; k++) {
+				int p = (k == 0) ? last : ((k <= last) ? k - 1 : k);
+				if ((mask & (1 << p)) == 0)
+					continue;
+				int c = classify(nodeBounds, 6 * node, planes[p]);
+				if (c == OUTSIDE) {
+					nodePlane[node] = (byte) p;
+					out = true;
+					break;
+				}
+				if (c == INSIDE)
+					mask &= ~(1 << p);
+			}
+			if (out)
+				continue;
+			if (mask == 0) {
+				// the whole subtree is visible
+				int end = nodeStart[node] + nodeSize[node];
+				for (int i = nodeStart[node]; i < end; i++)
+					if (alive[order[i]])
+						visible[visibleCount++] = order[i];
+			}
+			else if (nodeLeft[node] < 0) {
+				int end = nodeStart[node] + nodeSize[node];
+				for (int i = nodeStart[node]; i < end; i++)
+					if (alive[order[i]] && isInside(order[i], planes, mask))
+						visible[visibleCount++] = order[i];
+			}
+			else {
+				stackNode[sp] = nodeLeft[node] + 1;
+				stackMask[sp++] = mask;
+				stackNode[sp] = nodeLeft[node];
+				stackMask[sp++] = mask;
+			}
+		}
+		return visibleCount;
+	}
+
+	/**
+	 * Returns the ids of the objects found visible by the last
+	 * {@link #cull(float[][])} (or visible in any view by the last
+	 * {@link #cull(float[][][])}). Only the first {@link #visibleCount()}
+	 * entries are meaningful.
+	 * <p>
+	 * The returned array is owned by the hierarchy: do not modify it.
+	 */
+	public int[] visibleObjects() {
+		return visible;
+	}
+
+	/**
+	 * Returns the number of objects found visible by the last
+	 * {@link #cull(float[][])}.
+	 */
+	public int visibleCount() {
+		return visibleCount;
+	}
+
+	/**
+	 * Convenience function that culls the hierarchy against the
+	 * {@link remixlab.proscene.Camera#getFrustumEquations()} of each of the
+	 * {@code cameras}. See {@link #cull(float[][][])}.
+	 */
+	public int cull(Camera[] cameras) {
+		float[][][] frustums = new float[cameras.length][][];
+		for (int v = 0; v < cameras.length; v++)
+			frustums[v] = cameras[v].getFrustumEquations();
+		return cull(frustums);
+	}
+
+	/**
+	 * Culls the hierarchy against several views at once, in a single traversal,
+	 * and returns the number of objects visible in at least one of them.
+	 * {@code frustums[v]} holds the six planes of view {@code v} (in the format
+	 * of {@link remixlab.proscene.Camera#getFrustumEquations()}), e.g., the
+	 * frustums of the cameras of several Scenes sharing the same world, or the
+	 * {@link remixlab.proscene.Camera#computeStereoFrustumEquations(float[][])}.
+	 * <p>
+	 * Each node is visited once and tested against the planes of the views for
+	 * which it is neither outside nor fully inside (each view keeps its own plane
+	 * mask down the hierarchy). The ids of the objects visible in view {@code v}
+	 * are the first {@link #visibleCount(int)} entries of
+	 * {@link #visibleObjects(int)}.
+	 * <p>
+	 * Calls {@link #refit()} first.
+	 */
+	public int cull(float[][][] frustums) {
+		refit();
+		int views = frustums.length;
+		if (viewVisible.length < views || (views > 0 && viewVisible[0].length < visible.length)) {
+			viewVisible = new int[PApplet.max(views, viewVisible.length)][visible.length];
+			viewVisibleCount = new int[viewVisible.length];
+		}
+		if (viewStackMask.length < stackNode.length * views) {
+			viewStackMask = new int[stackNode.length * views];
+			viewMask = new int[views];
+		}
+		for (int v = 0; v < viewVisibleCount.length; v++)
+			viewVisibleCount[v] = 0;
+		if (nodeCount == 0 || views == 0)
+			return 0;
+		int sp = 0;
+		stackNode[sp++] = 0;
+		for (int v = 0; v < views; v++)
+			viewStackMask[v] = ALL_PLANES;
+		while (sp > 0) {
+			int node = stackNode[--sp];
+			// nodes that are partially visible in some view
+			boolean split = false;
+			for (int v = 0; v < views; v++) {
+				int mask = viewStackMask[sp * views + v];
+				for (int p = 0; p < 6 && mask > 0; p++) {
+					if ((mask & (1 << p)) == 0)
+						continue;
+					int c = classify(nodeBounds, 6 * node, frustums[v][p]);
+					if (c == OUTSIDE)
+						mask = -1;
+					else if (c == INSIDE)
+						mask &= ~(1 << p);
+				}
+				if (mask == 0) {
+					// the whole subtree is visible in this view
+					int end = nodeStart[node] + nodeSize[node];
+					int[] list = viewVisible[v];
+					for (int i = nodeStart[node]; i < end; i++)
+						if (alive[order[i]])
+							list[viewVisibleCount[v]++] = order[i];
+					mask = -1;
+				}
+				else if (mask > 0 && nodeLeft[node] < 0) {
+					int end = nodeStart[node] + nodeSize[node];
+					int[] list = viewVisible[v];
+					for (int i = nodeStart[node]; i < end; i++)
+						if (alive[order[i]] && isInside(order[i], frustums[v], mask))
+							list[viewVisibleCount[v]++] = order[i];
+					mask = -1;
+				}
+				viewMask[v] = mask;
+				split |= mask > 0;
+			}
+			if (split) {
+				stackNode[sp] = nodeLeft[node] + 1;
+				System.arraycopy(viewMask, 0, viewStackMask, sp++ * views, views);
+				stackNode[sp] = nodeLeft[node];
+				System.arraycopy(viewMask, 0, viewStackMask, sp++ * views, views);
+			}
+		}
+		// the union of the visible lists
+		visibleCount = 0;
+		for (int v = 0; v < views; v++) {
+			int[] list = viewVisible[v];
+			for (int i = 0; i < viewVisibleCount[v]; i++)
+				if (!seen[list[i]]) {
+					seen[list[i]] = true;
+					visible[visibleCount++] = list[i];
+				}
+		}
+		for (int i = 0; i < visibleCount; i++)
+			seen[visible[i]] = false;
+		return visibleCount;
+	}
+
+	/**
+	 * Returns the ids of the objects found visible in view {@code view} by the
+	 * last {@link #cull(float[][][])}. Only the first {@link #visibleCount(int)}
+	 * entries are meaningful.
+	 * <p>
+	 * The returned array is owned by the hierarchy: do not modify it.
+	 */
+	public int[] visibleObjects(int view) {
+		return viewVisible[view];
+	}
+
+	/**
+	 * Returns the number of objects found visible in view {@code view} by the
+	 * last {@link #cull(float[][][])}.
+	 */
+	public int visibleCount(int view) {
+		return viewVisibleCount[view];
+	}
+
+	/**
+	 * Casts the ray starting at {@code orig} along {@code dir} (both defined in
+	 * the world coordinate system) and returns the id of the first object it
+	 * hits, or {@code -1} if none is hit. When {@code hit} is not {@code null} it
+	 * is filled with the world coordinates of the intersection.
+	 * <p>
+	 * Objects are hit on their {@link #setMesh(int, float[], int[])} triangles
+	 * (both faces) when they have one, and on their bounding box otherwise (the
+	 * box defined in the object frame, not the world axis aligned one). When
+	 * {@code orig} lies within a box, its exit point is returned. Nodes are
+	 * visited front to back and those further than the closest hit so far are
+	 * skipped. The distance to the hit, in {@code dir} units, is given by
+	 * {@link #rayDistance()}.
+	 * <p>
+	 * Calls {@link #refit()} first. No objects are created.
+	 * 
+	 * @see remixlab.proscene.Camera#pointUnderPixel(Point, BoundingVolumeHierarchy)
+	 */
+	public int raycast(PVector orig, PVector dir, PVector hit) {
+		refit();
+		rayDistance = Float.POSITIVE_INFINITY;
+		if (nodeCount == 0)
+			return -1;
+		float ox = orig.x, oy = orig.y, oz = orig.z;
+		float ix = 1 / dir.x, iy = 1 / dir.y, iz = 1 / dir.z;
+		float best = Float.POSITIVE_INFINITY;
+		int bestId = -1;
+		int sp = 0;
+		stackNode[sp++] = 0;
+		while (sp > 0) {
+			int node = stackNode[--sp];
+			if (rayBox(nodeBounds, 6 * node, ox, oy, oz, ix, iy, iz, false) >= best)
+				continue;
+			if (nodeLeft[node] < 0) {
+				int end = nodeStart[node] + nodeSize[node];
+				for (int i = nodeStart[node]; i < end; i++) {
+					if (!alive[order[i]])
+						continue;
+					float t = intersect(order[i], orig, dir, best);
+					if (t < best) {
+						best = t;
+						bestId = order[i];
+					}
+				}
+			}
+			else {
+				int left = nodeLeft[node];
+				float tl = rayBox(nodeBounds, 6 * left, ox, oy, oz, ix, iy, iz, false);
+				float tr = rayBox(nodeBounds, 6 * (left + 1), ox, oy, oz, ix, iy, iz, false);
+				// push the farthest child first, so that the nearest is visited first
+				int near = tl <= tr ? left : left + 1;
+				float tNear = PApplet.min(tl, tr);
+				float tFar = PApplet.max(tl, tr);
+				if (tFar < best)
+					stackNode[sp++] = near == left ? left + 1 : left;
+				if (tNear < best)
+					stackNode[sp++] = near;
+			}
+		}
+		if (bestId >= 0) {
+			rayDistance = best;
+			if (hit != null)
+				hit.set(ox + best * dir.x, oy + best * dir.y, oz + best * dir.z);
+		}
+		return bestId;
+	}
+
+	/**
+	 * Returns the distance (in units of the ray direction) to the hit found by
+	 * the last {@link #raycast(PVector, PVector, PVector)}, or
+	 * {@code Float.POSITIVE_INFINITY} if there was none.
+	 */
+	public float rayDistance() {
+		return rayDistance;
+	}
+
+	/**
+	 * Returns the distance along the ray ({@code orig}, {@code dir}) to the
+	 * object {@code id}, or {@code Float.POSITIVE_INFINITY} if it is not hit
+	 * before {@code maxDistance}.
+	 */
+	protected float intersect(int id, PVector orig, PVector dir, float maxDistance) {
+		Frame f = frames[id];
+		PVector o = orig;
+		PVector d = dir;
+		if (f != null) {
+			// frames are rigid, hence distances along the ray are preserved
+			o = f.coordinatesOf(orig, tmpVec);
+			d = f.transformOf(dir, tmpDir);
+		}
+		float t = rayBox(localBounds, 6 * id, o.x, o.y, o.z, 1 / d.x, 1 / d.y, 1 / d.z, meshVertices[id] == null);
+		if (t >= maxDistance || meshVertices[id] == null)
+			return t;
+		return rayMesh(meshVertices[id], meshTriangles[id], o.x, o.y, o.z, d.x, d.y, d.z, maxDistance);
+	}
+
+	/**
+	 * Returns the distance along the ray to the box stored at
+	 * {@code bounds[o..o+5]} using the slab method, or
+	 * {@code Float.POSITIVE_INFINITY} if the ray misses it. The inverse of the
+	 * ray direction is given. When the ray origin is inside the box, returns 0,
+	 * or the exit distance if {@code surface} is {@code true}.
+	 */
+	protected static float rayBox(float[] bounds, int o, float ox, float oy, float oz, float ix, float iy, float iz, boolean surface) {
+		float t1 = (bounds[o] - ox) * ix;
+		float t2 = (bounds[o + 3] - ox) * ix;
+		float tmin = PApplet.min(t1, t2);
+		float tmax = PApplet.max(t1, t2);
+		t1 = (bounds[o + 1] - oy) * iy;
+		t2 = (bounds[o + 4] - oy) * iy;
+		tmin = PApplet.max(tmin, PApplet.min(t1, t2));
+		tmax = PApplet.min(tmax, PApplet.max(t1, t2));
+		t1 = (bounds[o + 2] - oz) * iz;
+		t2 = (bounds[o + 5] - oz) * iz;
+		tmin = PApplet.max(tmin, PApplet.min(t1, t2));
+		tmax = PApplet.min(tmax, PApplet.max(t1, t2));
+		if (!(tmax >= tmin) || tmax < 0)
+			return Float.POSITIVE_INFINITY;
+		if (tmin >= 0)
+			return tmin;
+		return surface ? tmax : 0;
+	}
+
+	/**
+	 * Returns the distance along the ray to the closest triangle of the mesh
+	 * (Moller-Trumbore test, both faces), or {@code Float.POSITIVE_INFINITY} if
+	 * none is hit before {@code maxDistance}.
+	 */
+	protected static float rayMesh(float[] v, int[] triangles, float ox, float oy, float oz, float dx, float dy, float dz, float maxDistance) {
+		float best = Float.POSITIVE_INFINITY;
+		int count = triangles == null ? v.length / 9 : triangles.length / 3;
+		for (int k = 0; k < count; k++) {
+			int a = 3 * (triangles == null ? 3 * k : triangles[3 * k]);
+			int b = 3 * (triangles == null ? 3 * k + 1 : triangles[3 * k + 1]);
+			int c = 3 * (triangles == null ? 3 * k + 2 : triangles[3 * k + 2]);
+			float e1x = v[b] - v[a], e1y = v[b + 1] - v[a + 1], e1z = v[b + 2] - v[a + 2];
+			float e2x = v[c] - v[a], e2y = v[c + 1] - v[a + 1], e2z = v[c + 2] - v[a + 2];
+			// p = d x e2
+			float px = dy * e2z - dz * e2y;
+			float py = dz * e2x - dx * e2z;
+			float pz = dx * e2y - dy * e2x;
+			float det = e1x * px + e1y * py + e1z * pz;
+			if (det > -1E-12f && det < 1E-12f)
+				continue;
+			float inv = 1 / det;
+			float sx = ox - v[a], sy = oy - v[a + 1], sz = oz - v[a + 2];
+			float u = (sx * px + sy * py + sz * pz) * inv;
+			if (u < 0 || u > 1)
+				continue;
+			// q = s x e1
+			float qx = sy * e1z - sz * e1y;
+			float qy = sz * e1x - sx * e1z;
+			float qz = sx * e1y - sy * e1x;
+			float w = (dx * qx + dy * qy + dz * qz) * inv;
+			if (w < 0 || u + w > 1)
+				continue;
+			float t = (e2x * qx + e2y * qy + e2z * qz) * inv;
+			if (t >= 0 && t < best && t < maxDistance)
+				best = t;
+		}
+		return best;
+	}
+
+	/**
+	 * Returns {@code true} if the box of the object {@code id} is not outside
+	 * any of the {@code planes} selected by the bits of {@code mask}.
+	 */
+	protected boolean isInside(int id, float[][] planes, int mask) {
+		for (int p = 0; p < 6; p++)
+			if (((mask & (1 << p)) != 0) && (classify(worldBounds, 6 * id, planes[p]) == OUTSIDE))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Classifies the box stored at {@code bounds[o..o+5]} against
+	 * {@code plane}, testing only its n-vertex and p-vertex.
+	 */
+	protected static int classify(float[] bounds, int o, float[] plane) {
+		float a = plane[0];
+		float b = plane[1];
+		float c = plane[2];
+		float nd = a * (a > 0 ? bounds[o] : bounds[o + 3]) + b * (b > 0 ? bounds[o + 1] : bounds[o + 4])
+				+ c * (c > 0 ? bounds[o + 2] : bounds[o + 5]) - plane[3];
+		if (nd > 0)
+			return OUTSIDE;
+		float pd = a * (a > 0 ? bounds[o + 3] : bounds[o]) + b * (b > 0 ? bounds[o + 4] : bounds[o + 1])
+				+ c * (c > 0 ? bounds[o + 5] : bounds[o + 2]) - plane[3];
+		return pd > 0 ? INTERSECTING : INSIDE;
+	}
+
+	/**
+	 * Builds the nodes on the first {@code n} entries of {@code order}.
+	 */
+	protected void buildNodes(int n) {
+		nodeCount = 0;
+		depth = 0;
+		if (n == 0)
+			return;
+		if (nodeLeft.length < 2 * n)
+			growNodes(2 * n);
+		nodeCount = 1;
+		nodeParent[0] = -1;
+		nodeStart[0] = 0;
+		nodeSize[0] = n;
+		buildNode(0, 1);
+	}
+
+	protected void growStacks() {
+		if (stackNode.length < 2 * depth + 2) {
+			stackNode = new int[2 * depth + 2];
+			stackMask = new int[2 * depth + 2];
+		}
+	}
+
+	protected void buildNode(int node, int level) {
+		depth = PApplet.max(depth, level);
+		int start = nodeStart[node];
+		int size = nodeSize[node];
+		nodePlane[node] = 0;
+		nodeDirty[node] = false;
+		if (size <= LEAF_SIZE) {
+			nodeLeft[node] = -1;
+			for (int i = start; i < start + size; i++)
+				leafOf[order[i]] = node;
+			fitNode(node);
+			return;
+		}
+		// split along the largest axis of the box centers
+		float[] lo = { Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE };
+		float[] hi = { -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE };
+		for (int i = start; i < start + size; i++)
+			for (int a = 0; a < 3; a++) {
+				float c = center(order[i], a);
+				lo[a] = PApplet.min(lo[a], c);
+				hi[a] = PApplet.max(hi[a], c);
+			}
+		int axis = 0;
+		for (int a = 1; a < 3; a++)
+			if (hi[a] - lo[a] > hi[axis] - lo[axis])
+				axis = a;
+		int mid = start + size / 2;
+		select(start, start + size - 1, mid, axis);
+
+		int left = nodeCount;
+		nodeCount += 2;
+		nodeLeft[node] = left;
+		nodeParent[left] = nodeParent[left + 1] = node;
+		nodeStart[left] = start;
+		nodeSize[left] = mid - start;
+		nodeStart[left + 1] = mid;
+		nodeSize[left + 1] = start + size - mid;
+		buildNode(left, level + 1);
+		buildNode(left + 1, level + 1);
+		fitNode(node);
+	}
+
+	/**
+	 * Recomputes the bounds of the dirty nodes, children first.
+	 */
+	protected void refitNodes() {
+		for (int node = nodeCount - 1; node >= 0; node--)
+			if (nodeDirty[node]) {
+				fitNode(node);
+				nodeDirty[node] = false;
+				if (nodeParent[node] >= 0)
+					nodeDirty[nodeParent[node]] = true;
+			}
+	}
+
+	protected void fitNode(int node) {
+		int o = 6 * node;
+		if (nodeLeft[node] < 0) {
+			int start = nodeStart[node];
+			int end = start + nodeSize[node];
+			for (int k = 0; k < 3; k++) {
+				nodeBounds[o + k] = Float.MAX_VALUE;
+				nodeBounds[o + 3 + k] = -Float.MAX_VALUE;
+			}
+			for (int i = start; i < end; i++) {
+				int w = 6 * order[i];
+				for (int k = 0; k < 3; k++) {
+					nodeBounds[o + k] = PApplet.min(nodeBounds[o + k], worldBounds[w + k]);
+					nodeBounds[o + 3 + k] = PApplet.max(nodeBounds[o + 3 + k], worldBounds[w + 3 + k]);
+				}
+			}
+		}
+		else {
+			int l = 6 * nodeLeft[node];
+			int r = l + 6;
+			for (int k = 0; k < 3; k++) {
+				nodeBounds[o + k] = PApplet.min(nodeBounds[l + k], nodeBounds[r + k]);
+				nodeBounds[o + 3 + k] = PApplet.max(nodeBounds[l + 3 + k], nodeBounds[r + 3 + k]);
+			}
+		}
+	}
+
+	/**
+	 * Partially sorts {@code order[lo..hi]} so that the k-th entry holds the
+	 * object which center along {@code axis} would be there if it were sorted.
+	 */
+	protected void select(int lo, int hi, int k, int axis) {
+		while (hi > lo) {
+			float pivot = center(order[(lo + hi) >>> 1], axis);
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (center(order[i], axis) < pivot)
+					i++;
+				while (center(order[j], axis) > pivot)
+					j--;
+				if (i <= j) {
+					int t = order[i];
+					order[i++] = order[j];
+					order[j--] = t;
+				}
+			}
+			if (k <= j)
+				hi = j;
+			else if (k >= i)
+				lo = i;
+			else
+				return;
+		}
+	}
+
+	// twice the box center, which is enough to compare centers
+	protected float center(int id, int axis) {
+		return worldBounds[6 * id + axis] + worldBounds[6 * id + 3 + axis];
+	}
+
+	protected void setLocalBounds(int id, PVector min, PVector max) {
+		int o = 6 * id;
+		localBounds[o] = PApplet.min(min.x, max.x);
+		localBounds[o + 1] = PApplet.min(min.y, max.y);
+		localBounds[o + 2] = PApplet.min(min.z, max.z);
+		localBounds[o + 3] = PApplet.max(min.x, max.x);
+		localBounds[o + 4] = PApplet.max(min.y, max.y);
+		localBounds[o + 5] = PApplet.max(min.z, max.z);
+	}
+
+	/**
+	 * Computes the world axis aligned box of the object {@code id} from its
+	 * local box and its frame world transformation.
+	 */
+	protected void updateWorldBounds(int id) {
+		int o = 6 * id;
+		Frame f = frames[id];
+		if (f == null) {
+			System.arraycopy(localBounds, o, worldBounds, o, 6);
+			return;
+		}
+		float ex = (localBounds[o + 3] - localBounds[o]) / 2;
+		float ey = (localBounds[o + 4] - localBounds[o + 1]) / 2;
+		float ez = (localBounds[o + 5] - localBounds[o + 2]) / 2;
+		tmpVec.set(localBounds[o] + ex, localBounds[o + 1] + ey, localBounds[o + 2] + ez);
+		f.inverseCoordinatesOf(tmpVec, tmpVec);
+		Quaternion q = f.orientation(tmpQuat);
+		// extents of the rotated box: |R| * e
+		float q00 = 2.0f * q.x * q.x;
+		float q11 = 2.0f * q.y * q.y;
+		float q22 = 2.0f * q.z * q.z;
+		float q01 = 2.0f * q.x * q.y;
+		float q02 = 2.0f * q.x * q.z;
+		float q03 = 2.0f * q.x * q.w;
+		float q12 = 2.0f * q.y * q.z;
+		float q13 = 2.0f * q.y * q.w;
+		float q23 = 2.0f * q.z * q.w;
+		float wx = PApplet.abs(1.0f - q11 - q22) * ex + PApplet.abs(q01 - q23) * ey + PApplet.abs(q02 + q13) * ez;
+		float wy = PApplet.abs(q01 + q23) * ex + PApplet.abs(1.0f - q22 - q00) * ey + PApplet.abs(q12 - q03) * ez;
+		float wz = PApplet.abs(q02 - q13) * ex + PApplet.abs(q12 + q03) * ey + PApplet.abs(1.0f - q11 - q00) * ez;
+		worldBounds[o] = tmpVec.x - wx;
+		worldBounds[o + 1] = tmpVec.y - wy;
+		worldBounds[o + 2] = tmpVec.z - wz;
+		worldBounds[o + 3] = tmpVec.x + wx;
+		worldBounds[o + 4] = tmpVec.y + wy;
+		worldBounds[o + 5] = tmpVec.z + wz;
+	}
+
+	protected void growObjects(int capacity) {
+		localBounds = PApplet.expand(localBounds, 6 * capacity);
+		worldBounds = PApplet.expand(worldBounds, 6 * capacity);
+		Frame[] f = new Frame[capacity];
+		System.arraycopy(frames, 0, f, 0, frames.length);
+		frames = f;
+		versions = PApplet.expand(versions, capacity);
+		alive = PApplet.expand(alive, capacity);
+		int old = leafOf.length;
+		leafOf = PApplet.expand(leafOf, capacity);
+		Arrays.fill(leafOf, old, capacity, -1);
+		freeIds = PApplet.expand(freeIds, capacity);
+		order = PApplet.expand(order, capacity);
+		visible = PApplet.expand(visible, capacity);
+		seen = PApplet.expand(seen, capacity);
+		float[][] mv = new float[capacity][];
+		System.arraycopy(meshVertices, 0, mv, 0, meshVertices.length);
+		meshVertices = mv;
+		int[][] mt = new int[capacity][];
+		System.arraycopy(meshTriangles, 0, mt, 0, meshTriangles.length);
+		meshTriangles = mt;
+	}
+
+	protected void growNodes(int capacity) {
+		nodeBounds = PApplet.expand(nodeBounds, 6 * capacity);
+		nodeLeft = PApplet.expand(nodeLeft, capacity);
+		nodeParent = PApplet.expand(nodeParent, capacity);
+		nodeStart = PApplet.expand(nodeStart, capacity);
+		nodeSize = PApplet.expand(nodeSize, capacity);
+		nodePlane = PApplet.expand(nodePlane, capacity);
+		nodeDirty = PApplet.expand(nodeDirty, capacity);
+	}
+}
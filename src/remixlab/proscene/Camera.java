@@ -33,6 +33,11 @@ import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * A perspective or orthographic camera.
@@ -173,6 +178,19 @@ public class Camera implements Cloneable {
 		VISIBLE, SEMIVISIBLE, INVISIBLE
 	};
 
+	// Visibility ordinals, as written by the batch culling methods
+	private static final Visibility[] VISIBILITIES = Visibility.values();
+	private static final byte VISIBLE_ORD = (byte) Visibility.VISIBLE.ordinal();
+	private static final byte SEMIVISIBLE_ORD = (byte) Visibility.SEMIVISIBLE.ordinal();
+	private static final byte INVISIBLE_ORD = (byte) Visibility.INVISIBLE.ordinal();
+
+	/**
+	 * Minimum number of points transformed by each task of
+	 * {@link #projectArray(float[], float[], int, ExecutorService)} and
+	 * {@link #unprojectArray(float[], float[], int, ExecutorService)}.
+	 */
+	public static final int PARALLEL_BATCH_SIZE = 8192;
+
 	/**
 	 * Enumerates the Camera kind.
 	 */
@@ -204,8 +222,29 @@ public class Camera implements Cloneable {
 	//cache optimization
 	//public boolean projectCacheOptimized;
 	public boolean unprojectCacheOptimized;
-	private boolean projectionTimesModelviewHasInverse;
-	private PMatrix3D projectionTimesModelviewInverse;
+
+	// V e r s i o n e d c a c h e s
+	// Private copies (never aliased to the processing matrices) derived from
+	// the camera parameters, each one valid while its version is stateVersion.
+	private long stateVersion = 1;
+	private long frameVersion = -1;
+	private PMatrix3D projectionCache = new PMatrix3D();
+	private PMatrix3D modelViewCache = new PMatrix3D();
+	private PMatrix3D projModelViewCache = new PMatrix3D();
+	private PMatrix3D projModelViewInverseCache = new PMatrix3D();
+	private boolean projModelViewCacheHasInverse;
+	private int[] viewportCache = new int[4];
+	private float[] orthoWidthHeightCache = new float[2];
+	private long projectionCacheVersion, modelViewCacheVersion, projModelViewCacheVersion,
+	             projModelViewInverseCacheVersion, viewportCacheVersion, orthoWidthHeightCacheVersion,
+	             fpCoefficientsVersion;
+	// explicitly set matrices (see setProjectionMatrix()) and their P x M caches,
+	// valid while their version is explicitVersion
+	private boolean projectionIsExplicit, modelViewIsExplicit, projModelViewIsExplicit;
+	private long explicitVersion = 1, explicitProjModelViewVersion, explicitInverseVersion;
+	private PMatrix3D explicitProjModelView = new PMatrix3D();
+	private PMatrix3D explicitProjModelViewInverse = new PMatrix3D();
+	private boolean explicitProjModelViewHasInverse;
 
 	// S t e r e o p a r a m e t e r s
 	private float IODist; // inter-ocular distance, in meters
@@ -219,6 +258,9 @@ public class Camera implements Cloneable {
 	protected KeyFrameInterpolator interpolationKfi;
 	protected InteractiveCameraFrame tempFrame;
 
+	// P i c k i n g
+	protected BoundingVolumeHierarchy pickingHierarchy;
+
 	// F r u s t u m p l a n e c o e f f i c i e n t s
 	protected float fpCoefficients[][];
 	protected boolean fpCoefficientsUpdate;
@@ -227,6 +269,9 @@ public class Camera implements Cloneable {
    * <P>
    * Takes into account the {@link #frame()} (position and orientation of the camera)
    * and the camera {@link #type()} and {@link #kind()}.
+   * <p>
+   * Kept for backward compatibility. Since several changes may occur within the
+   * same frame, use {@link #stateVersion()} instead.
    */
 	public int lastFrameUpdate = 0;
 	protected int lastFPCoeficientsUpdateIssued = -1;
@@ -235,7 +280,8 @@ public class Camera implements Cloneable {
 	private boolean attachedToPCam;
 
 	// P R O S C E N E A N D P R O C E S S I N G A P P L E T A N D O B J E C T S
-	public Scene scene;
+	public Host host;
+	public Scene scene; // null for headless cameras
 	public PGraphics3D pg3d;
 
 	/**
@@ -266,9 +312,26 @@ public class Camera implements Cloneable {
 	 * @see #Camera(Scene)
 	 */
 	public Camera(Scene scn, boolean attachedToScene) {
-		scene = scn;
-		pg3d = scene.renderer();
-		attachedToPCam = attachedToScene;
+		this((Host) scn, attachedToScene);
+	}
+
+	/**
+	 * Creates a Camera owned by {@code host}. When {@code host} is not a Scene
+	 * the Camera is headless: it is detached from the processing camera (see
+	 * {@link #isDetachedFromP5Camera()}) and does not require any PApplet,
+	 * renderer or display.
+	 * 
+	 * @see remixlab.proscene.HeadlessHost
+	 */
+	public Camera(Host host) {
+		this(host, false);
+	}
+
+	protected Camera(Host h, boolean attachedToScene) {
+		host = h;
+		scene = host instanceof Scene ? (Scene) host : null;
+		pg3d = scene == null ? null : scene.renderer();
+		attachedToPCam = attachedToScene && pg3d != null;
 		
 		enableFrustumEquationsUpdate(false);
 		optimizeUnprojectCache(false);
@@ -281,7 +344,7 @@ public class Camera implements Cloneable {
 		fpCoefficients = new float[6][4];
 
 		// KeyFrames
-		interpolationKfi = new KeyFrameInterpolator(scene, frame());
+		interpolationKfi = new KeyFrameInterpolator(host, frame());
 		kfi = new HashMap<Integer, KeyFrameInterpolator>();
 
 		setFrame(new InteractiveCameraFrame(this));
@@ -357,8 +420,8 @@ public class Camera implements Cloneable {
 
 	/**
 	 * Set the Camera matrices as references to the processing camera matrices. If
-	 * the references are already set ({@link #isAttachedToP5Camera()}), silently
-	 * ignores the call.
+	 * the references are already set ({@link #isAttachedToP5Camera()}), or if the
+	 * Camera is headless (see {@link #Camera(Host)}), silently ignores the call.
 	 * <p>
 	 * <b>Note:</b> Since it is only one Scene per PApplet, there's no need to
 	 * specify it.
@@ -367,7 +430,7 @@ public class Camera implements Cloneable {
 	 * @see #isAttachedToP5Camera()
 	 */
 	public void attachToP5Camera() {
-		if (!isAttachedToP5Camera()) {
+		if (!isAttachedToP5Camera() && pg3d != null) {
 			attachedToPCam = true;
 			projectionMat = pg3d.projection;
 			modelViewMat = pg3d.modelview;
@@ -429,6 +492,17 @@ public class Camera implements Cloneable {
 				clonedCam.projectionMat = new PMatrix3D(projectionMat);
 				clonedCam.projectionTimesModelview = new PMatrix3D(projectionTimesModelview);
 			}
+			clonedCam.projectionCache = new PMatrix3D(projectionCache);
+			clonedCam.modelViewCache = new PMatrix3D(modelViewCache);
+			clonedCam.projModelViewCache = new PMatrix3D(projModelViewCache);
+			clonedCam.projModelViewInverseCache = new PMatrix3D(projModelViewInverseCache);
+			clonedCam.viewportCache = viewportCache.clone();
+			clonedCam.orthoWidthHeightCache = orthoWidthHeightCache.clone();
+			clonedCam.explicitProjModelView = new PMatrix3D(explicitProjModelView);
+			clonedCam.explicitProjModelViewInverse = new PMatrix3D(explicitProjModelViewInverse);
+			clonedCam.fpCoefficients = new float[6][4];
+			for (int i = 0; i < 6; i++)
+				clonedCam.fpCoefficients[i] = fpCoefficients[i].clone();
 			clonedCam.frm = frm.clone();
 			return clonedCam;
 		} catch (CloneNotSupportedException e) {
@@ -659,7 +733,7 @@ public class Camera implements Cloneable {
 	 */
 	public void setKind(Kind k) {
 		if(k!=knd)
-			lastFrameUpdate = scene.parent.frameCount;
+			modified();
 		knd = k;		
 	}
 
@@ -672,7 +746,7 @@ public class Camera implements Cloneable {
 	 */
 	public void setStandardZNear(float zN) {
 		if( (kind() == Camera.Kind.STANDARD) && (zN != stdZNear) )
-			lastFrameUpdate = scene.parent.frameCount;
+			modified();
 		stdZNear = zN;
 	}
 
@@ -696,7 +770,7 @@ public class Camera implements Cloneable {
 	 */
 	public void setStandardZFar(float zF) {
 		if( (kind() == Camera.Kind.STANDARD) && (zF != stdZFar) )
-			lastFrameUpdate = scene.parent.frameCount;
+			modified();
 		stdZFar = zF;
 	}
 
@@ -721,7 +795,7 @@ public class Camera implements Cloneable {
 	 */
 	public void changeStandardOrthoFrustumSize(boolean augment) {
 		if( (kind() == Camera.Kind.STANDARD) && (type() == Camera.Type.ORTHOGRAPHIC) )
-			lastFrameUpdate = scene.parent.frameCount;
+			modified();
 		if (augment)
 			orthoSize *= 1.01f;
 		else
@@ -754,7 +828,7 @@ public class Camera implements Cloneable {
 		// been changed with a
 		// setArcballReferencePoint in the meantime.
 		if( type != type() )
-			lastFrameUpdate = scene.parent.frameCount;
+			modified();
 		if ((type == Camera.Type.ORTHOGRAPHIC) && (type() == Camera.Type.PERSPECTIVE))
 			orthoCoef = PApplet.tan(fieldOfView() / 2.0f);
 
@@ -787,6 +861,8 @@ public class Camera implements Cloneable {
 	 * {@link #fieldOfView()}/2) by this method.
 	 */
 	public void setFieldOfView(float fov) {
+		if(fov != fldOfView)
+			modified();
 		fldOfView = fov;
 		setFocusDistance(sceneRadius() / PApplet.tan(fov / 2.0f));
 	}
@@ -951,10 +1027,12 @@ public class Camera implements Cloneable {
 	 */
 	public void setScreenWidthAndHeight(int width, int height) {
 		// Prevent negative and zero dimensions that would cause divisions by zero.
-		if( (width != scrnWidth) && (height != scrnHeight) )
-			lastFrameUpdate = scene.parent.frameCount;
-		scrnWidth = width > 0 ? width : 1;
-		scrnHeight = height > 0 ? height : 1;
+		width = width > 0 ? width : 1;
+		height = height > 0 ? height : 1;
+		if( (width != scrnWidth) || (height != scrnHeight) )
+			modified();
+		scrnWidth = width;
+		scrnHeight = height;
 	}
 
 	/**
@@ -1001,10 +1079,11 @@ public class Camera implements Cloneable {
 		if ((viewport == null) || (viewport.length != 4)) {
 			viewport = new int[4];
 		}
-		viewport[0] = 0;
-		viewport[1] = screenHeight();
-		viewport[2] = screenWidth();
-		viewport[3] = -screenHeight();
+		int[] cache = cachedViewport();
+		viewport[0] = cache[0];
+		viewport[1] = cache[1];
+		viewport[2] = cache[2];
+		viewport[3] = cache[3];
 		return viewport;
 	}
 
@@ -1116,7 +1195,7 @@ public class Camera implements Cloneable {
 	 */
 	public void setZNearCoefficient(float coef) {
 		if(coef != zNearCoef)
-			lastFrameUpdate = scene.parent.frameCount;
+			modified();
 		zNearCoef = coef;
 	}
 
@@ -1146,7 +1225,7 @@ public class Camera implements Cloneable {
 	 */
 	public void setZClippingCoefficient(float coef) {
 		if(coef != zClippingCoef)
-			lastFrameUpdate = scene.parent.frameCount;
+			modified();
 		zClippingCoef = coef;
 	}
 
@@ -1176,7 +1255,7 @@ public class Camera implements Cloneable {
 			return 2.0f * PApplet.abs((frame().coordinatesOf(position)).z)
 					* PApplet.tan(fieldOfView() / 2.0f) / screenHeight();
 		case ORTHOGRAPHIC: {
-			float[] wh = getOrthoWidthHeight();
+			float[] wh = cachedOrthoWidthHeight();
 			return 2.0f * wh[1] / screenHeight();
 		}
 		}
@@ -1207,10 +1286,12 @@ public class Camera implements Cloneable {
 	 * @see remixlab.proscene.Scene#enableFrustumEquationsUpdate()
 	 */
 	public float distanceToFrustumPlane(int index, PVector pos) {
-		if (!scene.frustumEquationsUpdateIsEnable())
+		if (!host.frustumEquationsUpdateIsEnable())
 			PApplet.println("The camera frustum plane equations (needed by distanceToFrustumPlane) may be outdated. Please "
 							+ "enable automatic updates of the equations in your PApplet.setup "
 							+ "with Scene.enableFrustumEquationsUpdate()");
+		else
+			updateFrustumEquations();
 		PVector myVec = new PVector(fpCoefficients[index][0],
 				fpCoefficients[index][1], fpCoefficients[index][2]);
 		return PVector.dot(pos, myVec) - fpCoefficients[index][3];
@@ -1235,10 +1316,12 @@ public class Camera implements Cloneable {
 	 * @see remixlab.proscene.Scene#enableFrustumEquationsUpdate()
 	 */
 	public boolean pointIsVisible(PVector point) {
-		if (!scene.frustumEquationsUpdateIsEnable())
+		if (!host.frustumEquationsUpdateIsEnable())
 			PApplet.println("The camera frustum plane equations (needed by pointIsVisible) may be outdated. Please "
 							+ "enable automatic updates of the equations in your PApplet.setup "
 							+ "with Scene.enableFrustumEquationsUpdate()");
+		else
+			updateFrustumEquations();
 		for (int i = 0; i < 6; ++i)
 			if (distanceToFrustumPlane(i, point) > 0)
 				return false;
@@ -1267,13 +1350,16 @@ public class Camera implements Cloneable {
 	 * @see remixlab.proscene.Scene#enableFrustumEquationsUpdate()
 	 */
 	public Visibility sphereIsVisible(PVector center, float radius) {
-		if (!scene.frustumEquationsUpdateIsEnable())
+		if (!host.frustumEquationsUpdateIsEnable())
 			PApplet.println("The camera frustum plane equations (needed by sphereIsVisible) may be outdated. Please "
 							+ "enable automatic updates of the equations in your PApplet.setup "
 							+ "with Scene.enableFrustumEquationsUpdate()");
+		else
+			updateFrustumEquations();
 		boolean allInForAllPlanes = true;
 		for (int i = 0; i < 6; ++i) {
-			float d = distanceToFrustumPlane(i, center);
+			float d = fpCoefficients[i][0] * center.x + fpCoefficients[i][1] * center.y
+					+ fpCoefficients[i][2] * center.z - fpCoefficients[i][3];
 			if (d > radius)
 				return Camera.Visibility.INVISIBLE;
 			if ((d > 0) || (-d < radius))
@@ -1306,31 +1392,136 @@ public class Camera implements Cloneable {
 	 * @see remixlab.proscene.Scene#enableFrustumEquationsUpdate()
 	 */
 	public Visibility aaBoxIsVisible(PVector p1, PVector p2) {
-		if (!scene.frustumEquationsUpdateIsEnable())
+		if (!host.frustumEquationsUpdateIsEnable())
 			PApplet.println("The camera frustum plane equations (needed by aaBoxIsVisible) may be outdated. Please "
 							+ "enable automatic updates of the equations in your PApplet.setup "
 							+ "with Scene.enableFrustumEquationsUpdate()");
-		boolean allInForAllPlanes = true;
-		for (int i = 0; i < 6; ++i) {
-			boolean allOut = true;
-			for (int c = 0; c < 8; ++c) {
-				PVector pos = new PVector(((c & 4) != 0) ? p1.x : p2.x,
-						((c & 2) != 0) ? p1.y : p2.y, ((c & 1) != 0) ? p1.z : p2.z);
-				if (distanceToFrustumPlane(i, pos) > 0.0)
-					allInForAllPlanes = false;
-				else
-					allOut = false;
+		else
+			updateFrustumEquations();
+		return VISIBILITIES[aaBoxVisibility(PApplet.min(p1.x, p2.x), PApplet.min(p1.y, p2.y),
+				PApplet.min(p1.z, p2.z), PApplet.max(p1.x, p2.x), PApplet.max(p1.y, p2.y), PApplet.max(p1.z, p2.z))];
+	}
+
+	/**
+	 * Classifies the spheres packed in {@code centers} (as consecutive x, y, z
+	 * triplets) and {@code radii} against the camera frustum. The
+	 * {@code Visibility.ordinal()} of the first {@code count} spheres is written
+	 * into {@code results}, i.e., {@code Visibility.values()[results[i]]} is the
+	 * same as {@code sphereIsVisible(center_i, radius_i)}.
+	 * <p>
+	 * Returns the number of spheres which are not
+	 * {@link remixlab.proscene.Camera.Visibility#INVISIBLE}.
+	 * <p>
+	 * This method creates no objects and is meant to cull many instances per
+	 * frame.
+	 * <p>
+	 * <b>Attention:</b> The camera frustum plane equations should be updated
+	 * before calling this method. You may compute them explicitly (by calling
+	 * {@link #computeFrustumEquations()} ) or enable them to be automatic updated
+	 * in your Scene setup (with
+	 * {@link remixlab.proscene.Scene#enableFrustumEquationsUpdate()}).
+	 * 
+	 * @see #sphereIsVisible(PVector, float)
+	 * @see #aaBoxesAreVisible(float[], float[], int, byte[])
+	 */
+	public int spheresAreVisible(float[] centers, float[] radii, int count, byte[] results) {
+		if (!host.frustumEquationsUpdateIsEnable())
+			PApplet.println("The camera frustum plane equations (needed by spheresAreVisible) may be outdated. Please "
+							+ "enable automatic updates of the equations in your PApplet.setup "
+							+ "with Scene.enableFrustumEquationsUpdate()");
+		else
+			updateFrustumEquations();
+		int visible = 0;
+		for (int k = 0, j = 0; k < count; k++, j += 3) {
+			float x = centers[j];
+			float y = centers[j + 1];
+			float z = centers[j + 2];
+			float r = radii[k];
+			byte res = VISIBLE_ORD;
+			for (int i = 0; i < 6; ++i) {
+				float[] pl = fpCoefficients[i];
+				float d = pl[0] * x + pl[1] * y + pl[2] * z - pl[3];
+				if (d > r) {
+					res = INVISIBLE_ORD;
+					break;
+				}
+				if ((d > 0) || (-d < r))
+					res = SEMIVISIBLE_ORD;
 			}
-			// The eight points are on the outside side of this plane
-			if (allOut)
-				return Camera.Visibility.INVISIBLE;
+			results[k] = res;
+			if (res != INVISIBLE_ORD)
+				visible++;
 		}
+		return visible;
+	}
 
-		if (allInForAllPlanes)
-			return Camera.Visibility.VISIBLE;
+	/**
+	 * Classifies the axis aligned boxes packed in {@code mins} and {@code maxs}
+	 * (as consecutive x, y, z triplets of their min and max corners) against the
+	 * camera frustum. The {@code Visibility.ordinal()} of the first {@code count}
+	 * boxes is written into {@code results}, i.e.,
+	 * {@code Visibility.values()[results[i]]} is the same as
+	 * {@code aaBoxIsVisible(min_i, max_i)}.
+	 * <p>
+	 * Returns the number of boxes which are not
+	 * {@link remixlab.proscene.Camera.Visibility#INVISIBLE}.
+	 * <p>
+	 * Only the two box corners that are the farthest along and against each
+	 * plane normal are tested. This method creates no objects and is meant to
+	 * cull many instances per frame.
+	 * <p>
+	 * <b>Attention:</b> The camera frustum plane equations should be updated
+	 * before calling this method. You may compute them explicitly (by calling
+	 * {@link #computeFrustumEquations()} ) or enable them to be automatic updated
+	 * in your Scene setup (with
+	 * {@link remixlab.proscene.Scene#enableFrustumEquationsUpdate()}).
+	 * 
+	 * @see #aaBoxIsVisible(PVector, PVector)
+	 * @see #spheresAreVisible(float[], float[], int, byte[])
+	 */
+	public int aaBoxesAreVisible(float[] mins, float[] maxs, int count, byte[] results) {
+		if (!host.frustumEquationsUpdateIsEnable())
+			PApplet.println("The camera frustum plane equations (needed by aaBoxesAreVisible) may be outdated. Please "
+							+ "enable automatic updates of the equations in your PApplet.setup "
+							+ "with Scene.enableFrustumEquationsUpdate()");
+		else
+			updateFrustumEquations();
+		int visible = 0;
+		for (int k = 0, j = 0; k < count; k++, j += 3) {
+			byte res = aaBoxVisibility(mins[j], mins[j + 1], mins[j + 2], maxs[j], maxs[j + 1], maxs[j + 2]);
+			results[k] = res;
+			if (res != INVISIBLE_ORD)
+				visible++;
+		}
+		return visible;
+	}
 
-		// Too conservative, but tangent cases are too expensive to detect
-		return Camera.Visibility.SEMIVISIBLE;
+	/**
+	 * Returns the Visibility ordinal of the axis aligned box defined by its min
+	 * and max corners. For each plane, the corner which is the farthest inside
+	 * (n-vertex) tells if the box is outside, and the farthest outside one
+	 * (p-vertex) if it is only partially inside.
+	 */
+	private byte aaBoxVisibility(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		byte res = VISIBLE_ORD;
+		for (int i = 0; i < 6; ++i) {
+			float[] pl = fpCoefficients[i];
+			float a = pl[0];
+			float b = pl[1];
+			float c = pl[2];
+			// p-vertex: the corner with the largest signed distance
+			float pd = a * (a > 0 ? maxX : minX) + b * (b > 0 ? maxY : minY) + c * (c > 0 ? maxZ : minZ) - pl[3];
+			if (pd > 0) {
+				// n-vertex: the corner with the smallest signed distance
+				float nd = a * (a > 0 ? minX : maxX) + b * (b > 0 ? minY : maxY) + c * (c > 0 ? minZ : maxZ) - pl[3];
+				// The eight points are on the outside side of this plane
+				if (nd > 0)
+					return INVISIBLE_ORD;
+				// Too conservative, but tangent cases are too expensive to detect
+				res = SEMIVISIBLE_ORD;
+			}
+		}
+		return res;
 	}
 
 	/**
@@ -1339,6 +1530,12 @@ public class Camera implements Cloneable {
 	 * {@link #zNear()}, and {@link #zFar()} values), by simply calling
 	 * {@link #computeFrustumEquations()}.
 	 * <p>
+	 * The equations are only recomputed when the {@link #stateVersion()} changed
+	 * since the last call. When
+	 * {@link remixlab.proscene.Scene#enableFrustumEquationsUpdate()} is set, the
+	 * visibility methods call this method themselves, so that they also take
+	 * into account the camera changes that occur within the same frame.
+	 * <p>
 	 * <b>Attention:</b> You should not call this method explicitly, unless you
 	 * need the frustum equations to be updated only occasionally (rare). Use
 	 * {@link remixlab.proscene.Scene#enableFrustumEquationsUpdate()} which
@@ -1353,9 +1550,11 @@ public class Camera implements Cloneable {
 	 * @see remixlab.proscene.Scene#enableFrustumEquationsUpdate()
 	 */
 	public void updateFrustumEquations() {
-		if( lastFrameUpdate != lastFPCoeficientsUpdateIssued )	{		  
+		long version = stateVersion();
+		if( version != fpCoefficientsVersion )	{
 			computeFrustumEquations(fpCoefficients);
-			lastFPCoeficientsUpdateIssued = lastFrameUpdate;		  
+			fpCoefficientsVersion = version;
+			lastFPCoeficientsUpdateIssued = lastFrameUpdate;
 		}
 	}
 
@@ -1386,10 +1585,12 @@ public class Camera implements Cloneable {
 	 * @see remixlab.proscene.Scene#enableFrustumEquationsUpdate()
 	 */
 	public float[][] getFrustumEquations() {
-		if (!scene.frustumEquationsUpdateIsEnable())
+		if (!host.frustumEquationsUpdateIsEnable())
 			PApplet.println("The camera frustum plane equations may be outdated. Please "
 							+ "enable automatic updates of the equations in your PApplet.setup "
 							+ "with Scene.enableFrustumEquationsUpdate()");
+		else
+			updateFrustumEquations();
 		return fpCoefficients;
 	}
 
@@ -1501,7 +1702,7 @@ public class Camera implements Cloneable {
 			normal[4] = up;
 			normal[5] = PVector.mult(up, -1);
 
-			float[] wh = getOrthoWidthHeight();
+			float[] wh = cachedOrthoWidthHeight();
 			dist[0] = PVector.dot(PVector.sub(pos, PVector.mult(right, wh[0])),
 					normal[0]);
 			dist[1] = PVector.dot(PVector.add(pos, PVector.mult(right, wh[0])),
@@ -1701,6 +1902,8 @@ public class Camera implements Cloneable {
 			return;
 		}
 		
+		if(radius != scnRadius)
+			modified();
 		scnRadius = radius;
 
 		setFocusDistance(sceneRadius() / PApplet.tan(fieldOfView() / 2.0f));
@@ -1708,7 +1911,7 @@ public class Camera implements Cloneable {
 		setFlySpeed(0.01f * sceneRadius());
 
 		// if there's an avatar we change its fly speed as well
-		if (scene.avatarIsInteractiveDrivableFrame)
+		if (scene != null && scene.avatarIsInteractiveDrivableFrame)
 			((InteractiveDrivableFrame) scene.avatar()).setFlySpeed(0.01f * scene.radius());
 	}
 
@@ -1742,6 +1945,7 @@ public class Camera implements Cloneable {
 	 * {@link #arcballReferencePoint()} to {@link #sceneCenter()}.
 	 */
 	public void setSceneCenter(PVector center) {
+		modified();
 		scnCenter = center;
 		setArcballReferencePoint(sceneCenter());
 	}
@@ -1798,6 +2002,7 @@ public class Camera implements Cloneable {
 		// Prevents division by zero when rap is set to camera position
 		if ((prevDist > 1E-9) && (newDist > 1E-9))
 			orthoCoef *= prevDist / newDist;
+		modified();
 	}
 
 	/**
@@ -1839,8 +2044,22 @@ public class Camera implements Cloneable {
 	/**
 	 * Returns the coordinates of the 3D point located at {@code pixel} (x,y) on
 	 * screen.
+	 * <p>
+	 * When a {@link #pickingHierarchy()} is set, simply returns
+	 * {@code pointUnderPixel(pixel, pickingHierarchy())}. Otherwise the depth
+	 * buffer value of the pixel is read back, which stalls the rendering pipeline
+	 * and requires an (onscreen or offscreen) OpenGL renderer. Headless Cameras
+	 * (see {@link #Camera(Host)}) hence never find a point without a picking
+	 * hierarchy.
+	 * 
+	 * @see #pointUnderPixel(Point, BoundingVolumeHierarchy)
 	 */
-	public WorldPoint pointUnderPixel(Point pixel) {		
+	public WorldPoint pointUnderPixel(Point pixel) {
+		if (pickingHierarchy != null)
+			return pointUnderPixel(pixel, pickingHierarchy);
+		if (pg3d == null)
+			return new WorldPoint(unprojectedCoordinatesOf(new PVector(pixel.x, pixel.y, 1.0f)), false);
+
 		float[] depth = new float[1];		
 		
 		//PGraphics3D pg = (PGraphics3D) scene.parent.g;
@@ -1855,6 +2074,52 @@ public class Camera implements Cloneable {
 		return new WorldPoint(point, (depth[0] < 1.0f));
 	}
 
+	/**
+	 * Returns the coordinates of the 3D point located at {@code pixel} (x,y) on
+	 * screen, found by casting the {@link #convertClickToLine(Point, PVector, PVector)}
+	 * ray against the objects registered in {@code bvh} (see
+	 * {@link remixlab.proscene.BoundingVolumeHierarchy#raycast(PVector, PVector, PVector)}).
+	 * <p>
+	 * Contrary to the depth buffer read back, this never synchronizes with the
+	 * renderer and works with any renderer, even offscreen. Only the registered
+	 * objects (their triangle meshes or, if they have none, their bounding
+	 * boxes) can be picked. When no object is hit, the returned point lies on the
+	 * far clipping plane, as with the depth buffer.
+	 * 
+	 * @see #setPickingHierarchy(BoundingVolumeHierarchy)
+	 */
+	public WorldPoint pointUnderPixel(Point pixel, BoundingVolumeHierarchy bvh) {
+		PVector orig = new PVector();
+		PVector dir = new PVector();
+		convertClickToLine(pixel, orig, dir);
+		PVector point = new PVector();
+		if (bvh.raycast(orig, dir, point) >= 0)
+			return new WorldPoint(point, true);
+		return new WorldPoint(unprojectedCoordinatesOf(new PVector(pixel.x, pixel.y, 1.0f)), false);
+	}
+
+	/**
+	 * Returns the BoundingVolumeHierarchy used by {@link #pointUnderPixel(Point)},
+	 * or {@code null} (default) if the depth buffer is read back instead.
+	 * 
+	 * @see #setPickingHierarchy(BoundingVolumeHierarchy)
+	 */
+	public BoundingVolumeHierarchy pickingHierarchy() {
+		return pickingHierarchy;
+	}
+
+	/**
+	 * Sets the {@link #pickingHierarchy()}, so that {@link #pointUnderPixel(Point)}
+	 * (and hence {@link #setArcballReferencePointFromPixel(Point)},
+	 * {@link #setSceneCenterFromPixel(Point)} and
+	 * {@link #interpolateToZoomOnPixel(Point)}) casts rays against it instead of
+	 * reading back the depth buffer. Pass {@code null} to restore the depth
+	 * buffer read back.
+	 */
+	public void setPickingHierarchy(BoundingVolumeHierarchy bvh) {
+		pickingHierarchy = bvh;
+	}
+
 	// 6. ASSOCIATED FRAME AND FRAME WRAPPER FUNCTIONS
 
 	/**
@@ -1887,6 +2152,7 @@ public class Camera implements Cloneable {
 			return;	
 		
 		frm = icf;
+		modified();
 		interpolationKfi.setFrame(frame());			
 	}
 
@@ -2007,13 +2273,13 @@ public class Camera implements Cloneable {
 	public void addKeyFrameToPath(int key, boolean editablePath) {
 		boolean info = true;
 		if (!kfi.containsKey(key)) {
-			setKeyFrameInterpolator(key, new KeyFrameInterpolator(scene, frame()));
+			setKeyFrameInterpolator(key, new KeyFrameInterpolator(host, frame()));
 			PApplet.println("Position " + key + " saved");
 			info = false;
 		}
 
 		if (editablePath)
-			kfi.get(key).addKeyFrame(new InteractiveFrame(scene, frame()));
+			kfi.get(key).addKeyFrame(new InteractiveFrame(host, frame()));
 		else
 			kfi.get(key).addKeyFrame(frame(), false);
 
@@ -2175,56 +2441,73 @@ public class Camera implements Cloneable {
 	 * <b>Note:</b> You must call this method if your Camera is not associated
 	 * with a Scene and is used for offscreen computations (using {@code
 	 * projectedCoordinatesOf()} for instance).
+	 * <p>
+	 * The matrix is actually copied from {@link #cachedProjectionMatrix()}, which
+	 * is only recomputed when the {@link #stateVersion()} changes.
 	 * 
 	 * @see #setProjectionMatrix(PMatrix3D)
 	 */
 	public void computeProjectionMatrix() {
+		projectionMat.set(cachedProjectionMatrix());
+		projectionIsExplicit = false;
+		explicitVersion++;
+	}
+
+	/**
+	 * Fills {@code m} with the projection matrix associated with the Camera (see
+	 * {@link #computeProjectionMatrix()}) and returns it. If {@code m} is
+	 * {@code null} a new PMatrix3D will be created.
+	 * <p>
+	 * Contrary to {@link #computeProjectionMatrix()} the matrix is always
+	 * computed from scratch. Use {@link #cachedProjectionMatrix()} to avoid it.
+	 */
+	public PMatrix3D computeProjectionMatrix(PMatrix3D m) {
+		if (m == null)
+			m = new PMatrix3D();
+
 		float ZNear = zNear();
 		float ZFar = zFar();
-		
+
 		switch (type()) {
 		case PERSPECTIVE: {
-			// #CONNECTION# all non null coefficients were set to 0.0 in constructor.
 			float f = 1.0f / PApplet.tan(fieldOfView() / 2.0f);
-			projectionMat.m00 = f / aspectRatio();
-			if( scene.isRightHanded() )
-				projectionMat.m11 = f;
-			else
-				projectionMat.m11 = -f;
-			projectionMat.m22 = (ZNear + ZFar) / (ZNear - ZFar);
-			projectionMat.m32 = -1.0f;
-			projectionMat.m23 = 2.0f * ZNear * ZFar / (ZNear - ZFar);
-			projectionMat.m33 = 0.0f;
 			// same as gluPerspective( 180.0*fieldOfView()/M_PI, aspectRatio(), zNear(), zFar() );
+			m.set(f / aspectRatio(), 0, 0, 0,
+			      0, host.isRightHanded() ? f : -f, 0, 0,
+			      0, 0, (ZNear + ZFar) / (ZNear - ZFar), 2.0f * ZNear * ZFar / (ZNear - ZFar),
+			      0, 0, -1.0f, 0);
 			break;
 			}
 		case ORTHOGRAPHIC: {
-			float[] wh = getOrthoWidthHeight();
-			projectionMat.m00 = 1.0f / wh[0];
-			if( scene.isRightHanded() )
-				projectionMat.m11 = 1.0f / wh[1];
-			else
-				projectionMat.m11 = -1.0f / wh[1];
-			projectionMat.m22 = -2.0f / (ZFar - ZNear);
-			projectionMat.m32 = 0.0f;
-			projectionMat.m23 = -(ZFar + ZNear) / (ZFar - ZNear);
-			projectionMat.m33 = 1.0f;
+			float[] wh = cachedOrthoWidthHeight();
 			// same as glOrtho( -w, w, -h, h, zNear(), zFar() );
+			m.set(1.0f / wh[0], 0, 0, 0,
+			      0, host.isRightHanded() ? 1.0f / wh[1] : -1.0f / wh[1], 0, 0,
+			      0, 0, -2.0f / (ZFar - ZNear), -(ZFar + ZNear) / (ZFar - ZNear),
+			      0, 0, 0, 1.0f);
 			break;
 			}
-		}		
+		}
+		return m;
 	}
 
 	/**
 	 * Fills the projection matrix with the {@code proj} matrix values.
 	 * <p>
-	 * Only meaningful when the camera {@link #isDetachedFromP5Camera()}.
+	 * Only meaningful when the camera {@link #isDetachedFromP5Camera()}. The
+	 * matrix is then used by {@link #projectedCoordinatesOf(PVector, Frame)} and
+	 * {@link #unprojectedCoordinatesOf(PVector, Frame)} until
+	 * {@link #computeProjectionMatrix()} is called.
 	 * 
 	 * @see #setModelViewMatrix(PMatrix3D)
 	 */
 	public void setProjectionMatrix(PMatrix3D proj) {
-		if (isDetachedFromP5Camera())
+		if (isDetachedFromP5Camera()) {
 			projectionMat.set(proj);
+			projectionIsExplicit = true;
+			projModelViewIsExplicit = false;
+			explicitVersion++;
+		}
 	}
 
 	/**
@@ -2268,8 +2551,28 @@ public class Camera implements Cloneable {
 	 * <b>Note:</b> You must call this method if your Camera is not associated
 	 * with a Scene and is used for offscreen computations (using {@code
 	 * projectedCoordinatesOf()} for instance).
+	 * <p>
+	 * The matrix is actually copied from {@link #cachedModelViewMatrix()}, which
+	 * is only recomputed when the {@link #stateVersion()} changes.
 	 */
 	public void computeModelViewMatrix() {
+		modelViewMat.set(cachedModelViewMatrix());
+		modelViewIsExplicit = false;
+		explicitVersion++;
+	}
+
+	/**
+	 * Fills {@code m} with the modelView matrix associated with the Camera (see
+	 * {@link #computeModelViewMatrix()}) and returns it. If {@code m} is
+	 * {@code null} a new PMatrix3D will be created.
+	 * <p>
+	 * Contrary to {@link #computeModelViewMatrix()} the matrix is always
+	 * computed from scratch. Use {@link #cachedModelViewMatrix()} to avoid it.
+	 */
+	public PMatrix3D computeModelViewMatrix(PMatrix3D m) {
+		if (m == null)
+			m = new PMatrix3D();
+
 		Quaternion q = frame().orientation();
 
 		float q00 = 2.0f * q.x * q.x;
@@ -2284,49 +2587,65 @@ public class Camera implements Cloneable {
 		float q13 = 2.0f * q.y * q.w;
 		float q23 = 2.0f * q.z * q.w;
 
-		modelViewMat.m00 = 1.0f - q11 - q22;
-		modelViewMat.m10 = q01 - q23;
-		modelViewMat.m20 = q02 + q13;
-		modelViewMat.m30 = 0.0f;
+		m.m00 = 1.0f - q11 - q22;
+		m.m10 = q01 - q23;
+		m.m20 = q02 + q13;
+		m.m30 = 0.0f;
 
-		modelViewMat.m01 = q01 + q23;
-		modelViewMat.m11 = 1.0f - q22 - q00;
-		modelViewMat.m21 = q12 - q03;
-		modelViewMat.m31 = 0.0f;
+		m.m01 = q01 + q23;
+		m.m11 = 1.0f - q22 - q00;
+		m.m21 = q12 - q03;
+		m.m31 = 0.0f;
 
-		modelViewMat.m02 = q02 - q13;
-		modelViewMat.m12 = q12 + q03;
-		modelViewMat.m22 = 1.0f - q11 - q00;
-		modelViewMat.m32 = 0.0f;
+		m.m02 = q02 - q13;
+		m.m12 = q12 + q03;
+		m.m22 = 1.0f - q11 - q00;
+		m.m32 = 0.0f;
 
 		PVector t = q.inverseRotate(frame().position());
 
-		modelViewMat.m03 = -t.x;
-		modelViewMat.m13 = -t.y;
-		modelViewMat.m23 = -t.z;
-		modelViewMat.m33 = 1.0f;
+		m.m03 = -t.x;
+		m.m13 = -t.y;
+		m.m23 = -t.z;
+		m.m33 = 1.0f;
+
+		return m;
 	}
 
 	/**
 	 * Fills the modelview matrix with the {@code modelview} matrix values.
 	 * <p>
-	 * Only meaningful when the camera {@link #isDetachedFromP5Camera()}.
+	 * Only meaningful when the camera {@link #isDetachedFromP5Camera()}. The
+	 * matrix is then used by {@link #projectedCoordinatesOf(PVector, Frame)} and
+	 * {@link #unprojectedCoordinatesOf(PVector, Frame)} until
+	 * {@link #computeModelViewMatrix()} is called.
 	 * 
 	 * @see #setProjectionMatrix(PMatrix3D)
 	 */
 	public void setModelViewMatrix(PMatrix3D modelview) {
-		if (isDetachedFromP5Camera())
+		if (isDetachedFromP5Camera()) {
 			modelViewMat.set(modelview);
+			modelViewIsExplicit = true;
+			projModelViewIsExplicit = false;
+			explicitVersion++;
+		}
 	}
 	
 	/**
-	 * Internal sue.
+	 * Internal use.
 	 * <p>
-	 * Sets P * M typically from P5.
+	 * Sets P * M typically from P5. Only meaningful when the camera
+	 * {@link #isDetachedFromP5Camera()}. The matrix is then used by
+	 * {@link #projectedCoordinatesOf(PVector, Frame)} and
+	 * {@link #unprojectedCoordinatesOf(PVector, Frame)} until the projection or
+	 * modelview matrix is set or computed again.
 	 */
 	public void setProjModelViewMatrix(PMatrix3D pmv) {
-		if (isDetachedFromP5Camera())
+		if (isDetachedFromP5Camera()) {
 			projectionTimesModelview.set(pmv);
+			projModelViewIsExplicit = true;
+			explicitVersion++;
+		}
 	}
 
 	// 9. WORLD -> CAMERA
@@ -2375,7 +2694,7 @@ public class Camera implements Cloneable {
 		Point pixel = new Point(pixelInput.getX(), pixelInput.getY());
 		
 	  //left-handed coordinate system correction
-		if( scene.isLeftHanded() )
+		if( !host.isRightHanded() )
 			pixel.y = screenHeight() - pixelInput.y;
 		
 		switch (type()) {
@@ -2390,7 +2709,7 @@ public class Camera implements Cloneable {
 			break;
 
 		case ORTHOGRAPHIC: {
-			float[] wh = getOrthoWidthHeight();
+			float[] wh = cachedOrthoWidthHeight();
 			orig.set(new PVector((2.0f * (int)pixel.x / screenWidth() - 1.0f) * wh[0],
 					-(2.0f * (int)pixel.y / screenHeight() - 1.0f) * wh[1], 0.0f));
 			orig.set(worldCoordinatesOf(orig));
@@ -2432,7 +2751,7 @@ public class Camera implements Cloneable {
 	 */
 	public final PVector projectedCoordinatesOf(PVector src, Frame frame) {
 		float xyz[] = new float[3];
-		viewport = getViewport();
+		int[] viewport = cachedViewport();
 
 		if (frame != null) {
 			PVector tmp = frame.inverseCoordinatesOf(src);
@@ -2476,22 +2795,16 @@ public class Camera implements Cloneable {
 	 * matrices. You can hence define a virtual Camera and use this method to
 	 * compute un-projections out of a classical rendering context.
 	 * <p>
-	 * <b>Attention:</b> However, if your Camera is not attached to a Scene (used
-	 * for offscreen computations for instance), make sure the Camera matrices are
-	 * updated before calling this method (use {@link #computeModelViewMatrix()},
-	 * {@link #computeProjectionMatrix()}).
-	 * <p>
-	 * This method is not computationally optimized. If you call it several times
-	 * with no change in the matrices, you should buffer the entire inverse
-	 * projection matrix (modelview, projection and then viewport) to speed-up the
-	 * queries. See the gluUnProject man page for details.
+	 * The inverse of the {@link #cachedProjectionTimesModelview()} matrix is only
+	 * computed once per {@link #stateVersion()}, so that successive queries with
+	 * no change in the Camera are cheap.
 	 * 
 	 * @see #projectedCoordinatesOf(PVector, Frame)
 	 * @see #setScreenWidthAndHeight(int, int)
 	 */
 	public final PVector unprojectedCoordinatesOf(PVector src, Frame frame) {
 		float xyz[] = new float[3];
-		viewport = getViewport();
+		int[] viewport = cachedViewport();
 		
 		unproject(src.x, src.y, src.z, modelViewMat, projectionMat, viewport, xyz);
 		
@@ -2502,6 +2815,157 @@ public class Camera implements Cloneable {
 			return new PVector((float) xyz[0], (float) xyz[1], (float) xyz[2]);
 	}
 
+	/**
+	 * Convenience function that simply returns
+	 * {@code projectArray(xyzIn, xyzOut, count, null)}.
+	 * 
+	 * @see #projectArray(float[], float[], int, ExecutorService)
+	 */
+	public int projectArray(float[] xyzIn, float[] xyzOut, int count) {
+		return projectArray(xyzIn, xyzOut, count, null);
+	}
+
+	/**
+	 * Batch version of {@link #projectedCoordinatesOf(PVector)}: projects the
+	 * {@code count} first world points packed in {@code xyzIn} (as consecutive
+	 * x, y, z triplets) and writes their screen coordinates, packed the same way,
+	 * into {@code xyzOut} (which may be {@code xyzIn} itself).
+	 * <p>
+	 * Returns the number of projected points. The points that cannot be projected
+	 * (those lying in the plane of the Camera center when it is PERSPECTIVE) are
+	 * written as {@code NaN}.
+	 * <p>
+	 * The {@code P x M} matrix (the {@link #cachedProjectionTimesModelview()},
+	 * unless the Camera matrices were set explicitly, see
+	 * {@link #project(float, float, float, PMatrix3D, PMatrix3D, int[], float[])})
+	 * and the {@link #cachedViewport()} are fetched once and no object is created, so
+	 * that this method is meant for labelling or hit-testing many points per
+	 * frame. When {@code executor} is not {@code null} and there are more than
+	 * {@link #PARALLEL_BATCH_SIZE} points, they are split in batches which are
+	 * projected concurrently on the {@code executor} (and on the calling thread).
+	 * The method returns when all of them are done. The Camera should not be
+	 * modified meanwhile.
+	 * 
+	 * @see #unprojectArray(float[], float[], int, ExecutorService)
+	 */
+	public int projectArray(float[] xyzIn, float[] xyzOut, int count, ExecutorService executor) {
+		return transformArray(projectionTimesModelview(modelViewMat, projectionMat), true, xyzIn, xyzOut, count, executor);
+	}
+
+	/**
+	 * Convenience function that simply returns
+	 * {@code unprojectArray(xyzIn, xyzOut, count, null)}.
+	 * 
+	 * @see #unprojectArray(float[], float[], int, ExecutorService)
+	 */
+	public int unprojectArray(float[] xyzIn, float[] xyzOut, int count) {
+		return unprojectArray(xyzIn, xyzOut, count, null);
+	}
+
+	/**
+	 * Batch version of {@link #unprojectedCoordinatesOf(PVector)}: unprojects the
+	 * {@code count} first screen points packed in {@code xyzIn} (as consecutive
+	 * x, y, depth triplets, see {@link #unprojectedCoordinatesOf(PVector)}) and
+	 * writes their world coordinates, packed the same way, into {@code xyzOut}
+	 * (which may be {@code xyzIn} itself).
+	 * <p>
+	 * Returns the number of unprojected points. The points that cannot be
+	 * unprojected are written as {@code NaN} (all of them when {@code P x M} is not
+	 * invertible).
+	 * <p>
+	 * The inverse {@code P x M} matrix (see
+	 * {@link #unproject(float, float, float, PMatrix3D, PMatrix3D, int[], float[])})
+	 * is fetched once. See
+	 * {@link #projectArray(float[], float[], int, ExecutorService)} for the
+	 * {@code executor} usage.
+	 */
+	public int unprojectArray(float[] xyzIn, float[] xyzOut, int count, ExecutorService executor) {
+		PMatrix3D m = projectionTimesModelviewInverse(modelViewMat, projectionMat);
+		if (m == null) {
+			for (int i = 0; i < 3 * count; i++)
+				xyzOut[i] = Float.NaN;
+			return 0;
+		}
+		return transformArray(m, false, xyzIn, xyzOut, count, executor);
+	}
+
+	private int transformArray(final PMatrix3D m, final boolean project, final float[] in, final float[] out, int count, ExecutorService executor) {
+		if (count <= 0)
+			return 0;
+		final int[] vp = cachedViewport();
+		if (executor == null || count <= PARALLEL_BATCH_SIZE)
+			return transform(m, project, vp, in, out, 0, count);
+
+		int batches = Math.min((count + PARALLEL_BATCH_SIZE - 1) / PARALLEL_BATCH_SIZE, 4 * Runtime.getRuntime().availableProcessors());
+		int batchSize = (count + batches - 1) / batches;
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>(batches);
+		for (int from = batchSize; from < count; from += batchSize) {
+			final int start = from, end = Math.min(count, from + batchSize);
+			futures.add(executor.submit(new Callable<Integer>() {
+				public Integer call() {
+					return transform(m, project, vp, in, out, start, end);
+				}
+			}));
+		}
+		int done = transform(m, project, vp, in, out, 0, Math.min(count, batchSize));
+		try {
+			for (Future<Integer> future : futures)
+				done += future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while transforming the point array", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Something went wrong when transforming the point array", e.getCause());
+		}
+		return done;
+	}
+
+	/**
+	 * Projects (or unprojects, using the inverse matrix) the points {@code from}
+	 * (inclusive) to {@code to} (exclusive), as
+	 * {@link #project(float, float, float, PMatrix3D, PMatrix3D, int[], float[])}
+	 * (resp. {@link #unproject(float, float, float, PMatrix3D, PMatrix3D, int[], float[])})
+	 * does. Returns the number of transformed points.
+	 */
+	private static int transform(PMatrix3D m, boolean project, int[] vp, float[] in, float[] out, int from, int to) {
+		float m00 = m.m00, m01 = m.m01, m02 = m.m02, m03 = m.m03;
+		float m10 = m.m10, m11 = m.m11, m12 = m.m12, m13 = m.m13;
+		float m20 = m.m20, m21 = m.m21, m22 = m.m22, m23 = m.m23;
+		float m30 = m.m30, m31 = m.m31, m32 = m.m32, m33 = m.m33;
+		float vx = vp[0], vy = vp[1], vw = vp[2], vh = vp[3];
+		int done = 0;
+		for (int j = 3 * from, end = 3 * to; j < end; j += 3) {
+			float x = in[j];
+			float y = in[j + 1];
+			float z = in[j + 2];
+			if (!project) {
+				// window coordinates to the [-1..1] range
+				x = (x - vx) / vw * 2 - 1;
+				y = (y - vy) / vh * 2 - 1;
+				z = 2 * z - 1;
+			}
+			float w = m30 * x + m31 * y + m32 * z + m33;
+			if (w == 0.0) {
+				out[j] = out[j + 1] = out[j + 2] = Float.NaN;
+				continue;
+			}
+			float rx = (m00 * x + m01 * y + m02 * z + m03) / w;
+			float ry = (m10 * x + m11 * y + m12 * z + m13) / w;
+			float rz = (m20 * x + m21 * y + m22 * z + m23) / w;
+			if (project) {
+				// [-1..1] range to window coordinates
+				rx = (rx * 0.5f + 0.5f) * vw + vx;
+				ry = (ry * 0.5f + 0.5f) * vh + vy;
+				rz = rz * 0.5f + 0.5f;
+			}
+			out[j] = rx;
+			out[j + 1] = ry;
+			out[j + 2] = rz;
+			done++;
+		}
+		return done;
+	}
+
 	// 11. FLYSPEED
 
 	/**
@@ -2979,36 +3443,112 @@ public class Camera implements Cloneable {
 	 */
 	public void setFocusDistance(float distance) {
 		if(distance != focusDist)
-			lastFrameUpdate = scene.parent.frameCount;
+			modified();
 		focusDist = distance;
 	}
 
-	// 14. Implementation of glu utility functions
-	
 	/**
-	 * Cache {@code (P x M)} and {@code inv (P x M)} under the following circumstances:
+	 * Returns half the distance between the stereo eye positions, expressed in
+	 * processing units: each eye is shifted by this amount along the Camera
+	 * {@link #rightVector()} (to the left for the left eye).
 	 * <p>
-	 * i) If {@code scene.mouseGrabberPool().size() > 3 && scene.hasMouseTracking()} then
-	 * {@code (P x M)} is cached so that
-	 * {@link #project(float, float, float, PMatrix3D, PMatrix3D, int[], float[])} is speeded up.
+	 * It is computed from the {@link #IODistance()} and the
+	 * {@link #physicalScreenWidth()}, so that the stereo images are superimposed
+	 * at the {@link #focusDistance()}.
+	 */
+	public float stereoEyeShift() {
+		float halfWidth;
+		if (type() == Type.PERSPECTIVE)
+			halfWidth = focusDistance() * PApplet.tan(horizontalFieldOfView() / 2.0f);
+		else
+			halfWidth = cachedOrthoWidthHeight()[0];
+		return halfWidth * IODistance() / physicalScreenWidth();
+	}
+
+	/**
+	 * Convenience function that simply returns {@code
+	 * computeStereoFrustumEquations(new float [6][4])}.
+	 */
+	public float[][] computeStereoFrustumEquations() {
+		return computeStereoFrustumEquations(new float[6][4]);
+	}
+
+	/**
+	 * Fills {@code coef} with the 6 plane equations (in the format of
+	 * {@link #computeFrustumEquations(float[][])}) of a frustum that encloses the
+	 * frustums of both stereo eyes, and returns it.
 	 * <p>
-	 * ii) If {@link #unprojectCacheIsOptimized()} {@code inv (P x M)} is cached (and hence
-	 * {@code (P x M)} is cached too) so that 
-	 * {@link #unproject(float, float, float, PMatrix3D, PMatrix3D, int[], float[])} is speeded up.
+	 * The eyes are shifted by {@link #stereoEyeShift()} and their (asymmetric)
+	 * frustums meet at the {@link #focusDistance()}. The near, far, top and
+	 * bottom planes are those of the Camera frustum, while the left and right
+	 * planes bound the left and right sides of both eye frustums between the
+	 * near and far planes. Cull against this frustum once (e.g., with
+	 * {@link remixlab.proscene.BoundingVolumeHierarchy#cull(float[][])}) and
+	 * draw the visible objects for both eyes.
+	 * 
+	 * @see #computeFrustumEquations(float[][])
+	 */
+	public float[][] computeStereoFrustumEquations(float[][] coef) {
+		coef = computeFrustumEquations(coef);
+		PVector pos = position();
+		PVector viewDir = viewDirection();
+		PVector right = rightVector();
+		float shift = stereoEyeShift();
+		if (type() == Type.ORTHOGRAPHIC) {
+			// parallel projections: the eye frustums are simply shifted sideways
+			coef[0][3] += shift;
+			coef[1][3] += shift;
+			return coef;
+		}
+		float n = zNear();
+		float f = zFar();
+		float halfWidth = focusDistance() * PApplet.tan(horizontalFieldOfView() / 2.0f);
+		// left edge (x, in the Camera frame) of the union of the eye frustums, at
+		// the near and far planes: min over both eyes of e + (-halfWidth - e) * d
+		// / focusDistance()
+		float fd = focusDistance();
+		float xn = PApplet.min(-shift + (-halfWidth + shift) * n / fd, shift + (-halfWidth - shift) * n / fd);
+		float xf = PApplet.min(-shift + (-halfWidth + shift) * f / fd, shift + (-halfWidth - shift) * f / fd);
+		// outward normal of the left plane, in the Camera (x, z) plane
+		float nx = -(f - n);
+		float nz = -(xf - xn);
+		float norm = PApplet.sqrt(nx * nx + nz * nz);
+		nx /= norm;
+		nz /= norm;
+		// the right plane is symmetric with respect to the view direction
+		for (int side = 0; side < 2; side++) {
+			float sx = side == 0 ? nx : -nx;
+			float px = side == 0 ? xn : -xn;
+			// the Camera z axis is the opposite of the view direction
+			PVector normal = PVector.sub(PVector.mult(right, sx), PVector.mult(viewDir, nz));
+			PVector point = PVector.add(pos, PVector.add(PVector.mult(right, px), PVector.mult(viewDir, n)));
+			coef[side][0] = normal.x;
+			coef[side][1] = normal.y;
+			coef[side][2] = normal.z;
+			coef[side][3] = PVector.dot(point, normal);
+		}
+		return coef;
+	}
+
+	// 14. Implementation of glu utility functions
+	
+	/**
+	 * {@code (P x M)} and {@code inv (P x M)} are always cached and only recomputed
+	 * once per {@link #stateVersion()} (see
+	 * {@link #cachedProjectionTimesModelview()} and
+	 * {@link #cachedProjectionTimesModelviewInverse()}). If
+	 * {@link #unprojectCacheIsOptimized()} this method eagerly computes
+	 * {@code inv (P x M)} (and hence {@code (P x M)} too), so that the first
+	 * {@link #unproject(float, float, float, PMatrix3D, PMatrix3D, int[], float[])}
+	 * call of the frame does not pay for it.
 	 * 
 	 * @see #unprojectCacheIsOptimized()
 	 * @see #optimizeUnprojectCache(boolean)
 	 */
 	protected void cacheProjModelViewInvMat() {
 		// unproject
-		if(unprojectCacheIsOptimized()) {
-			if(projectionTimesModelviewInverse == null)
-				projectionTimesModelviewInverse = new PMatrix3D(projectionTimesModelview);
-			else
-				projectionTimesModelviewInverse.set(projectionTimesModelview);			
-			
-			projectionTimesModelviewHasInverse = projectionTimesModelviewInverse.invert();
-		}
+		if(unprojectCacheIsOptimized())
+			cachedProjectionTimesModelviewInverse();
 	}
 	
 	/**
@@ -3019,6 +3559,8 @@ public class Camera implements Cloneable {
 	protected void calcProjModelView() {
 		projectionTimesModelview.set(projectionMat);
 		projectionTimesModelview.apply(modelViewMat);	
+		projModelViewIsExplicit = false;
+		explicitVersion++;
   }
 	
 	/**
@@ -3033,8 +3575,8 @@ public class Camera implements Cloneable {
 	}
 	
 	/**
-	 * Cache {@code inv (P x M)} (and also {@code (P x M)} ) so that
-	 * {@link #project(float, float, float, PMatrix3D, PMatrix3D, int[], float[])}
+	 * Eagerly cache {@code inv (P x M)} (and also {@code (P x M)} ) every frame so
+	 * that {@link #project(float, float, float, PMatrix3D, PMatrix3D, int[], float[])}
 	 * (and also {@link #unproject(float, float, float, PMatrix3D, PMatrix3D, int[], float[])})
 	 * is optimised.
 	 * 
@@ -3048,6 +3590,14 @@ public class Camera implements Cloneable {
 	/**
 	 * Similar to {@code gluProject}: map object coordinates to window
 	 * coordinates.
+	 * <p>
+	 * When {@code modelview} and {@code projection} are the Camera own matrices
+	 * and they were computed from the Camera parameters (i.e., not set with
+	 * {@link #setModelViewMatrix(PMatrix3D)} or
+	 * {@link #setProjectionMatrix(PMatrix3D)}), the
+	 * {@link #cachedProjectionTimesModelview()} matrix is used. Otherwise their
+	 * product is computed (and cached, for the Camera own matrices). A
+	 * {@code null} matrix stands for the Camera own one.
 	 * 
 	 * @param objx
 	 *          Specify the object x coordinate.
@@ -3066,43 +3616,40 @@ public class Camera implements Cloneable {
 	 */
 	public boolean project(float objx, float objy, float objz, PMatrix3D modelview,
 			                   PMatrix3D projection, int[] viewport, float[] windowCoordinate) {
-		float in[] = new float[4];
-		float out[] = new float[4];
-		
-		in[0] = objx;
-		in[1] = objy;
-		in[2] = objz;
-		in[3] = 1.0f;
+		PMatrix3D m = projectionTimesModelview(modelview, projection);
 		
-		out[0]=projectionTimesModelview.m00*in[0] + projectionTimesModelview.m01*in[1] + projectionTimesModelview.m02*in[2] + projectionTimesModelview.m03*in[3];
-		out[1]=projectionTimesModelview.m10*in[0] + projectionTimesModelview.m11*in[1] + projectionTimesModelview.m12*in[2] + projectionTimesModelview.m13*in[3];
-		out[2]=projectionTimesModelview.m20*in[0] + projectionTimesModelview.m21*in[1] + projectionTimesModelview.m22*in[2] + projectionTimesModelview.m23*in[3];
-		out[3]=projectionTimesModelview.m30*in[0] + projectionTimesModelview.m31*in[1] + projectionTimesModelview.m32*in[2] + projectionTimesModelview.m33*in[3];
+		float x = m.m00*objx + m.m01*objy + m.m02*objz + m.m03;
+		float y = m.m10*objx + m.m11*objy + m.m12*objz + m.m13;
+		float z = m.m20*objx + m.m21*objy + m.m22*objz + m.m23;
+		float w = m.m30*objx + m.m31*objy + m.m32*objz + m.m33;
 		
-		if (out[3] == 0.0)
+		if (w == 0.0)
 			return false;
 		
-		out[0] /= out[3];
-		out[1] /= out[3];
-		out[2] /= out[3];
+		x /= w;
+		y /= w;
+		z /= w;
 		// Map x, y and z to range 0-1
-		out[0] = out[0] * 0.5f + 0.5f;
-		out[1] = out[1] * 0.5f + 0.5f;
-		out[2] = out[2] * 0.5f + 0.5f;
+		x = x * 0.5f + 0.5f;
+		y = y * 0.5f + 0.5f;
+		z = z * 0.5f + 0.5f;
 		
 		// Map x,y to viewport
-		out[0] = out[0] * viewport[2] + viewport[0];
-		out[1] = out[1] * viewport[3] + viewport[1];
-		
-		windowCoordinate[0] = out[0];
-		windowCoordinate[1] = out[1];
-		windowCoordinate[2] = out[2];
+		windowCoordinate[0] = x * viewport[2] + viewport[0];
+		windowCoordinate[1] = y * viewport[3] + viewport[1];
+		windowCoordinate[2] = z;
 		return true;
 	}
 
 	/**
 	 * Similar to {@code gluUnProject}: map window coordinates to object
 	 * coordinates.
+	 * <p>
+	 * When {@code modelview} and {@code projection} are the Camera own matrices
+	 * and they were computed from the Camera parameters, the
+	 * {@link #cachedProjectionTimesModelviewInverse()} matrix is used. Otherwise
+	 * the inverse of their product is computed (and cached, for the Camera own
+	 * matrices). A {@code null} matrix stands for the Camera own one.
 	 * 
 	 * @param winx
 	 *          Specify the window x coordinate.
@@ -3122,43 +3669,212 @@ public class Camera implements Cloneable {
 	public boolean unproject(float winx, float winy, float winz, PMatrix3D modelview,
 			                     PMatrix3D projection, int viewport[], float[] objCoordinate) {
 		
-		if(!unprojectCacheOptimized) {		
-			projectionTimesModelviewInverse = new PMatrix3D(projectionTimesModelview);
-			projectionTimesModelviewHasInverse = projectionTimesModelviewInverse.invert();			
-		}
-		
-		if (!projectionTimesModelviewHasInverse)
+		PMatrix3D m = projectionTimesModelviewInverse(modelview, projection);
+		if (m == null)
 			return false;
-		
-		float in[] = new float[4];
-		float out[] = new float[4];
-
-		in[0] = winx;
-		in[1] = winy;
-		in[2] = winz;
-		in[3] = 1.0f;
 
 		/* Map x and y from window coordinates */
-		in[0] = (in[0] - viewport[0]) / viewport[2];
-		in[1] = (in[1] - viewport[1]) / viewport[3];
+		float x = (winx - viewport[0]) / viewport[2];
+		float y = (winy - viewport[1]) / viewport[3];
 
 		/* Map to range -1 to 1 */
-		in[0] = in[0] * 2 - 1;
-		in[1] = in[1] * 2 - 1;
-		in[2] = in[2] * 2 - 1;
+		x = x * 2 - 1;
+		y = y * 2 - 1;
+		float z = winz * 2 - 1;
 
-		projectionTimesModelviewInverse.mult(in, out);
-		if (out[3] == 0.0)
+		float w = m.m30*x + m.m31*y + m.m32*z + m.m33;
+		if (w == 0.0)
 			return false;
 
-		out[0] /= out[3];
-		out[1] /= out[3];
-		out[2] /= out[3];
-
-		objCoordinate[0] = out[0];
-		objCoordinate[1] = out[1];
-		objCoordinate[2] = out[2];
+		objCoordinate[0] = (m.m00*x + m.m01*y + m.m02*z + m.m03) / w;
+		objCoordinate[1] = (m.m10*x + m.m11*y + m.m12*z + m.m13) / w;
+		objCoordinate[2] = (m.m20*x + m.m21*y + m.m22*z + m.m23) / w;
 
 		return true;
 	}
+
+	/**
+	 * Returns {@code projection x modelview} for
+	 * {@link #project(float, float, float, PMatrix3D, PMatrix3D, int[], float[])}.
+	 */
+	private PMatrix3D projectionTimesModelview(PMatrix3D modelview, PMatrix3D projection) {
+		if (modelview == null)
+			modelview = modelViewMat;
+		if (projection == null)
+			projection = projectionMat;
+		if (modelview != modelViewMat || projection != projectionMat) {
+			PMatrix3D m = new PMatrix3D(projection);
+			m.apply(modelview);
+			return m;
+		}
+		if (!projectionIsExplicit && !modelViewIsExplicit && !projModelViewIsExplicit)
+			return cachedProjectionTimesModelview();
+		if (explicitProjModelViewVersion != explicitVersion) {
+			if (projModelViewIsExplicit)
+				explicitProjModelView.set(projectionTimesModelview);
+			else {
+				explicitProjModelView.set(projectionMat);
+				explicitProjModelView.apply(modelViewMat);
+			}
+			explicitProjModelViewVersion = explicitVersion;
+		}
+		return explicitProjModelView;
+	}
+
+	/**
+	 * Returns {@code inv (projection x modelview)}, or {@code null} if it is not
+	 * invertible, for
+	 * {@link #unproject(float, float, float, PMatrix3D, PMatrix3D, int[], float[])}.
+	 */
+	private PMatrix3D projectionTimesModelviewInverse(PMatrix3D modelview, PMatrix3D projection) {
+		if (modelview == null)
+			modelview = modelViewMat;
+		if (projection == null)
+			projection = projectionMat;
+		if (modelview != modelViewMat || projection != projectionMat) {
+			PMatrix3D m = new PMatrix3D(projection);
+			m.apply(modelview);
+			return m.invert() ? m : null;
+		}
+		if (!projectionIsExplicit && !modelViewIsExplicit && !projModelViewIsExplicit)
+			return cachedProjectionTimesModelviewInverse();
+		if (explicitInverseVersion != explicitVersion) {
+			explicitProjModelViewInverse.set(projectionTimesModelview(modelview, projection));
+			explicitProjModelViewHasInverse = explicitProjModelViewInverse.invert();
+			explicitInverseVersion = explicitVersion;
+		}
+		return explicitProjModelViewHasInverse ? explicitProjModelViewInverse : null;
+	}
+
+	// 15. VERSIONED STATE CACHE
+
+	/**
+	 * Returns a number that increases every time the Camera state changes, i.e.,
+	 * whenever the {@link #frame()} is moved (see
+	 * {@link remixlab.proscene.Frame#worldTransformVersion()}) or any of the
+	 * parameters defining its matrices ({@link #type()}, {@link #kind()},
+	 * {@link #fieldOfView()}, {@link #zNearCoefficient()},
+	 * {@link #zClippingCoefficient()}, {@link #screenWidth()},
+	 * {@link #screenHeight()}, {@link #sceneRadius()}, {@link #sceneCenter()},
+	 * {@link #arcballReferencePoint()}...) is set.
+	 * <p>
+	 * Contrary to {@link #lastFrameUpdate}, several changes within the same
+	 * frame give different versions. All the {@code cached*()} methods, as well
+	 * as {@link #updateFrustumEquations()}, recompute their values at most once
+	 * per version.
+	 */
+	public long stateVersion() {
+		long version = frame().worldTransformVersion();
+		if (version != frameVersion) {
+			frameVersion = version;
+			modified();
+		}
+		return stateVersion;
+	}
+
+	/**
+	 * Increments the {@link #stateVersion()} and updates {@link #lastFrameUpdate}.
+	 * <p>
+	 * Call it from your Camera subclass setters that change the Camera matrices.
+	 */
+	protected void modified() {
+		stateVersion++;
+		lastFrameUpdate = host.frameCount();
+	}
+
+	/**
+	 * Returns the Camera viewport (see {@link #getViewport(int[])}), without
+	 * allocating a new array. The returned array should not be modified.
+	 */
+	public int[] cachedViewport() {
+		long version = stateVersion();
+		if (viewportCacheVersion != version) {
+			viewportCache[0] = 0;
+			viewportCache[1] = screenHeight();
+			viewportCache[2] = screenWidth();
+			viewportCache[3] = -screenHeight();
+			viewportCacheVersion = version;
+		}
+		return viewportCache;
+	}
+
+	/**
+	 * Returns the {@code halfWidth} and {@code halfHeight} of the Camera
+	 * orthographic frustum (see {@link #getOrthoWidthHeight(float[])}), without
+	 * allocating a new array. The returned array should not be modified.
+	 */
+	public float[] cachedOrthoWidthHeight() {
+		long version = stateVersion();
+		if (orthoWidthHeightCacheVersion != version) {
+			getOrthoWidthHeight(orthoWidthHeightCache);
+			orthoWidthHeightCacheVersion = version;
+		}
+		return orthoWidthHeightCache;
+	}
+
+	/**
+	 * Returns the Camera projection matrix (see
+	 * {@link #computeProjectionMatrix(PMatrix3D)}), without allocating a new
+	 * matrix. The returned matrix should not be modified.
+	 * <p>
+	 * Contrary to the matrix filled by {@link #computeProjectionMatrix()}, which
+	 * may be the processing one (see {@link #isAttachedToP5Camera()}), this
+	 * matrix only depends on the Camera parameters.
+	 */
+	public PMatrix3D cachedProjectionMatrix() {
+		long version = stateVersion();
+		if (projectionCacheVersion != version) {
+			computeProjectionMatrix(projectionCache);
+			projectionCacheVersion = version;
+		}
+		return projectionCache;
+	}
+
+	/**
+	 * Returns the Camera modelView matrix (see
+	 * {@link #computeModelViewMatrix(PMatrix3D)}), without allocating a new
+	 * matrix. The returned matrix should not be modified.
+	 * 
+	 * @see #cachedProjectionMatrix()
+	 */
+	public PMatrix3D cachedModelViewMatrix() {
+		long version = stateVersion();
+		if (modelViewCacheVersion != version) {
+			computeModelViewMatrix(modelViewCache);
+			modelViewCacheVersion = version;
+		}
+		return modelViewCache;
+	}
+
+	/**
+	 * Returns {@code P x M}, i.e., {@link #cachedProjectionMatrix()} times
+	 * {@link #cachedModelViewMatrix()}, without allocating a new matrix. The
+	 * returned matrix should not be modified.
+	 * 
+	 * @see #cachedProjectionTimesModelviewInverse()
+	 */
+	public PMatrix3D cachedProjectionTimesModelview() {
+		long version = stateVersion();
+		if (projModelViewCacheVersion != version) {
+			projModelViewCache.set(cachedProjectionMatrix());
+			projModelViewCache.apply(cachedModelViewMatrix());
+			projModelViewCacheVersion = version;
+		}
+		return projModelViewCache;
+	}
+
+	/**
+	 * Returns {@code inv (P x M)} (see {@link #cachedProjectionTimesModelview()}),
+	 * without allocating a new matrix, or {@code null} if {@code P x M} is not
+	 * invertible. The returned matrix should not be modified.
+	 */
+	public PMatrix3D cachedProjectionTimesModelviewInverse() {
+		long version = stateVersion();
+		if (projModelViewInverseCacheVersion != version) {
+			projModelViewInverseCache.set(cachedProjectionTimesModelview());
+			projModelViewCacheHasInverse = projModelViewInverseCache.invert();
+			projModelViewInverseCacheVersion = version;
+		}
+		return projModelViewCacheHasInverse ? projModelViewInverseCache : null;
+	}
 }
@@ -0,0 +1,368 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import java.util.IdentityHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import processing.core.PVector;
+
+/**
+ * A multi-producer / single-consumer queue of {@link Command}s, used to modify
+ * the Scene objects (which are not thread safe) from other threads, e.g.,
+ * network or physics threads.
+ * <p>
+ * Any thread may {@link #post(Command)} commands without ever blocking: the
+ * queue is a lock-free stack updated with a single compare-and-set. The
+ * commands are executed, in posting order, by {@link #drain()}, which the
+ * Scene calls from the drawing thread at the beginning of each frame (see
+ * {@link remixlab.proscene.Scene#pre()}), so that all the updates are applied
+ * in one place.
+ * <p>
+ * Redundant commands are coalesced when they are drained: a command having a
+ * {@link Command#key()} is dropped when the next command posted on the same
+ * {@link Command#target()} has an equal key. Hence successive
+ * {@link #setPosition(Frame, PVector)} calls on a Frame only cost the last
+ * one, while a {@link #translate(Frame, PVector)} (which has no key) posted in
+ * between keeps both. The static factory methods build the usual commands;
+ * subclass {@link Command} for the others.
+ */
+public class CommandQueue {
+	/**
+	 * A deferred action. Implement {@link #execute()}.
+	 * <p>
+	 * A command should not be posted again before it has been executed.
+	 */
+	public static abstract class Command {
+		private final Object target;
+		private final Object key;
+		private Command next;
+
+		/**
+		 * Creates a command which is never coalesced.
+		 */
+		public Command() {
+			this(null, null);
+		}
+
+		/**
+		 * Creates a command acting on {@code target} which is coalesced with the
+		 * next command posted on the same {@code target} (compared by reference)
+		 * if it has an equal {@code key}. A {@code null} {@code key} prevents
+		 * coalescing.
+		 */
+		public Command(Object target, Object key) {
+			this.target = target;
+			this.key = key;
+		}
+
+		/**
+		 * Returns the object modified by the command, if any.
+		 */
+		public Object target() {
+			return target;
+		}
+
+		/**
+		 * Returns the coalescing key of the command, if any.
+		 */
+		public Object key() {
+			return key;
+		}
+
+		/**
+		 * The action performed by the command.
+		 */
+		protected abstract void execute();
+	}
+
+	/**
+	 * {@link Command#key()} of the commands setting a position.
+	 */
+	public static final String POSITION = "position";
+
+	/**
+	 * {@link Command#key()} of the commands setting an orientation.
+	 */
+	public static final String ORIENTATION = "orientation";
+
+	/**
+	 * {@link Command#key()} of the commands setting a translation.
+	 */
+	public static final String TRANSLATION = "translation";
+
+	/**
+	 * {@link Command#key()} of the commands setting a rotation.
+	 */
+	public static final String ROTATION = "rotation";
+
+	/**
+	 * {@link Command#key()} of the commands setting a field of view.
+	 */
+	public static final String FIELD_OF_VIEW = "fieldOfView";
+
+	/**
+	 * {@link Command#key()} of the commands starting or stopping an
+	 * interpolation.
+	 */
+	public static final String INTERPOLATION = "interpolation";
+
+	// newest command first
+	private final AtomicReference<Command> head = new AtomicReference<Command>();
+	private Command[] batch = new Command[16];
+	// target -> key of the next command on that target, see drain()
+	private final IdentityHashMap<Object, Object> nextKeys = new IdentityHashMap<Object, Object>();
+
+	/**
+	 * Queues {@code command} for execution at the next {@link #drain()}. May be
+	 * called from any thread and never blocks.
+	 */
+	public void post(Command command) {
+		if (command == null)
+			throw new NullPointerException("Cannot post a null command");
+		Command h;
+		do {
+			h = head.get();
+			command.next = h;
+		} while (!head.compareAndSet(h, command));
+	}
+
+	/**
+	 * Returns {@code true} if there is no command waiting to be executed.
+	 */
+	public boolean isEmpty() {
+		return head.get() == null;
+	}
+
+	/**
+	 * Discards all the commands waiting to be executed.
+	 */
+	public void clear() {
+		head.set(null);
+	}
+
+	/**
+	 * Executes, in posting order, all the commands posted so far, skipping those
+	 * coalesced with a later command (see {@link Command#Command(Object, Object)}),
+	 * and returns the number of executed commands. Commands posted meanwhile,
+	 * including by the executed commands, wait for the next call.
+	 * <p>
+	 * Should only be called from a single thread (the drawing thread, see
+	 * {@link remixlab.proscene.Scene#pre()}). If a command throws an exception,
+	 * the remaining commands of the pass are discarded.
+	 */
+	public int drain() {
+		Command c = head.getAndSet(null);
+		if (c == null)
+			return 0;
+
+		int n = 0;
+		for (Command it = c; it != null; it = it.next)
+			n++;
+		if (batch.length < n)
+			batch = new Command[Math.max(n, batch.length * 2)];
+
+		// the stack holds the newest command first, so that the command following
+		// each one on the same target has already been visited
+		int count = 0;
+		for (int i = n - 1; i >= 0; i--) {
+			Command next = c.next;
+			c.next = null;
+			boolean coalesced = false;
+			if (c.target != null) {
+				Object nextKey = nextKeys.put(c.target, c.key);
+				coalesced = c.key != null && c.key.equals(nextKey);
+			}
+			batch[i] = coalesced ? null : c;
+			if (!coalesced)
+				count++;
+			c = next;
+		}
+		nextKeys.clear();
+
+		try {
+			for (int i = 0; i < n; i++)
+				if (batch[i] != null)
+					batch[i].execute();
+		} finally {
+			for (int i = 0; i < n; i++)
+				batch[i] = null;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns a command calling {@code frame.setPosition(position)}. The position
+	 * is copied.
+	 */
+	public static Command setPosition(final Frame frame, PVector position) {
+		final PVector p = position.get();
+		return new Command(frame, POSITION) {
+			protected void execute() {
+				frame.setPosition(p);
+			}
+		};
+	}
+
+	/**
+	 * Returns a command calling {@code frame.setOrientation(orientation)}. The
+	 * orientation is copied.
+	 */
+	public static Command setOrientation(final Frame frame, Quaternion orientation) {
+		final Quaternion q = new Quaternion(orientation);
+		return new Command(frame, ORIENTATION) {
+			protected void execute() {
+				frame.setOrientation(q);
+			}
+		};
+	}
+
+	/**
+	 * Returns a command calling {@code frame.setTranslation(translation)}. The
+	 * translation is copied.
+	 */
+	public static Command setTranslation(final Frame frame, PVector translation) {
+		final PVector t = translation.get();
+		return new Command(frame, TRANSLATION) {
+			protected void execute() {
+				frame.setTranslation(t);
+			}
+		};
+	}
+
+	/**
+	 * Returns a command calling {@code frame.setRotation(rotation)}. The rotation
+	 * is copied.
+	 */
+	public static Command setRotation(final Frame frame, Quaternion rotation) {
+		final Quaternion q = new Quaternion(rotation);
+		return new Command(frame, ROTATION) {
+			protected void execute() {
+				frame.setRotation(q);
+			}
+		};
+	}
+
+	/**
+	 * Returns a command calling {@code frame.translate(t)}. The translation is
+	 * copied. Translations are not coalesced.
+	 */
+	public static Command translate(final Frame frame, PVector t) {
+		final PVector v = t.get();
+		return new Command(frame, null) {
+			protected void execute() {
+				frame.translate(v);
+			}
+		};
+	}
+
+	/**
+	 * Returns a command calling {@code frame.rotate(q)}. The rotation is copied.
+	 * Rotations are not coalesced.
+	 */
+	public static Command rotate(final Frame frame, Quaternion q) {
+		final Quaternion r = new Quaternion(q);
+		return new Command(frame, null) {
+			protected void execute() {
+				frame.rotate(r);
+			}
+		};
+	}
+
+	/**
+	 * Returns a command calling {@code camera.setPosition(position)}. The
+	 * position is copied.
+	 */
+	public static Command setPosition(final Camera camera, PVector position) {
+		final PVector p = position.get();
+		return new Command(camera, POSITION) {
+			protected void execute() {
+				camera.setPosition(p);
+			}
+		};
+	}
+
+	/**
+	 * Returns a command calling {@code camera.setOrientation(orientation)}. The
+	 * orientation is copied.
+	 */
+	public static Command setOrientation(final Camera camera, Quaternion orientation) {
+		final Quaternion q = new Quaternion(orientation);
+		return new Command(camera, ORIENTATION) {
+			protected void execute() {
+				camera.setOrientation(q);
+			}
+		};
+	}
+
+	/**
+	 * Returns a command calling {@code camera.lookAt(target)}. The target is
+	 * copied. Since it sets the camera orientation, it is coalesced with the
+	 * orientation commands.
+	 */
+	public static Command lookAt(final Camera camera, PVector target) {
+		final PVector t = target.get();
+		return new Command(camera, ORIENTATION) {
+			protected void execute() {
+				camera.lookAt(t);
+			}
+		};
+	}
+
+	/**
+	 * Returns a command calling {@code camera.setFieldOfView(fov)}.
+	 */
+	public static Command setFieldOfView(final Camera camera, final float fov) {
+		return new Command(camera, FIELD_OF_VIEW) {
+			protected void execute() {
+				camera.setFieldOfView(fov);
+			}
+		};
+	}
+
+	/**
+	 * Returns a command calling {@code kfi.startInterpolation()}.
+	 */
+	public static Command startInterpolation(final KeyFrameInterpolator kfi) {
+		return new Command(kfi, INTERPOLATION) {
+			protected void execute() {
+				kfi.startInterpolation();
+			}
+		};
+	}
+
+	/**
+	 * Returns a command calling {@code kfi.stopInterpolation()}.
+	 */
+	public static Command stopInterpolation(final KeyFrameInterpolator kfi) {
+		return new Command(kfi, INTERPOLATION) {
+			protected void execute() {
+				kfi.stopInterpolation();
+			}
+		};
+	}
+}
@@ -292,16 +292,14 @@ public class DesktopEvents /** implements MouseWheelListener*/ {
 	/**
 	 * {@link remixlab.proscene.Scene#setMouseGrabber(MouseGrabbable)} to the MouseGrabber that grabs the
 	 * mouse (or to {@code null} if none of them grab it).
+	 * <p>
+	 * Candidates are looked up in the {@link remixlab.proscene.Scene#mouseGrabberGrid()}.
 	 */
 	public void mouseMoved(MouseEvent e) {		
 		Point event = new Point((e.getX() - scene.upperLeftCorner.getX()), (e.getY() - scene.upperLeftCorner.getY()));
 		scene.setMouseGrabber(null);
 		if( scene.hasMouseTracking() )
-			for (MouseGrabbable mg : scene.MouseGrabberPool) {
-				mg.checkIfGrabsMouse(event.getX(), event.getY(), scene.camera());
-				if (mg.grabsMouse())
-					scene.setMouseGrabber(mg);
-			}
+			scene.setMouseGrabber(scene.mouseGrabberGrid().checkIfGrabsMouse(event.getX(), event.getY()));
 		if ((scene.currentCameraProfile().mode() == CameraProfile.Mode.FIRST_PERSON) &&
 				/**( (e.getButton() != PApplet.LEFT) && (e.getButton() != PApplet.CENTER) && (e.getButton() != PApplet.RIGHT) ) &&*/ 
 				(scene.cursorIsHiddenOnFirstPerson()) ) {
@@ -25,9 +25,18 @@
 
 package remixlab.proscene;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import processing.core.*;
 
@@ -54,11 +63,25 @@ public class Frame implements Cloneable {
 		protected Frame refFrame;
 		protected Constraint constr;
 		
+		// world transform cache, see updateWorldCache()
+		protected PVector wPos;
+		protected Quaternion wOrt;
+		protected boolean wValid;
+		protected long wVersion;
+		protected List<WeakReference<FrameKernel>> children;
+		// size of children which triggers the next purge, see addChild()
+		protected int childrenPurgeSize;
+		
+		// local and world matrix caches, valid while their version is wVersion
+		protected PMatrix3D lMat, wMat;
+		protected long lMatVersion, wMatVersion;
+		
 		public FrameKernel() {
 			trans = new PVector(0, 0, 0);
 			rot = new Quaternion();
 			refFrame = null;
 			constr = null;
+			initWorldCache();
 		}
 		
 		public FrameKernel(PVector p, Quaternion r) {
@@ -66,13 +89,15 @@ public class Frame implements Cloneable {
 			rot = new Quaternion(r);
 			refFrame = null;
 			constr = null;
+			initWorldCache();
 		}
 		
 		protected FrameKernel(FrameKernel other) {
 			trans = new PVector(other.translation().x, other.translation().y, other.translation().z);
 			rot = new Quaternion(other.rotation());
-			refFrame = other.referenceFrame();
 			constr = other.constraint();
+			initWorldCache();
+			setReferenceFrame(other.referenceFrame());
 		}
 		
 		public FrameKernel copy() {
@@ -83,7 +108,10 @@ public class Frame implements Cloneable {
 			try {
 				FrameKernel clonedFrameKernel = (FrameKernel) super.clone();
 				clonedFrameKernel.trans = new PVector(translation().x, translation().y,	translation().z);
-				clonedFrameKernel.rot = new Quaternion(rotation());				
+				clonedFrameKernel.rot = new Quaternion(rotation());
+				clonedFrameKernel.initWorldCache();
+				if (referenceFrame() != null)
+					referenceFrame().kernel().addChild(clonedFrameKernel);
 				return clonedFrameKernel;
 			} catch (CloneNotSupportedException e) {
 				throw new Error("Something went wrong when cloning the FrameKernel");
@@ -95,7 +123,8 @@ public class Frame implements Cloneable {
 		}
 		
 		public final void setTranslation(PVector t) {
-			trans = t;			
+			trans = t;
+			invalidateWorldCache();
 		}
 		
 		public final Quaternion rotation() {
@@ -104,6 +133,7 @@ public class Frame implements Cloneable {
 		
 		public final void setRotation(Quaternion r) {
 			rot = r;
+			invalidateWorldCache();
 		}
 		
 		public Constraint constraint() {
@@ -115,18 +145,249 @@ public class Frame implements Cloneable {
 		}
 		
 		public final void setReferenceFrame(Frame rFrame) {
+			if (refFrame != null)
+				refFrame.kernel().removeChild(this);
 			refFrame = rFrame;
+			if (refFrame != null)
+				refFrame.kernel().addChild(this);
+			invalidateWorldCache();
 		}
 		
 		public void setConstraint(Constraint c) {
 			constr = c;
 		}
+		
+		/**
+		 * Returns the cached world position of the kernel. The cache is refreshed
+		 * first if needed. Do not modify the returned vector.
+		 */
+		protected PVector worldPosition() {
+			updateWorldCache();
+			return wPos;
+		}
+		
+		/**
+		 * Returns the cached world orientation of the kernel. The cache is
+		 * refreshed first if needed. Do not modify the returned quaternion.
+		 */
+		protected Quaternion worldOrientation() {
+			updateWorldCache();
+			return wOrt;
+		}
+		
+		/**
+		 * Returns {@code true} if the cached world position and orientation are
+		 * up to date.
+		 */
+		public final boolean worldCacheIsValid() {
+			return wValid;
+		}
+		
+		/**
+		 * Marks the cached world transform of this kernel, and those of all the
+		 * kernels defined in its coordinate system, as stale.
+		 * <p>
+		 * A kernel is only valid when its reference frame kernel is valid too.
+		 * Hence an already invalid kernel has invalid descendants and the
+		 * propagation stops there.
+		 * <p>
+		 * The list of children is locked while it is traversed, since a writer
+		 * thread (see {@link remixlab.proscene.Frame#enableDoubleBuffering()}) may
+		 * invalidate a kernel while the drawing thread attaches or detaches frames.
+		 * The cached values themselves are not synchronized: a kernel modified by
+		 * another thread should be read through its
+		 * {@link remixlab.proscene.Frame#published()} frame.
+		 */
+		public final void invalidateWorldCache() {
+			if (!wValid)
+				return;
+			wValid = false;
+			wVersion = worldVersionCounter.incrementAndGet();
+			synchronized (children) {
+				for (int i = children.size() - 1; i >= 0; i--) {
+					FrameKernel child = children.get(i).get();
+					if (child == null)
+						children.remove(i);
+					else
+						child.invalidateWorldCache();
+				}
+			}
+		}
+		
+		/**
+		 * Recomputes the cached world position and orientation from the
+		 * (recursively updated) reference frame cache, if needed.
+		 */
+		protected final void updateWorldCache() {
+			if (wValid)
+				return;
+			if (refFrame == null) {
+				wPos.set(trans);
+				wOrt.set(rot, false);
+			}
+			else {
+				FrameKernel ref = refFrame.kernel();
+				ref.updateWorldCache();
+				// wPos = ref.wPos + ref.wOrt.rotate(trans)
+				ref.wOrt.rotate(trans, wPos);
+				wPos.add(ref.wPos);
+				// wOrt = ref.wOrt * rot
+				wOrt.set(ref.wOrt, false);
+				wOrt.multiply(rot);
+				wOrt.normalize();
+			}
+			wValid = true;
+		}
+		
+		/**
+		 * Returns the cached local transformation matrix of the kernel (see
+		 * {@link remixlab.proscene.Frame#matrix()}), recomputing it if needed.
+		 * Do not modify the returned matrix.
+		 */
+		protected PMatrix3D localMatrix() {
+			// the world cache version changes whenever the local transform does
+			updateWorldCache();
+			if (lMat == null)
+				lMat = new PMatrix3D();
+			if (lMatVersion != wVersion) {
+				rot.matrix(lMat);
+				lMat.m03 = trans.x;
+				lMat.m13 = trans.y;
+				lMat.m23 = trans.z;
+				lMatVersion = wVersion;
+			}
+			return lMat;
+		}
+		
+		/**
+		 * Returns the cached world transformation matrix of the kernel (see
+		 * {@link remixlab.proscene.Frame#worldMatrix()}), recomputing it if needed.
+		 * Do not modify the returned matrix.
+		 */
+		protected PMatrix3D worldMatrix() {
+			updateWorldCache();
+			if (wMat == null)
+				wMat = new PMatrix3D();
+			if (wMatVersion != wVersion) {
+				wOrt.matrix(wMat);
+				wMat.m03 = wPos.x;
+				wMat.m13 = wPos.y;
+				wMat.m23 = wPos.z;
+				wMatVersion = wVersion;
+			}
+			return wMat;
+		}
+		
+		/**
+		 * Registers {@code child} as a kernel defined with respect to this one.
+		 * <p>
+		 * The references to collected children are purged each time the list
+		 * doubles its size, so that the list of a kernel which is never
+		 * invalidated (e.g., a static world anchor) does not grow with each of the
+		 * (temporary) frames ever attached to it.
+		 */
+		protected final void addChild(FrameKernel child) {
+			synchronized (children) {
+				if (children.size() >= childrenPurgeSize) {
+					int n = 0;
+					for (int i = 0; i < children.size(); i++) {
+						WeakReference<FrameKernel> ref = children.get(i);
+						if (ref.get() != null)
+							children.set(n++, ref);
+					}
+					children.subList(n, children.size()).clear();
+					childrenPurgeSize = Math.max(8, 2 * n);
+				}
+				children.add(new WeakReference<FrameKernel>(child));
+			}
+		}
+		
+		protected final void removeChild(FrameKernel child) {
+			synchronized (children) {
+				for (int i = children.size() - 1; i >= 0; i--) {
+					FrameKernel k = children.get(i).get();
+					if (k == null || k == child)
+						children.remove(i);
+				}
+			}
+		}
+		
+		/**
+		 * Moves the kernels of the frames defined with respect to {@code frame}
+		 * (which used to have this kernel) to {@code kernel}.
+		 */
+		protected final void moveChildren(Frame frame, FrameKernel kernel) {
+			synchronized (children) {
+				for (int i = children.size() - 1; i >= 0; i--) {
+					FrameKernel k = children.get(i).get();
+					if (k == null)
+						children.remove(i);
+					else if (k.referenceFrame() == frame) {
+						children.remove(i);
+						kernel.addChild(k);
+						k.invalidateWorldCache();
+					}
+				}
+			}
+		}
+		
+		private void initWorldCache() {
+			wPos = new PVector(0, 0, 0);
+			wOrt = new Quaternion();
+			wValid = false;
+			wVersion = worldVersionCounter.incrementAndGet();
+			children = new ArrayList<WeakReference<FrameKernel>>();
+			childrenPurgeSize = 0;
+			lMat = null;
+			wMat = null;
+			lMatVersion = wMatVersion = 0;
+		}
 	}	
 
+	// shared by all kernels so that versions of different kernels never collide,
+	// atomic since double buffered frames are modified from other threads
+	private static final AtomicLong worldVersionCounter = new AtomicLong();
+
+	/**
+	 * Minimum number of frames for
+	 * {@link #updateWorldTransforms(List, ExecutorService)} to split them among
+	 * several threads.
+	 */
+	public static final int PARALLEL_BATCH_SIZE = 1024;
+
+	/**
+	 * Local transform committed by a double buffered Frame, waiting to be
+	 * published. See {@link Frame#enableDoubleBuffering()}.
+	 */
+	private static final class Snapshot {
+		float tx, ty, tz;
+		float qx, qy, qz, qw;
+		Frame ref;
+	}
+
+	/**
+	 * Front Frame and committed states of a double buffered Frame.
+	 */
+	private static final class DoubleBuffer {
+		final Frame front;
+		final AtomicReference<Snapshot> pending = new AtomicReference<Snapshot>();
+		final AtomicReference<Snapshot> spare = new AtomicReference<Snapshot>();
+
+		DoubleBuffer(Frame f) {
+			front = f;
+		}
+	}
+
+	// frames to be published by publishDoubleBufferedFrames()
+	private static final List<WeakReference<Frame>> doubleBufferedFrames = new CopyOnWriteArrayList<WeakReference<Frame>>();
+
 	protected FrameKernel krnl;
 	protected List<KeyFrameInterpolator> list;
 	protected List<Frame> linkedFramesList;
 	protected Frame srcFrame;
+	private volatile DoubleBuffer dblBuffer;
+	private int updateDepth;
+	private boolean uncommitted;
 
 	/**
 	 * Creates a default Frame.
@@ -201,7 +462,10 @@ public class Frame implements Cloneable {
 	public Frame clone() {
 		try {
 			Frame clonedFrame = (Frame) super.clone();
-			clonedFrame.krnl = new FrameKernel(kernel());			
+			clonedFrame.krnl = new FrameKernel(kernel());
+			clonedFrame.dblBuffer = null;
+			clonedFrame.updateDepth = 0;
+			clonedFrame.uncommitted = false;
 			clonedFrame.list = new ArrayList<KeyFrameInterpolator>();
 			Iterator<KeyFrameInterpolator> it = listeners().iterator();
 			while (it.hasNext())
@@ -222,6 +486,8 @@ public class Frame implements Cloneable {
 	}
 	
 	public void setKernel(FrameKernel k) {
+		if ((krnl != null) && (krnl != k))
+			krnl.moveChildren(this, k);
 		krnl = k;
 	}
 
@@ -232,6 +498,11 @@ public class Frame implements Cloneable {
 	 * Use {@link #position()} to get the result in the world coordinates. These
 	 * two values are identical when the {@link #referenceFrame()} is {@code null}
 	 * (default).
+	 * <p>
+	 * <b>Attention:</b> The returned PVector is the one actually held by the
+	 * Frame. Prefer {@link #setTranslation(PVector)} or
+	 * {@link #translate(PVector)} to modify it, so that the cached
+	 * {@link #position()} gets updated.
 	 * 
 	 * @see #setTranslation(PVector)
 	 * @see #setTranslationWithConstraint(PVector)
@@ -247,6 +518,11 @@ public class Frame implements Cloneable {
 	 * Use {@link #orientation()} to get the result in the world coordinates.
 	 * These two values are identical when the {@link #referenceFrame()} is
 	 * {@code null} (default).
+	 * <p>
+	 * <b>Attention:</b> The returned Quaternion is the one actually held by the
+	 * Frame. Prefer {@link #setRotation(Quaternion)} or
+	 * {@link #rotate(Quaternion)} to modify it, so that the cached
+	 * {@link #orientation()} gets updated.
 	 * 
 	 * @see #setRotation(Quaternion)
 	 * @see #setRotationWithConstraint(Quaternion)
@@ -329,13 +605,206 @@ public class Frame implements Cloneable {
 	}
 
 	/**
-	 * Resets the cache of all KeyFrameInterpolators' associated with this Frame.
+	 * Invalidates the cached world transform of the Frame (and of all the Frames
+	 * defined in its coordinate system) and resets the cache of all
+	 * KeyFrameInterpolators' associated with this Frame.
 	 */
 	protected void modified() {
+		kernel().invalidateWorldCache();
 		Iterator<KeyFrameInterpolator> it = list.iterator();
 		while (it.hasNext()) {
 			it.next().invalidateValues();
 		}
+		if (dblBuffer != null)
+			commit();
+	}
+
+	/**
+	 * Returns {@code true} if the Frame is double buffered.
+	 * 
+	 * @see #enableDoubleBuffering()
+	 */
+	public boolean isDoubleBuffered() {
+		return dblBuffer != null;
+	}
+
+	/**
+	 * Makes the Frame double buffered, so that it can be safely modified from a
+	 * thread other than the drawing one, e.g., when the Scene
+	 * {@link remixlab.proscene.Scene#animationScheduler()} is driven by an
+	 * executor (see
+	 * {@link remixlab.proscene.AnimationScheduler#setExecutor(java.util.concurrent.ScheduledExecutorService, long)}).
+	 * <p>
+	 * The Frame itself then acts as the back buffer: it is modified as usual
+	 * (by {@link remixlab.proscene.InteractiveFrame#spin()},
+	 * {@link remixlab.proscene.InteractiveFrame#toss()},
+	 * {@link remixlab.proscene.KeyFrameInterpolator#update()}...), and each
+	 * modification {@link #commit()}s a copy of its local transform. The
+	 * {@link #published()} Frame is the front buffer: it is only modified by
+	 * {@link #publish()}, which the Scene calls from the drawing thread at the
+	 * beginning of each frame (see {@link remixlab.proscene.Scene#pre()}), and
+	 * hence holds a consistent state that can be read without locking during
+	 * the whole frame. The Scene applies the {@link #published()} transform
+	 * when drawing the Frame (see
+	 * {@link remixlab.proscene.Scene#applyTransformation(Frame)}).
+	 * <p>
+	 * The reference Frame of the {@link #published()} Frame is the
+	 * {@link #published()} Frame of the {@link #referenceFrame()}, so that
+	 * double buffered hierarchies are published as a whole. Double buffering
+	 * should be enabled (and disabled) from the drawing thread, before (after)
+	 * the writing threads start (stop) modifying the Frame. Note that the Frame
+	 * itself still supports a single writer at a time.
+	 * 
+	 * @see #disableDoubleBuffering()
+	 * @see #publishDoubleBufferedFrames()
+	 */
+	public void enableDoubleBuffering() {
+		if (dblBuffer != null)
+			return;
+		Frame f = new Frame(translation(), rotation());
+		Frame ref = referenceFrame();
+		f.setReferenceFrame(ref == null ? null : ref.published());
+		dblBuffer = new DoubleBuffer(f);
+		doubleBufferedFrames.add(new WeakReference<Frame>(this));
+	}
+
+	/**
+	 * Stops double buffering the Frame. {@link #published()} returns the Frame
+	 * itself afterwards.
+	 * 
+	 * @see #enableDoubleBuffering()
+	 */
+	public void disableDoubleBuffering() {
+		if (dblBuffer == null)
+			return;
+		dblBuffer = null;
+		updateDepth = 0;
+		uncommitted = false;
+		for (WeakReference<Frame> r : doubleBufferedFrames)
+			if (r.get() == this || r.get() == null)
+				doubleBufferedFrames.remove(r);
+	}
+
+	/**
+	 * Returns the front buffer Frame of a double buffered Frame, i.e., the Frame
+	 * as it was at the last {@link #publish()}. Returns the Frame itself when it
+	 * is not double buffered.
+	 * <p>
+	 * The returned Frame should only be read, and only from the drawing thread.
+	 * 
+	 * @see #enableDoubleBuffering()
+	 */
+	public Frame published() {
+		DoubleBuffer b = dblBuffer;
+		return b == null ? this : b.front;
+	}
+
+	/**
+	 * Hands a copy of the current local transform of a double buffered Frame to
+	 * the next {@link #publish()}, replacing the one that was previously
+	 * committed, if any. Does nothing if the Frame is not double buffered.
+	 * <p>
+	 * This method is called by {@link #modified()}, so that there is usually no
+	 * need to call it. Within a {@link #beginUpdate()} / {@link #endUpdate()}
+	 * block the commit is deferred to {@link #endUpdate()}.
+	 */
+	public void commit() {
+		DoubleBuffer b = dblBuffer;
+		if (b == null)
+			return;
+		if (updateDepth > 0) {
+			uncommitted = true;
+			return;
+		}
+		uncommitted = false;
+		Snapshot s = b.spare.getAndSet(null);
+		if (s == null)
+			s = new Snapshot();
+		PVector t = translation();
+		Quaternion q = rotation();
+		s.tx = t.x;
+		s.ty = t.y;
+		s.tz = t.z;
+		s.qx = q.x;
+		s.qy = q.y;
+		s.qz = q.z;
+		s.qw = q.w;
+		s.ref = referenceFrame();
+		s = b.pending.getAndSet(s);
+		// the replaced state was never published and can be reused
+		if (s != null)
+			b.spare.set(s);
+	}
+
+	/**
+	 * Defers the {@link #commit()}s of a double buffered Frame until the matching
+	 * {@link #endUpdate()} call, so that a sequence of modifications (such as
+	 * setting both the position and the orientation of the Frame) is published
+	 * as a whole. Calls may be nested.
+	 */
+	public void beginUpdate() {
+		updateDepth++;
+	}
+
+	/**
+	 * Ends a {@link #beginUpdate()} block, committing the Frame if it was
+	 * modified within the outermost block.
+	 */
+	public void endUpdate() {
+		if (updateDepth == 0)
+			return;
+		if (--updateDepth == 0 && uncommitted)
+			commit();
+	}
+
+	/**
+	 * Copies the last {@link #commit()}ted local transform of a double buffered
+	 * Frame into its {@link #published()} Frame. Returns {@code true} if there
+	 * was a state to publish. Should only be called from the drawing thread.
+	 * 
+	 * @see #publishDoubleBufferedFrames()
+	 */
+	public boolean publish() {
+		DoubleBuffer b = dblBuffer;
+		if (b == null)
+			return false;
+		Snapshot s = b.pending.getAndSet(null);
+		if (s == null)
+			return false;
+		Frame f = b.front;
+		Frame ref = s.ref == null ? null : s.ref.published();
+		if (f.referenceFrame() != ref)
+			f.setReferenceFrame(ref);
+		f.kernel().translation().set(s.tx, s.ty, s.tz);
+		Quaternion q = f.kernel().rotation();
+		q.x = s.qx;
+		q.y = s.qy;
+		q.z = s.qz;
+		q.w = s.qw;
+		f.modified();
+		s.ref = null;
+		b.spare.set(s);
+		return true;
+	}
+
+	/**
+	 * {@link #publish()}es all the double buffered Frames and returns the number
+	 * of Frames that were actually updated. Called by
+	 * {@link remixlab.proscene.Scene#pre()} and
+	 * {@link remixlab.proscene.HeadlessHost#nextFrame()}.
+	 * 
+	 * @see #enableDoubleBuffering()
+	 */
+	public static int publishDoubleBufferedFrames() {
+		int count = 0;
+		for (WeakReference<Frame> r : doubleBufferedFrames) {
+			Frame f = r.get();
+			if (f == null)
+				doubleBufferedFrames.remove(r);
+			else if (f.publish())
+				count++;
+		}
+		return count;
 	}
 	
 	/**
@@ -531,6 +1000,7 @@ public class Frame implements Cloneable {
 			deltaT = constraint().constrainTranslation(deltaT, this);
 
 		translation().add(deltaT);
+		modified();
 
 		/**
 		 * translation.x = this.translation().x; translation.y =
@@ -583,6 +1053,7 @@ public class Frame implements Cloneable {
 
 		rotation().multiply(deltaQ);
 		rotation().normalize();
+		modified();
 		// rotation.x = this.rotation().x;
 		// rotation.y = this.rotation().y;
 		// rotation.z = this.rotation().z;
@@ -644,19 +1115,30 @@ public class Frame implements Cloneable {
 	/**
 	 * Returns the orientation of the Frame, defined in the world coordinate
 	 * system.
+	 * <p>
+	 * The value is cached and only recomputed when the Frame, or one of its
+	 * {@link #referenceFrame()} ancestors, is {@link #modified()}. The returned
+	 * Quaternion is a copy of the cached one.
 	 * 
 	 * @see #position()
 	 * @see #setOrientation(Quaternion)
 	 * @see #rotation()
 	 */
 	public final Quaternion orientation() {
-		Quaternion res = rotation();
-		Frame fr = referenceFrame();
-		while (fr != null) {
-			res = Quaternion.multiply(fr.rotation(), res);
-			fr = fr.referenceFrame();
-		}
-		return res;
+		return orientation(null);
+	}
+
+	/**
+	 * Same as {@link #orientation()}, but the result is stored in {@code dest}
+	 * (which is returned). A new Quaternion is created if {@code dest} is
+	 * {@code null}.
+	 */
+	public final Quaternion orientation(Quaternion dest) {
+		Quaternion q = kernel().worldOrientation();
+		if (dest == null)
+			return new Quaternion(q.x, q.y, q.z, q.w, false);
+		dest.set(q, false);
+		return dest;
 	}
 
 	/**
@@ -739,13 +1221,129 @@ public class Frame implements Cloneable {
 
 	/**
 	 * Returns the position of the Frame, defined in the world coordinate system.
+	 * <p>
+	 * The value is cached and only recomputed when the Frame, or one of its
+	 * {@link #referenceFrame()} ancestors, is {@link #modified()}. The returned
+	 * PVector is a copy of the cached one.
 	 * 
 	 * @see #orientation()
 	 * @see #setPosition(PVector)
 	 * @see #translation()
 	 */
 	public final PVector position() {
-		return inverseCoordinatesOf(new PVector(0, 0, 0));
+		return position(null);
+	}
+
+	/**
+	 * Same as {@link #position()}, but the result is stored in {@code dest}
+	 * (which is returned). A new PVector is created if {@code dest} is
+	 * {@code null}.
+	 */
+	public final PVector position(PVector dest) {
+		PVector p = kernel().worldPosition();
+		if (dest == null)
+			return new PVector(p.x, p.y, p.z);
+		dest.set(p);
+		return dest;
+	}
+
+	/**
+	 * Returns a number that changes every time the world transformation of the
+	 * Frame (i.e., its {@link #position()} or {@link #orientation()}) may have
+	 * changed, either because the Frame or one of its {@link #referenceFrame()}
+	 * ancestors was {@link #modified()}.
+	 * <p>
+	 * Store this value together with data derived from the Frame world
+	 * transformation (e.g., a world bounding box) and compare it later to know
+	 * if that data needs to be recomputed.
+	 */
+	public final long worldTransformVersion() {
+		kernel().updateWorldCache();
+		return kernel().wVersion;
+	}
+
+	/**
+	 * Brings the cached world transformation (see {@link #position()} and
+	 * {@link #orientation()}) of all the {@code frames} up to date, e.g., once
+	 * per frame after a simulation step has moved them, so that the drawing code
+	 * does not recompute it lazily.
+	 * <p>
+	 * When {@code executor} is not {@code null} and there are more than
+	 * {@link #PARALLEL_BATCH_SIZE} frames, the frames are grouped by hierarchy
+	 * (i.e., by their root {@link #referenceFrame()} ancestor) and the
+	 * independent hierarchies are split in batches which are updated
+	 * concurrently on the {@code executor} (and on the calling thread). The
+	 * method returns when all of them are done. Each world transformation is
+	 * computed exactly as {@link #position()} would, so the results do not
+	 * depend on the {@code executor}. The frames should not be modified
+	 * meanwhile.
+	 * <p>
+	 * A single large hierarchy is updated by a single thread: use a
+	 * {@link remixlab.proscene.FrameStore} to process it level by level.
+	 */
+	public static void updateWorldTransforms(List<? extends Frame> frames, ExecutorService executor) {
+		int count = frames.size();
+		if (executor == null || count <= PARALLEL_BATCH_SIZE) {
+			for (int i = 0; i < count; i++)
+				frames.get(i).kernel().updateWorldCache();
+			return;
+		}
+		// hierarchies sharing no kernel, keyed by their root kernel (linked root
+		// frames share it)
+		Map<FrameKernel, List<FrameKernel>> trees = new LinkedHashMap<FrameKernel, List<FrameKernel>>();
+		for (int i = 0; i < count; i++) {
+			Frame root = frames.get(i);
+			while (root.referenceFrame() != null)
+				root = root.referenceFrame();
+			List<FrameKernel> tree = trees.get(root.kernel());
+			if (tree == null) {
+				tree = new ArrayList<FrameKernel>();
+				trees.put(root.kernel(), tree);
+			}
+			tree.add(frames.get(i).kernel());
+		}
+		int batchSize = Math.max(PARALLEL_BATCH_SIZE, count / (4 * Runtime.getRuntime().availableProcessors()));
+		List<List<List<FrameKernel>>> batches = new ArrayList<List<List<FrameKernel>>>();
+		List<List<FrameKernel>> batch = new ArrayList<List<FrameKernel>>();
+		int batchCount = 0;
+		for (List<FrameKernel> tree : trees.values()) {
+			batch.add(tree);
+			batchCount += tree.size();
+			if (batchCount >= batchSize) {
+				batches.add(batch);
+				batch = new ArrayList<List<FrameKernel>>();
+				batchCount = 0;
+			}
+		}
+		if (!batch.isEmpty())
+			batches.add(batch);
+		List<Future<?>> futures = new ArrayList<Future<?>>(batches.size());
+		for (int b = 1; b < batches.size(); b++) {
+			final List<List<FrameKernel>> trs = batches.get(b);
+			futures.add(executor.submit(new Runnable() {
+				public void run() {
+					updateWorldCaches(trs);
+				}
+			}));
+		}
+		updateWorldCaches(batches.get(0));
+		try {
+			for (Future<?> future : futures)
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while updating the Frame world transformations", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Something went wrong when updating the Frame world transformations", e.getCause());
+		}
+	}
+
+	private static void updateWorldCaches(List<List<FrameKernel>> trees) {
+		for (int t = 0; t < trees.size(); t++) {
+			List<FrameKernel> tree = trees.get(t);
+			for (int i = 0; i < tree.size(); i++)
+				tree.get(i).updateWorldCache();
+		}
 	}
 
 	/**
@@ -862,6 +1460,7 @@ public class Frame implements Cloneable {
 
 		this.kernel().rotation().multiply(rotation);
 		this.kernel().rotation().normalize(); // Prevents numerical drift
+		kernel().invalidateWorldCache();
 
 		Quaternion q = new Quaternion(inverseTransformOf(rotation.axis()), rotation.angle());
 		PVector t = PVector.add(point, q.rotate(PVector.sub(position(), point)));
@@ -913,6 +1512,7 @@ public class Frame implements Cloneable {
 		}
 		this.kernel().rotation().multiply(q);
 		this.kernel().rotation().normalize(); // Prevents numerical drift
+		kernel().invalidateWorldCache();
 
 		q = new Quaternion(inverseTransformOf(rotation.axis()), rotation.angle());
 		PVector t = PVector.add(point, q.rotate(PVector.sub(position(), point)));
@@ -1093,10 +1693,21 @@ public class Frame implements Cloneable {
 	 * coordinates.
 	 */
 	public final PVector coordinatesOf(PVector src) {
+		return coordinatesOf(src, null);
+	}
+
+	/**
+	 * Same as {@link #coordinatesOf(PVector)}, but the result is stored in
+	 * {@code dest} (which is returned). A new PVector is created if {@code dest}
+	 * is {@code null}. {@code dest} may be {@code src} itself.
+	 * <p>
+	 * No temporary object is created when {@code dest} is not {@code null}.
+	 */
+	public final PVector coordinatesOf(PVector src, PVector dest) {
 		if (referenceFrame() != null)
-			return localCoordinatesOf(referenceFrame().coordinatesOf(src));
+			return kernel().worldOrientation().inverseRotate(PVector.sub(src, kernel().worldPosition(), dest), dest);
 		else
-			return localCoordinatesOf(src);
+			return localCoordinatesOf(src, dest);
 	}
 
 	/**
@@ -1108,13 +1719,24 @@ public class Frame implements Cloneable {
 	 * coordinates.
 	 */
 	public final PVector inverseCoordinatesOf(PVector src) {
-		Frame fr = this;
-		PVector res = src;
-		while (fr != null) {
-			res = fr.localInverseCoordinatesOf(res);
-			fr = fr.referenceFrame();
+		return inverseCoordinatesOf(src, null);
+	}
+
+	/**
+	 * Same as {@link #inverseCoordinatesOf(PVector)}, but the result is stored
+	 * in {@code dest} (which is returned). A new PVector is created if
+	 * {@code dest} is {@code null}. {@code dest} may be {@code src} itself.
+	 * <p>
+	 * No temporary object is created when {@code dest} is not {@code null}.
+	 */
+	public final PVector inverseCoordinatesOf(PVector src, PVector dest) {
+		if (referenceFrame() != null) {
+			dest = kernel().worldOrientation().rotate(src, dest);
+			dest.add(kernel().worldPosition());
+			return dest;
 		}
-		return res;
+		else
+			return localInverseCoordinatesOf(src, dest);
 	}
 
 	/**
@@ -1128,7 +1750,16 @@ public class Frame implements Cloneable {
 	 * @see #localTransformOf(PVector)
 	 */
 	public final PVector localCoordinatesOf(PVector src) {
-		return rotation().inverseRotate(PVector.sub(src, translation()));
+		return localCoordinatesOf(src, null);
+	}
+
+	/**
+	 * Same as {@link #localCoordinatesOf(PVector)}, but the result is stored in
+	 * {@code dest} (which is returned). A new PVector is created if {@code dest}
+	 * is {@code null}. {@code dest} may be {@code src} itself.
+	 */
+	public final PVector localCoordinatesOf(PVector src, PVector dest) {
+		return rotation().inverseRotate(PVector.sub(src, translation(), dest), dest);
 	}
 
 	/**
@@ -1141,7 +1772,18 @@ public class Frame implements Cloneable {
 	 * @see #localInverseTransformOf(PVector)
 	 */
 	public final PVector localInverseCoordinatesOf(PVector src) {
-		return PVector.add(rotation().rotate(src), translation());
+		return localInverseCoordinatesOf(src, null);
+	}
+
+	/**
+	 * Same as {@link #localInverseCoordinatesOf(PVector)}, but the result is
+	 * stored in {@code dest} (which is returned). A new PVector is created if
+	 * {@code dest} is {@code null}. {@code dest} may be {@code src} itself.
+	 */
+	public final PVector localInverseCoordinatesOf(PVector src, PVector dest) {
+		dest = rotation().rotate(src, dest);
+		dest.add(translation());
+		return dest;
 	}
 
 	/**
@@ -1155,10 +1797,29 @@ public class Frame implements Cloneable {
 	public final PVector coordinatesOfFrom(PVector src, Frame from) {
 		if (this == from)
 			return src;
-		else if (referenceFrame() != null)
-			return localCoordinatesOf(referenceFrame().coordinatesOfFrom(src, from));
-		else
-			return localCoordinatesOf(from.inverseCoordinatesOf(src));
+		return coordinatesOfFrom(src, from, null);
+	}
+
+	/**
+	 * Same as {@link #coordinatesOfFrom(PVector, Frame)}, but the result is
+	 * stored in {@code dest} (which is returned). A new PVector is created if
+	 * {@code dest} is {@code null}. {@code dest} may be {@code src} itself.
+	 * <p>
+	 * The conversion goes through the (cached) world transforms of both frames,
+	 * so no temporary object is created when {@code dest} is not {@code null}.
+	 */
+	public final PVector coordinatesOfFrom(PVector src, Frame from, PVector dest) {
+		if (this == from) {
+			if (dest == null)
+				return new PVector(src.x, src.y, src.z);
+			dest.set(src);
+			return dest;
+		}
+		if (dest == null)
+			dest = new PVector();
+		if (from == null)
+			return coordinatesOf(src, dest);
+		return coordinatesOf(from.inverseCoordinatesOf(src, dest), dest);
 	}
 
 	/**
@@ -1169,20 +1830,23 @@ public class Frame implements Cloneable {
 	 * transformation.
 	 */
 	public final PVector coordinatesOfIn(PVector src, Frame in) {
-		Frame fr = this;
-		PVector res = src;
-		while ((fr != null) && (fr != in)) {
-			res = fr.localInverseCoordinatesOf(res);
-			fr = fr.referenceFrame();
-		}
-
-		if (fr != in)
-			// in was not found in the branch of this, res is now expressed in
-			// the world
-			// coordinate system. Simply convert to in coordinate system.
-			res = in.coordinatesOf(res);
+		if (this == in)
+			return src;
+		return coordinatesOfIn(src, in, null);
+	}
 
-		return res;
+	/**
+	 * Same as {@link #coordinatesOfIn(PVector, Frame)}, but the result is
+	 * stored in {@code dest} (which is returned). A new PVector is created if
+	 * {@code dest} is {@code null}. {@code dest} may be {@code src} itself.
+	 * <p>
+	 * The conversion goes through the (cached) world transforms of both frames,
+	 * so no temporary object is created when {@code dest} is not {@code null}.
+	 */
+	public final PVector coordinatesOfIn(PVector src, Frame in, PVector dest) {
+		if (in == null)
+			return inverseCoordinatesOf(src, dest);
+		return in.coordinatesOfFrom(src, this, dest);
 	}
 
 	/**
@@ -1195,11 +1859,21 @@ public class Frame implements Cloneable {
 	 * account).
 	 */
 	public final PVector transformOf(PVector src) {
+		return transformOf(src, null);
+	}
+
+	/**
+	 * Same as {@link #transformOf(PVector)}, but the result is stored in
+	 * {@code dest} (which is returned). A new PVector is created if {@code dest}
+	 * is {@code null}. {@code dest} may be {@code src} itself.
+	 * <p>
+	 * No temporary object is created when {@code dest} is not {@code null}.
+	 */
+	public final PVector transformOf(PVector src, PVector dest) {
 		if (referenceFrame() != null)
-			return localTransformOf(referenceFrame().transformOf(src));
+			return kernel().worldOrientation().inverseRotate(src, dest);
 		else
-			return localTransformOf(src);
-
+			return localTransformOf(src, dest);
 	}
 
 	/**
@@ -1211,13 +1885,21 @@ public class Frame implements Cloneable {
 	 * of 3D vectors.
 	 */
 	public final PVector inverseTransformOf(PVector src) {
-		Frame fr = this;
-		PVector res = src;
-		while (fr != null) {
-			res = fr.localInverseTransformOf(res);
-			fr = fr.referenceFrame();
-		}
-		return res;
+		return inverseTransformOf(src, null);
+	}
+
+	/**
+	 * Same as {@link #inverseTransformOf(PVector)}, but the result is stored in
+	 * {@code dest} (which is returned). A new PVector is created if {@code dest}
+	 * is {@code null}. {@code dest} may be {@code src} itself.
+	 * <p>
+	 * No temporary object is created when {@code dest} is not {@code null}.
+	 */
+	public final PVector inverseTransformOf(PVector src, PVector dest) {
+		if (referenceFrame() != null)
+			return kernel().worldOrientation().rotate(src, dest);
+		else
+			return localInverseTransformOf(src, dest);
 	}
 
 	/**
@@ -1312,7 +1994,16 @@ public class Frame implements Cloneable {
 	 * @see #localCoordinatesOf(PVector)
 	 */
 	public final PVector localTransformOf(PVector src) {
-		return rotation().inverseRotate(src);
+		return localTransformOf(src, null);
+	}
+
+	/**
+	 * Same as {@link #localTransformOf(PVector)}, but the result is stored in
+	 * {@code dest} (which is returned). A new PVector is created if {@code dest}
+	 * is {@code null}. {@code dest} may be {@code src} itself.
+	 */
+	public final PVector localTransformOf(PVector src, PVector dest) {
+		return rotation().inverseRotate(src, dest);
 	}
 
 	/**
@@ -1325,7 +2016,16 @@ public class Frame implements Cloneable {
 	 * @see #localInverseCoordinatesOf(PVector)
 	 */
 	public final PVector localInverseTransformOf(PVector src) {
-		return rotation().rotate(src);
+		return localInverseTransformOf(src, null);
+	}
+
+	/**
+	 * Same as {@link #localInverseTransformOf(PVector)}, but the result is
+	 * stored in {@code dest} (which is returned). A new PVector is created if
+	 * {@code dest} is {@code null}. {@code dest} may be {@code src} itself.
+	 */
+	public final PVector localInverseTransformOf(PVector src, PVector dest) {
+		return rotation().rotate(src, dest);
 	}
 
 	/**
@@ -1338,10 +2038,30 @@ public class Frame implements Cloneable {
 	public final PVector transformOfFrom(PVector src, Frame from) {
 		if (this == from)
 			return src;
-		else if (referenceFrame() != null)
-			return localTransformOf(referenceFrame().transformOfFrom(src, from));
-		else
-			return localTransformOf(from.inverseTransformOf(src));
+		return transformOfFrom(src, from, null);
+	}
+
+	/**
+	 * Same as {@link #transformOfFrom(PVector, Frame)}, but the result is
+	 * stored in {@code dest} (which is returned). A new PVector is created if
+	 * {@code dest} is {@code null}. {@code dest} may be {@code src} itself.
+	 * <p>
+	 * The conversion goes through the (cached) world orientations of both
+	 * frames, so no temporary object is created when {@code dest} is not
+	 * {@code null}.
+	 */
+	public final PVector transformOfFrom(PVector src, Frame from, PVector dest) {
+		if (this == from) {
+			if (dest == null)
+				return new PVector(src.x, src.y, src.z);
+			dest.set(src);
+			return dest;
+		}
+		if (dest == null)
+			dest = new PVector();
+		if (from == null)
+			return transformOf(src, dest);
+		return transformOf(from.inverseTransformOf(src, dest), dest);
 	}
 
 	/**
@@ -1353,20 +2073,24 @@ public class Frame implements Cloneable {
 	 * transformation.
 	 */
 	public final PVector transformOfIn(PVector src, Frame in) {
-		Frame fr = this;
-		PVector res = src;
-		while ((fr != null) && (fr != in)) {
-			res = fr.localInverseTransformOf(res);
-			fr = fr.referenceFrame();
-		}
-
-		if (fr != in)
-			// in was not found in the branch of this, res is now expressed in
-			// the world
-			// coordinate system. Simply convert to in coordinate system.
-			res = in.transformOf(res);
+		if (this == in)
+			return src;
+		return transformOfIn(src, in, null);
+	}
 
-		return res;
+	/**
+	 * Same as {@link #transformOfIn(PVector, Frame)}, but the result is stored
+	 * in {@code dest} (which is returned). A new PVector is created if
+	 * {@code dest} is {@code null}. {@code dest} may be {@code src} itself.
+	 * <p>
+	 * The conversion goes through the (cached) world orientations of both
+	 * frames, so no temporary object is created when {@code dest} is not
+	 * {@code null}.
+	 */
+	public final PVector transformOfIn(PVector src, Frame in, PVector dest) {
+		if (in == null)
+			return inverseTransformOf(src, dest);
+		return in.transformOfFrom(src, this, dest);
 	}
 
 	/**
@@ -1412,23 +2136,31 @@ public class Frame implements Cloneable {
 	 * coordinate system). These two match when the {@link #referenceFrame()} is
 	 * {@code null}.
 	 * <p>
-	 * The result is only valid until the next call to {@code matrix()} or
-	 * {@link #worldMatrix()}. Use it immediately (as above).
+	 * A new matrix is returned at each call. Use {@link #matrix(PMatrix3D)} to
+	 * avoid the allocation.
 	 * <p>
 	 * <b>Note:</b> The scaling factor of the 4x4 matrix is 1.0.
 	 * 
 	 * @see #applyTransformation(Scene)
 	 */
 	public final PMatrix3D matrix() {
-		PMatrix3D pM = new PMatrix3D();
-
-		pM = kernel().rotation().matrix();
-
-		pM.m03 = kernel().translation().x;
-		pM.m13 = kernel().translation().y;
-		pM.m23 = kernel().translation().z;
+		return matrix(null);
+	}
 
-		return pM;
+	/**
+	 * Same as {@link #matrix()}, but the matrix is copied into {@code dest}
+	 * (which is allocated if {@code null}) and returned.
+	 * <p>
+	 * The matrix is cached by the Frame and only recomputed after the Frame is
+	 * modified, so that this method does not allocate when {@code dest} is given.
+	 * 
+	 * @see #worldMatrix(PMatrix3D)
+	 */
+	public final PMatrix3D matrix(PMatrix3D dest) {
+		if (dest == null)
+			dest = new PMatrix3D();
+		dest.set(kernel().localMatrix());
+		return dest;
 	}
 	
 	/**
@@ -1472,19 +2204,31 @@ public class Frame implements Cloneable {
 	 * defined with respect to the {@link #referenceFrame()}). These two match
 	 * when the {@link #referenceFrame()} is {@code null}.
 	 * <p>
-	 * <b>Attention:</b> The result is only valid until the next call to
-	 * {@link #matrix()} or {@code worldMatrix()}. Use it immediately (as above).
+	 * A new matrix is returned at each call. Use {@link #worldMatrix(PMatrix3D)}
+	 * to avoid the allocation.
 	 * <p>
 	 * <b>Note:</b> The scaling factor of the 4x4 matrix is 1.0.
 	 */
 	public final PMatrix3D worldMatrix() {
-		if (referenceFrame() != null) {
-			final Frame fr = new Frame();
-			fr.setTranslation(position());
-			fr.setRotation(orientation());
-			return fr.matrix();
-		} else
-			return matrix();
+		return worldMatrix(null);
+	}
+
+	/**
+	 * Same as {@link #worldMatrix()}, but the matrix is copied into {@code dest}
+	 * (which is allocated if {@code null}) and returned.
+	 * <p>
+	 * The matrix is computed from the cached world {@link #position()} and
+	 * {@link #orientation()} and is itself cached until the Frame (or one of its
+	 * reference frames) is modified, so that this method does not allocate when
+	 * {@code dest} is given.
+	 * 
+	 * @see #matrix(PMatrix3D)
+	 */
+	public final PMatrix3D worldMatrix(PMatrix3D dest) {
+		if (dest == null)
+			dest = new PMatrix3D();
+		dest.set(kernel().worldMatrix());
+		return dest;
 	}
 
 	/**
@@ -0,0 +1,619 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+package remixlab.proscene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import processing.core.*;
+
+/**
+ * A structure-of-arrays store of (many) rigid coordinate systems organized in
+ * a forest, whose world transforms are all computed in a single linear sweep.
+ * <p>
+ * Each stored frame is referred to by the integer slot returned by
+ * {@link #add(PVector, Quaternion, int)}. Its local {@link #translation(int, PVector)}
+ * and {@link #rotation(int, Quaternion)} (defined with respect to its
+ * {@link #parent(int)}, or to the world when the parent is {@code -1}) are kept
+ * in packed arrays (a float array of {@code x, y, z} triplets and a
+ * {@link remixlab.proscene.QuaternionBuffer}), as are the world
+ * {@link #position(int, PVector)} and {@link #orientation(int, Quaternion)}
+ * computed by {@link #update()}. Nothing is allocated per frame, neither by
+ * the store nor by the update.
+ * <p>
+ * {@link #update()} visits the slots in topological order (parents first),
+ * which is simply the slot order when parents are added before their children
+ * (the usual case). It is meant to be called once per frame, e.g., at the
+ * beginning of {@code draw()}. The results are identical to the ones computed
+ * by Frame hierarchies.
+ * <p>
+ * When an existing API requires a Frame, use {@link #frame(int)}: it returns a
+ * Frame view of the slot, whose {@link remixlab.proscene.Frame#translation()}
+ * and {@link remixlab.proscene.Frame#rotation()} are the slot local transform
+ * and whose {@link remixlab.proscene.Frame#referenceFrame()} is the view of
+ * the parent slot. The world transforms of the views are refreshed by
+ * {@link #update()}, and the modifications made through the Frame API (e.g.,
+ * {@link remixlab.proscene.Frame#setPosition(PVector)}, or by an
+ * InteractiveFrame) are read back at the beginning of the next
+ * {@link #update()}. Views are only created on demand: keep them for the few
+ * frames you need to interact with. Use {@link #setParent(int, int)}, not the
+ * view {@link remixlab.proscene.Frame#setReferenceFrame(Frame)}, to modify the
+ * hierarchy.
+ * <p>
+ * Large stores may be updated concurrently, see
+ * {@link #update(ExecutorService)}.
+ */
+public class FrameStore {
+	/**
+	 * Minimum number of frames of a hierarchy level for
+	 * {@link #update(ExecutorService)} to split it among several threads.
+	 */
+	public static final int PARALLEL_BATCH_SIZE = 4096;
+
+	// S l o t s (local transform, defined with respect to the parent)
+	protected int size;
+	protected int[] parent;
+	protected float[] translations;
+	protected QuaternionBuffer rotations;
+
+	// W o r l d t r a n s f o r m s, computed by update()
+	protected float[] positions;
+	protected QuaternionBuffer orientations;
+
+	// T o p o l o g i c a l o r d e r (breadth first: level l is
+	// order[levelStart[l] .. levelStart[l + 1]))
+	protected int backwardLinks;
+	protected int[] order;
+	protected int[] levelStart;
+	protected int levelCount;
+	protected boolean orderIsValid;
+
+	// V i e w s
+	protected Frame[] views;
+	protected long[] viewVersions;
+	protected int viewCount;
+
+	/**
+	 * Creates an empty store.
+	 */
+	public FrameStore() {
+		this(64);
+	}
+
+	/**
+	 * Creates an empty store with room for {@code capacity} frames. The store
+	 * grows as needed.
+	 */
+	public FrameStore(int capacity) {
+		capacity = PApplet.max(1, capacity);
+		parent = new int[capacity];
+		translations = new float[3 * capacity];
+		rotations = new QuaternionBuffer(capacity);
+		rotations.setSize(0);
+		positions = new float[3 * capacity];
+		orientations = new QuaternionBuffer(capacity);
+		orientations.setSize(0);
+		order = new int[0];
+		levelStart = new int[2];
+		views = new Frame[capacity];
+		viewVersions = new long[capacity];
+	}
+
+	/**
+	 * Adds a frame with an identity local transform, defined with respect to the
+	 * {@code parent} slot, and returns its slot.
+	 * 
+	 * @see #add(PVector, Quaternion, int)
+	 */
+	public int add(int parent) {
+		return add(0, 0, 0, parent);
+	}
+
+	/**
+	 * Adds a frame whose local {@code translation} and {@code rotation} are
+	 * defined with respect to the {@code parent} slot ({@code -1} meaning the
+	 * world coordinate system), and returns its slot. {@code rotation} is
+	 * normalized, as with {@link remixlab.proscene.Frame#Frame(PVector, Quaternion)}.
+	 * <p>
+	 * Its world transform is computed by the next {@link #update()}.
+	 */
+	public int add(PVector translation, Quaternion rotation, int parent) {
+		int slot = add(translation.x, translation.y, translation.z, parent);
+		rotations.set(slot, rotation);
+		rotations.normalize(slot, slot + 1);
+		return slot;
+	}
+
+	private int add(float tx, float ty, float tz, int p) {
+		if (p < -1 || p >= size)
+			throw new IllegalArgumentException("FrameStore: invalid parent slot " + p);
+		if (size == this.parent.length)
+			grow(2 * size);
+		int slot = size++;
+		this.parent[slot] = p;
+		translations[3 * slot] = tx;
+		translations[3 * slot + 1] = ty;
+		translations[3 * slot + 2] = tz;
+		rotations.setSize(size);
+		orientations.setSize(size);
+		orderIsValid = false;
+		return slot;
+	}
+
+	/**
+	 * Removes all the frames from the store. Previously returned views are
+	 * detached from it.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++)
+			views[i] = null;
+		size = 0;
+		viewCount = 0;
+		backwardLinks = 0;
+		rotations.setSize(0);
+		orientations.setSize(0);
+		orderIsValid = false;
+	}
+
+	/**
+	 * Returns the number of frames in the store. Slots range in
+	 * {@code [0, size())}.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the parent slot of {@code slot}, or {@code -1} if it is defined in
+	 * the world coordinate system.
+	 */
+	public int parent(int slot) {
+		return parent[slot];
+	}
+
+	/**
+	 * Defines {@code slot} with respect to the {@code p} slot ({@code -1} meaning
+	 * the world coordinate system). Its local transform is kept, hence its world
+	 * transform changes (see {@link remixlab.proscene.Frame#setReferenceFrame(Frame)}).
+	 * <p>
+	 * Nothing is done (and a warning is printed) if {@code p} is defined with
+	 * respect to {@code slot}, which would create a loop.
+	 */
+	public void setParent(int slot, int p) {
+		if (p < -1 || p >= size)
+			throw new IllegalArgumentException("FrameStore: invalid parent slot " + p);
+		for (int a = p; a >= 0; a = parent[a])
+			if (a == slot) {
+				PApplet.println("FrameStore.setParent would create a loop in the hierarchy");
+				return;
+			}
+		if (parent[slot] > slot)
+			backwardLinks--;
+		parent[slot] = p;
+		if (p > slot)
+			backwardLinks++;
+		orderIsValid = false;
+		if (views[slot] != null)
+			views[slot].kernel().setReferenceFrame(p < 0 ? null : frame(p));
+	}
+
+	/**
+	 * Stores the local translation of {@code slot} in {@code dest} (which is
+	 * created if {@code null}) and returns it.
+	 */
+	public PVector translation(int slot, PVector dest) {
+		if (dest == null)
+			dest = new PVector();
+		int o = 3 * slot;
+		dest.set(translations[o], translations[o + 1], translations[o + 2]);
+		return dest;
+	}
+
+	/**
+	 * Sets the local translation of {@code slot}.
+	 */
+	public void setTranslation(int slot, PVector t) {
+		setTranslation(slot, t.x, t.y, t.z);
+	}
+
+	/**
+	 * Sets the local translation of {@code slot}.
+	 */
+	public void setTranslation(int slot, float x, float y, float z) {
+		int o = 3 * slot;
+		translations[o] = x;
+		translations[o + 1] = y;
+		translations[o + 2] = z;
+	}
+
+	/**
+	 * Stores the local rotation of {@code slot} in {@code dest} (which is
+	 * created if {@code null}) and returns it.
+	 */
+	public Quaternion rotation(int slot, Quaternion dest) {
+		return rotations.get(slot, dest);
+	}
+
+	/**
+	 * Sets the local rotation of {@code slot}.
+	 */
+	public void setRotation(int slot, Quaternion r) {
+		rotations.set(slot, r);
+	}
+
+	/**
+	 * Stores the world position of {@code slot}, as computed by the last
+	 * {@link #update()}, in {@code dest} (which is created if {@code null}) and
+	 * returns it.
+	 */
+	public PVector position(int slot, PVector dest) {
+		if (dest == null)
+			dest = new PVector();
+		int o = 3 * slot;
+		dest.set(positions[o], positions[o + 1], positions[o + 2]);
+		return dest;
+	}
+
+	/**
+	 * Stores the world orientation of {@code slot}, as computed by the last
+	 * {@link #update()}, in {@code dest} (which is created if {@code null}) and
+	 * returns it.
+	 */
+	public Quaternion orientation(int slot, Quaternion dest) {
+		return orientations.get(slot, dest);
+	}
+
+	/**
+	 * Stores the world transformation matrix of {@code slot} (see
+	 * {@link remixlab.proscene.Frame#worldMatrix()}), as computed by the last
+	 * {@link #update()}, in {@code dest} (which is created if {@code null}) and
+	 * returns it.
+	 */
+	public PMatrix3D worldMatrix(int slot, PMatrix3D dest) {
+		if (dest == null)
+			dest = new PMatrix3D();
+		float x = orientations.x[slot], y = orientations.y[slot], z = orientations.z[slot], w = orientations.w[slot];
+		int o = 3 * slot;
+		float q00 = 2.0f * x * x;
+		float q11 = 2.0f * y * y;
+		float q22 = 2.0f * z * z;
+		float q01 = 2.0f * x * y;
+		float q02 = 2.0f * x * z;
+		float q03 = 2.0f * x * w;
+		float q12 = 2.0f * y * z;
+		float q13 = 2.0f * y * w;
+		float q23 = 2.0f * z * w;
+		dest.set(1.0f - q11 - q22, q01 - q23, q02 + q13, positions[o],
+				q01 + q23, 1.0f - q22 - q00, q12 - q03, positions[o + 1],
+				q02 - q13, q12 + q03, 1.0f - q11 - q00, positions[o + 2],
+				0, 0, 0, 1);
+		return dest;
+	}
+
+	/**
+	 * Returns the packed ({@code x, y, z} triplets) local translations. Only
+	 * the first {@code 3 * size()} entries are meaningful. The array may be
+	 * modified directly (e.g., by a simulation step), but it is reallocated when
+	 * the store grows.
+	 */
+	public float[] translations() {
+		return translations;
+	}
+
+	/**
+	 * Returns the local rotations. They may be modified directly, see
+	 * {@link #translations()}.
+	 */
+	public QuaternionBuffer rotations() {
+		return rotations;
+	}
+
+	/**
+	 * Returns the packed ({@code x, y, z} triplets) world positions computed by
+	 * the last {@link #update()}. Do not modify them.
+	 */
+	public float[] positions() {
+		return positions;
+	}
+
+	/**
+	 * Returns the world orientations computed by the last {@link #update()}. Do
+	 * not modify them.
+	 */
+	public QuaternionBuffer orientations() {
+		return orientations;
+	}
+
+	/**
+	 * Returns a Frame view of {@code slot}, creating it (and the views of its
+	 * ancestors) if needed. See the class documentation.
+	 * <p>
+	 * The view world transform is valid as of the last {@link #update()}.
+	 */
+	public Frame frame(int slot) {
+		if (views[slot] != null)
+			return views[slot];
+		Frame ref = parent[slot] < 0 ? null : frame(parent[slot]);
+		Frame view = new Frame();
+		Frame.FrameKernel k = view.kernel();
+		k.setReferenceFrame(ref);
+		views[slot] = view;
+		viewCount++;
+		pushView(slot);
+		return view;
+	}
+
+	/**
+	 * Computes the world position and orientation of all the frames, parents
+	 * first, in a single pass.
+	 * <p>
+	 * The local transforms modified through the {@link #frame(int)} views are
+	 * read back first, and the views are refreshed afterwards.
+	 */
+	public void update() {
+		update(null);
+	}
+
+	/**
+	 * Same as {@link #update()}, but the world transforms are computed
+	 * concurrently on {@code executor} (and on the calling thread) when the
+	 * store holds more than {@link #PARALLEL_BATCH_SIZE} frames. The method
+	 * returns when all of them are done.
+	 * <p>
+	 * The frames are processed hierarchy level by level (roots first): the
+	 * frames of a level are independent of each other, so that levels larger
+	 * than {@link #PARALLEL_BATCH_SIZE} are split in batches which run
+	 * concurrently, while smaller levels are processed by the calling thread.
+	 * Each frame is computed with the same arithmetic as in {@link #update()},
+	 * hence the results do not depend on the {@code executor} nor on the
+	 * scheduling of its threads. The store should not be modified meanwhile.
+	 */
+	public void update(ExecutorService executor) {
+		if (viewCount > 0)
+			pullViews();
+		if (executor == null || size <= PARALLEL_BATCH_SIZE) {
+			if (backwardLinks == 0)
+				propagate(null, 0, size);
+			else {
+				if (!orderIsValid)
+					sortSlots();
+				propagate(order, 0, size);
+			}
+		}
+		else {
+			if (!orderIsValid)
+				sortSlots();
+			for (int l = 0; l < levelCount; l++)
+				propagate(levelStart[l], levelStart[l + 1], executor);
+		}
+		if (viewCount > 0)
+			for (int i = 0; i < size; i++)
+				if (views[i] != null)
+					pushView(i);
+	}
+
+	/**
+	 * Computes the world transforms of the (independent) slots
+	 * {@code order[from..to)}, splitting them in batches run by {@code executor}
+	 * when there are more than {@link #PARALLEL_BATCH_SIZE}.
+	 */
+	protected void propagate(int from, int to, ExecutorService executor) {
+		int count = to - from;
+		if (count <= PARALLEL_BATCH_SIZE) {
+			propagate(order, from, to);
+			return;
+		}
+		int batches = Math.min((count + PARALLEL_BATCH_SIZE - 1) / PARALLEL_BATCH_SIZE, 4 * Runtime.getRuntime().availableProcessors());
+		int batchSize = (count + batches - 1) / batches;
+		List<Future<?>> futures = new ArrayList<Future<?>>(batches);
+		final int[] o = order;
+		for (int start = from + batchSize; start < to; start += batchSize) {
+			final int begin = start, end = Math.min(to, start + batchSize);
+			futures.add(executor.submit(new Runnable() {
+				public void run() {
+					propagate(o, begin, end);
+				}
+			}));
+		}
+		propagate(order, from, Math.min(to, from + batchSize));
+		try {
+			for (Future<?> future : futures)
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while updating the FrameStore", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Something went wrong when updating the FrameStore", e.getCause());
+		}
+	}
+
+	/**
+	 * Computes the world transforms of the slots {@code order[from..to)} (or of
+	 * the slots {@code [from, to)} when {@code order} is {@code null}). The
+	 * parents of those slots should be up to date.
+	 * <p>
+	 * The arithmetic is the one of {@link remixlab.proscene.Frame#position()}
+	 * and {@link remixlab.proscene.Frame#orientation()}, so that the results are
+	 * identical.
+	 */
+	protected void propagate(int[] order, int from, int to) {
+		float[] t = translations, pos = positions;
+		float[] rx = rotations.x, ry = rotations.y, rz = rotations.z, rw = rotations.w;
+		float[] ox = orientations.x, oy = orientations.y, oz = orientations.z, ow = orientations.w;
+		for (int k = from; k < to; k++) {
+			int i = order == null ? k : order[k];
+			int p = parent[i];
+			int o = 3 * i;
+			if (p < 0) {
+				pos[o] = t[o];
+				pos[o + 1] = t[o + 1];
+				pos[o + 2] = t[o + 2];
+				ox[i] = rx[i];
+				oy[i] = ry[i];
+				oz[i] = rz[i];
+				ow[i] = rw[i];
+				continue;
+			}
+			float x = ox[p], y = oy[p], z = oz[p], w = ow[p];
+			// position = parent position + parent orientation.rotate(translation)
+			float q00 = 2.0f * x * x;
+			float q11 = 2.0f * y * y;
+			float q22 = 2.0f * z * z;
+			float q01 = 2.0f * x * y;
+			float q02 = 2.0f * x * z;
+			float q03 = 2.0f * x * w;
+			float q12 = 2.0f * y * z;
+			float q13 = 2.0f * y * w;
+			float q23 = 2.0f * z * w;
+			float vx = t[o], vy = t[o + 1], vz = t[o + 2];
+			int po = 3 * p;
+			pos[o] = (1.0f - q11 - q22) * vx + (q01 - q23) * vy + (q02 + q13) * vz + pos[po];
+			pos[o + 1] = (q01 + q23) * vx + (1.0f - q22 - q00) * vy + (q12 - q03) * vz + pos[po + 1];
+			pos[o + 2] = (q02 - q13) * vx + (q12 + q03) * vy + (1.0f - q11 - q00) * vz + pos[po + 2];
+			// orientation = parent orientation * rotation, normalized
+			float qw = w * rw[i] - x * rx[i] - y * ry[i] - z * rz[i];
+			float qx = w * rx[i] + rw[i] * x + y * rz[i] - z * ry[i];
+			float qy = w * ry[i] + rw[i] * y - x * rz[i] + z * rx[i];
+			float qz = w * rz[i] + rw[i] * z + x * ry[i] - y * rx[i];
+			float norm = PApplet.sqrt(qx * qx + qy * qy + qz * qz + qw * qw);
+			if (norm > 0.0f) {
+				ox[i] = qx / norm;
+				oy[i] = qy / norm;
+				oz[i] = qz / norm;
+				ow[i] = qw / norm;
+			} else {
+				ox[i] = 0;
+				oy[i] = 0;
+				oz[i] = 0;
+				ow[i] = 1;
+			}
+		}
+	}
+
+	/**
+	 * Sorts the slots in {@link #order} so that parents come before their
+	 * children (breadth first, roots first) and records where each hierarchy
+	 * level starts in {@link #levelStart}.
+	 */
+	protected void sortSlots() {
+		if (order.length < size)
+			order = new int[parent.length];
+		// children lists, in counting sort layout: children of i are in
+		// order[start[i] .. start[i + 1]) once filled
+		int[] start = new int[size + 2];
+		for (int i = 0; i < size; i++)
+			start[parent[i] + 2]++;
+		for (int i = 2; i < size + 2; i++)
+			start[i] += start[i - 1];
+		int[] children = new int[size];
+		for (int i = 0; i < size; i++)
+			children[start[parent[i] + 1]++] = i;
+		// start[p + 1] now is the end of the children of p, start[p] their beginning
+		int n = 0;
+		for (int i = 0; i < size; i++)
+			if (parent[i] < 0)
+				order[n++] = i;
+		levelCount = 0;
+		levelStart[0] = 0;
+		for (int k = 0; k < n;) {
+			// order[k .. end) is the current level, its children the next one
+			int end = n;
+			for (; k < end; k++) {
+				int p = order[k];
+				for (int c = start[p]; c < start[p + 1]; c++)
+					order[n++] = children[c];
+			}
+			if (levelStart.length < levelCount + 2)
+				levelStart = PApplet.expand(levelStart, 2 * levelStart.length);
+			levelStart[++levelCount] = end;
+		}
+		orderIsValid = true;
+	}
+
+	/**
+	 * Reads back the local transforms of the views modified through the Frame
+	 * API since the last {@link #update()}.
+	 */
+	protected void pullViews() {
+		for (int i = 0; i < size; i++) {
+			Frame view = views[i];
+			if (view == null)
+				continue;
+			Frame.FrameKernel k = view.kernel();
+			if (k.wVersion == viewVersions[i])
+				continue;
+			Frame ref = parent[i] < 0 ? null : views[parent[i]];
+			if (k.referenceFrame() != ref) {
+				PApplet.println("FrameStore: use setParent() to modify the hierarchy of the frame views");
+				k.setReferenceFrame(ref);
+			}
+			setTranslation(i, k.trans);
+			rotations.set(i, k.rot.x, k.rot.y, k.rot.z, k.rot.w);
+		}
+	}
+
+	/**
+	 * Copies the local and world transforms of {@code slot} into its view
+	 * kernel, so that the Frame API does not recompute them.
+	 */
+	protected void pushView(int slot) {
+		Frame.FrameKernel k = views[slot].kernel();
+		int o = 3 * slot;
+		PVector t = k.trans;
+		Quaternion r = k.rot;
+		PVector p = k.wPos;
+		Quaternion q = k.wOrt;
+		boolean same = k.wValid && t.x == translations[o] && t.y == translations[o + 1]
+				&& t.z == translations[o + 2] && r.x == rotations.x[slot] && r.y == rotations.y[slot]
+				&& r.z == rotations.z[slot] && r.w == rotations.w[slot] && p.x == positions[o]
+				&& p.y == positions[o + 1] && p.z == positions[o + 2] && q.x == orientations.x[slot]
+				&& q.y == orientations.y[slot] && q.z == orientations.z[slot] && q.w == orientations.w[slot];
+		if (!same) {
+			t.set(translations[o], translations[o + 1], translations[o + 2]);
+			rotations.get(slot, r);
+			// bumps the view version (and invalidates the views of the children,
+			// which are pushed afterwards)
+			k.invalidateWorldCache();
+			p.set(positions[o], positions[o + 1], positions[o + 2]);
+			orientations.get(slot, q);
+			k.wValid = true;
+		}
+		viewVersions[slot] = k.wVersion;
+	}
+
+	protected void grow(int capacity) {
+		parent = PApplet.expand(parent, capacity);
+		translations = PApplet.expand(translations, 3 * capacity);
+		positions = PApplet.expand(positions, 3 * capacity);
+		Frame[] v = new Frame[capacity];
+		System.arraycopy(views, 0, v, 0, views.length);
+		views = v;
+		viewVersions = PApplet.expand(viewVersions, capacity);
+	}
+}
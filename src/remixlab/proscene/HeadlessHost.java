@@ -0,0 +1,142 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+package remixlab.proscene;
+
+/**
+ * A {@link remixlab.proscene.Host} which does not require any PApplet,
+ * renderer or display.
+ * <p>
+ * Its {@link #frameCount()} is advanced by {@link #nextFrame()}, which also
+ * ticks the {@link #animationScheduler()} (when it is frame synchronous), just
+ * as {@link remixlab.proscene.Scene#drawCommon()} does once per frame.
+ * <p>
+ * The host {@link #time()} is simulated: it starts at 0 and is only advanced
+ * by {@link #nextFrame(long)} (or by {@link #frameDuration()} milliseconds
+ * with {@link #nextFrame()}), so that headless animations are deterministic
+ * and do not depend on how fast the steps are performed.
+ * <p>
+ * The world coordinate system is right handed and the frustum equations
+ * update is enabled by default.
+ */
+public class HeadlessHost implements Host {
+	protected int frameCount;
+	protected long time;
+	protected long frameDuration;
+	protected AnimationScheduler animationScheduler;
+	protected boolean rightHanded;
+	protected boolean frustumEquationsUpdate;
+
+	/**
+	 * Creates a headless host at frame 0.
+	 */
+	public HeadlessHost() {
+		animationScheduler = new AnimationScheduler(this);
+		frameDuration = 16;
+		rightHanded = true;
+		frustumEquationsUpdate = true;
+	}
+
+	public int frameCount() {
+		return frameCount;
+	}
+
+	/**
+	 * Returns the simulated time, in milliseconds.
+	 */
+	public long time() {
+		return time;
+	}
+
+	/**
+	 * Returns the number of milliseconds {@link #nextFrame()} advances the
+	 * {@link #time()} by. Default is 16.
+	 */
+	public long frameDuration() {
+		return frameDuration;
+	}
+
+	/**
+	 * Sets the {@link #frameDuration()}. Negative values are ignored.
+	 */
+	public void setFrameDuration(long dtMillis) {
+		if (dtMillis >= 0)
+			frameDuration = dtMillis;
+	}
+
+	/**
+	 * Convenience function that simply calls
+	 * {@code nextFrame(frameDuration())}.
+	 */
+	public void nextFrame() {
+		nextFrame(frameDuration);
+	}
+
+	/**
+	 * Advances the {@link #frameCount()} by one and the {@link #time()} by
+	 * {@code dtMillis}, publishes the double buffered Frames (see
+	 * {@link remixlab.proscene.Frame#publishDoubleBufferedFrames()}) and ticks
+	 * the {@link #animationScheduler()} at the new {@link #time()}, unless it is
+	 * driven by an executor.
+	 */
+	public void nextFrame(long dtMillis) {
+		frameCount++;
+		time += Math.max(0, dtMillis);
+		Frame.publishDoubleBufferedFrames();
+		if (animationScheduler.isFrameSynchronous())
+			animationScheduler.tick(time);
+	}
+
+	public AnimationScheduler animationScheduler() {
+		return animationScheduler;
+	}
+
+	public boolean isRightHanded() {
+		return rightHanded;
+	}
+
+	/**
+	 * Sets the world coordinate system to be right handed or left handed,
+	 * according to {@code right}.
+	 * <p>
+	 * Camera objects only read this value when computing their matrices, so set
+	 * it before creating them.
+	 */
+	public void setRightHanded(boolean right) {
+		rightHanded = right;
+	}
+
+	public boolean frustumEquationsUpdateIsEnable() {
+		return frustumEquationsUpdate;
+	}
+
+	/**
+	 * Enables or disables the frustum equations update, according to
+	 * {@code flag}. When disabled, Camera visibility queries print a warning.
+	 */
+	public void enableFrustumEquationsUpdate(boolean flag) {
+		frustumEquationsUpdate = flag;
+	}
+}
@@ -0,0 +1,80 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+package remixlab.proscene;
+
+/**
+ * The (minimal) environment the renderer independent core objects, i.e.,
+ * {@link remixlab.proscene.Camera}, {@link remixlab.proscene.InteractiveFrame}
+ * and {@link remixlab.proscene.KeyFrameInterpolator}, need from their owner: a
+ * frame clock, an animation scheduler and a couple of global conventions.
+ * <p>
+ * {@link remixlab.proscene.Scene} implements this interface on top of its
+ * PApplet. Use a {@link remixlab.proscene.HeadlessHost} to run Camera,
+ * camera path and scene graph computations without any PApplet, renderer or
+ * display (e.g., in a simulation server or in unit benchmarks):
+ * <p>
+ * {@code HeadlessHost host = new HeadlessHost();}<br>
+ * {@code Camera camera = new Camera(host);}<br>
+ * {@code KeyFrameInterpolator kfi = new KeyFrameInterpolator(host);}<br>
+ * {@code // once per simulation step:}<br>
+ * {@code host.nextFrame(); // or host.nextFrame(dtMillis)}<br>
+ * <p>
+ * Objects that draw or interact with the mouse (such as
+ * {@link remixlab.proscene.KeyFrameInterpolator#drawPath()} or the
+ * {@link remixlab.proscene.Scene#mouseGrabberPool()}) still require a Scene.
+ */
+public interface Host {
+	/**
+	 * Returns the number of frames displayed (or simulation steps performed)
+	 * since the host started.
+	 */
+	public int frameCount();
+
+	/**
+	 * Returns the current time of the host clock, in milliseconds. The
+	 * {@link #animationScheduler()} tasks are scheduled and run according to
+	 * this clock.
+	 */
+	public long time();
+
+	/**
+	 * Returns the scheduler running the timed animations of the objects of the
+	 * host (KeyFrameInterpolators, spinning and tossing InteractiveFrames...).
+	 */
+	public AnimationScheduler animationScheduler();
+
+	/**
+	 * Returns {@code true} if the world coordinate system is right handed (the
+	 * default) and {@code false} if it is left handed (processing default).
+	 */
+	public boolean isRightHanded();
+
+	/**
+	 * Returns {@code true} if the Camera frustum plane equations are expected
+	 * to be automatically updated, so that visibility queries may use them.
+	 */
+	public boolean frustumEquationsUpdateIsEnable();
+}
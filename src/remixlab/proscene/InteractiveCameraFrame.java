@@ -25,8 +25,6 @@
 
 package remixlab.proscene;
 
-import java.util.Timer;
-import java.util.TimerTask;
 import processing.core.*;
 
 /**
@@ -61,7 +59,7 @@ public class InteractiveCameraFrame extends InteractiveDrivableFrame {
 	 * <b>Attention:</b> Created object is {@link #removeFromMouseGrabberPool()}.
 	 */
 	public InteractiveCameraFrame(Camera cam) {
-		super(cam.scene);
+		super(cam.host);
 		camera = cam;
 		removeFromMouseGrabberPool();
 		arcballRefPnt = new PVector(0.0f, 0.0f, 0.0f);
@@ -84,12 +82,13 @@ public class InteractiveCameraFrame extends InteractiveDrivableFrame {
 	}
 
 	/**
-	 * Updates the {@link remixlab.proscene.Camera#lastFrameUpdate} variable when
-	 * the frame changes and then calls {@code super.modified()}.
+	 * Updates the {@link remixlab.proscene.Camera#stateVersion()} (and the
+	 * {@link remixlab.proscene.Camera#lastFrameUpdate} variable) when the frame
+	 * changes and then calls {@code super.modified()}.
 	 */
 	@Override
 	protected void modified() {		
-		camera.lastFrameUpdate = scene.parent.frameCount;
+		camera.modified();
 		super.modified();
 	}
 
@@ -132,6 +131,7 @@ public class InteractiveCameraFrame extends InteractiveDrivableFrame {
 	 */
 	public void setArcballReferencePoint(PVector refP) {
 		arcballRefPnt = refP;
+		camera.modified();
 	}
 
 	/**
@@ -153,7 +153,7 @@ public class InteractiveCameraFrame extends InteractiveDrivableFrame {
 			super.mouseDragged(eventPoint, camera);
 		else {			
 			int deltaY;
-			if( scene.isRightHanded() )
+			if( host.isRightHanded() )
 				deltaY = (int) (prevPos.y - eventPoint.y);
 			else
 				deltaY = (int) (eventPoint.y - prevPos.y);
@@ -230,7 +230,7 @@ public class InteractiveCameraFrame extends InteractiveDrivableFrame {
 						                        		                                          (int) prevPos.x - trans.x);
 				
 			  // left-handed coordinate system correction
-				if( scene.isLeftHanded() )
+				if( !host.isRightHanded() )
 					angle = -angle;
 
 				Quaternion rot = new Quaternion(new PVector(0.0f, 0.0f, 1.0f), angle);
@@ -345,17 +345,7 @@ public class InteractiveCameraFrame extends InteractiveDrivableFrame {
 		int finalDrawAfterWheelEventDelay = 400;
 
 		// Starts (or prolungates) the timer.
-		if (flyTimer != null) {
-			flyTimer.cancel();
-			flyTimer.purge();
-		}
-		flyTimer = new Timer();
-		TimerTask timerTask = new TimerTask() {
-			public void run() {
-				flyUpdate();
-			}
-		};
-		flyTimer.schedule(timerTask, finalDrawAfterWheelEventDelay);
+		flyTimer().schedule(finalDrawAfterWheelEventDelay);
 
 		action = Scene.MouseAction.NO_MOUSE_ACTION;
 	}
@@ -371,16 +361,16 @@ public class InteractiveCameraFrame extends InteractiveDrivableFrame {
 	protected Quaternion computeCADQuaternion(int x, int y, float cx,	float cy, Camera camera) {
 		// Points on the deformed ball
 		float px = rotationSensitivity() * ((int) prevPos.x - cx)	/ camera.screenWidth();
-		float py = rotationSensitivity() * (scene.isLeftHanded() ? ((int) prevPos.y - cy) : ((cy - (int) prevPos.y))) / camera.screenHeight();
+		float py = rotationSensitivity() * (!host.isRightHanded() ? ((int) prevPos.y - cy) : ((cy - (int) prevPos.y))) / camera.screenHeight();
 		float dx = rotationSensitivity() * (x - cx) / camera.screenWidth();
-		float dy = rotationSensitivity() * (scene.isLeftHanded() ? (y - cy) : (cy - y)) / camera.screenHeight();
+		float dy = rotationSensitivity() * (!host.isRightHanded() ? (y - cy) : (cy - y)) / camera.screenHeight();
 		
 		//1,0,0 is given in the camera frame
 		PVector axisX = new PVector(1, 0, 0);
 		//0,0,1 is given in the world and then transform to the camera frame
 		PVector world2camAxis = camera.frame().transformOf(worldAxis);
 		
-		float angleWorldAxis = rotationSensitivity() * (scene.isLeftHanded() ? (dx - px) : (px - dx));
+		float angleWorldAxis = rotationSensitivity() * (!host.isRightHanded() ? (dx - px) : (px - dx));
 		float angleX = rotationSensitivity() * (dy - py);		
 
 		Quaternion quatWorld = new Quaternion(world2camAxis, angleWorldAxis);
@@ -27,8 +27,6 @@ package remixlab.proscene;
 
 import processing.core.*;
 
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * The InteractiveDrivableFrame represents an InteractiveFrame that can "fly" in
@@ -43,7 +41,7 @@ import java.util.TimerTask;
 public class InteractiveDrivableFrame extends InteractiveFrame {
 	protected float flySpd;
 	protected float drvSpd;
-	protected Timer flyTimer;
+	protected AnimationScheduler.Task flyTimer;
 	protected PVector flyUpVec;
 	protected PVector flyDisp;
 	protected static final long FLY_UPDATE_PERDIOD = 10;
@@ -54,7 +52,16 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 	 * {@link #flySpeed()} is set to 0.0 and {@link #flyUpVector()} is (0,1,0).
 	 */
 	public InteractiveDrivableFrame(Scene scn) {
-		super(scn);
+		this((Host) scn);
+	}
+
+	/**
+	 * Same as {@link #InteractiveDrivableFrame(Scene)}, but the frame is owned
+	 * by {@code h} (see
+	 * {@link remixlab.proscene.InteractiveFrame#InteractiveFrame(Host)}).
+	 */
+	public InteractiveDrivableFrame(Host h) {
+		super(h);
 		drvSpd = 0.0f;
 		flyUpVec = new PVector(0.0f, 1.0f, 0.0f);
 
@@ -75,6 +82,7 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 		InteractiveDrivableFrame clonedIAvtrFrame = (InteractiveDrivableFrame) super.clone();
 		clonedIAvtrFrame.flyUpVec = new PVector(flyUpVec.x, flyUpVec.y, flyUpVec.z);
 		clonedIAvtrFrame.flyDisp = new PVector(flyDisp.x, flyDisp.y, flyDisp.z);
+		clonedIAvtrFrame.flyTimer = null;
 		return clonedIAvtrFrame;
 	}
 
@@ -190,17 +198,7 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 		case DRIVE:
 			mouseSpeed = 0.0f;
 			stopTossing();
-			if(flyTimer != null) {
-				flyTimer.cancel();
-				flyTimer.purge();
-			}
-			flyTimer=new Timer();
-			TimerTask timerTask = new TimerTask() {
-				public void run() {
-					flyUpdate();
-				}
-			};
-			flyTimer.scheduleAtFixedRate(timerTask, 0, FLY_UPDATE_PERDIOD);
+			flyTimer().scheduleAtFixedRate(FLY_UPDATE_PERDIOD);
 			break;
 		default:
 			break;
@@ -227,7 +225,7 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 			if( prevPos == null ) prevPos = eventPoint;
 			
 			int deltaY;
-			if ( scene.isRightHanded() )
+			if ( host.isRightHanded() )
 				deltaY = (int) (prevPos.y - eventPoint.y);
 			else
 				deltaY = (int) (eventPoint.y - prevPos.y);			
@@ -272,7 +270,7 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 				float angle = Quaternion.PI * ((int)eventPoint.x - (int)prevPos.x) / camera.screenWidth();
 				
 			  //left-handed coordinate system correction
-				if ( scene.isLeftHanded() )
+				if ( !host.isRightHanded() )
 					angle = -angle;
 				
 				Quaternion rot = new Quaternion(new PVector(0.0f, 0.0f, 1.0f), angle);
@@ -301,10 +299,8 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 		if ((action == Scene.MouseAction.MOVE_FORWARD)
 				|| (action == Scene.MouseAction.MOVE_BACKWARD)
 				|| (action == Scene.MouseAction.DRIVE)) {
-			if(flyTimer != null) {
+			if(flyTimer != null)
 				flyTimer.cancel();
-				flyTimer.purge();
-			}
 		}
 				
 		if (((action == Scene.MouseAction.MOVE_FORWARD) || (action == Scene.MouseAction.MOVE_BACKWARD) || (action == Scene.MouseAction.DRIVE) ) && (mouseSpeed >= tossingSensitivity()) )
@@ -352,21 +348,26 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 		int finalDrawAfterWheelEventDelay = 400;
 		
 	  // Starts (or prolungates) the timer.
-		if(flyTimer != null) {
-			flyTimer.cancel();
-			flyTimer.purge();
-		}
-		flyTimer=new Timer();
-		TimerTask timerTask = new TimerTask() {
-			public void run() {
-				flyUpdate();
-			}
-		};
-		flyTimer.schedule(timerTask, finalDrawAfterWheelEventDelay);
+		flyTimer().schedule(finalDrawAfterWheelEventDelay);
 
 		action = Scene.MouseAction.NO_MOUSE_ACTION;
 	}
 
+	/**
+	 * Internal use. Returns the task (in the
+	 * {@link remixlab.proscene.Scene#animationScheduler()}) that calls
+	 * {@link #flyUpdate()}, creating it if needed.
+	 */
+	protected AnimationScheduler.Task flyTimer() {
+		if (flyTimer == null)
+			flyTimer = new AnimationScheduler.Task(host.animationScheduler()) {
+				protected void execute() {
+					flyUpdate();
+				}
+			};
+		return flyTimer;
+	}
+
 	/**
 	 * This method will be called by the Camera when its orientation is changed,
 	 * so that the {@link #flyUpVector()} (private) is changed accordingly. You
@@ -391,7 +392,7 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 	 */
 	protected final Quaternion pitchYawQuaternion(int x, int y, Camera camera) {
 		int deltaY;
-		if( scene.isRightHanded() )
+		if( host.isRightHanded() )
 			deltaY = (int) (prevPos.y - y);
 		else
 			deltaY = (int) (y - prevPos.y);
@@ -58,7 +58,7 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	// spinning stuff:
 	private float spngSensitivity;
 	private boolean isSpng;
-	private Timer spngTimer;	
+	private AnimationScheduler.Task spngTimer;	
 	private Quaternion spngQuat;
 	protected float spinningFriction;	
 	private float sFriction;
@@ -67,7 +67,7 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	protected static final float MIN_TOSSING_FRICTION = 0.01f;
 	private float tossingSensitivity;
 	private boolean isTossed;
-	private Timer tossingTimer;
+	private AnimationScheduler.Task tossingTimer;
 	private PVector tossingDirection;
 	protected float tossingFriction;
 	private float tFriction;
@@ -90,7 +90,8 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	protected boolean isInCamPath;
 
 	// P R O S C E N E A N D P R O C E S S I N G A P P L E T A N D O B J E C T S
-	public Scene scene;
+	public Host host;
+	public Scene scene; // null for headless frames
 
 	/**
 	 * Default constructor.
@@ -105,7 +106,18 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	 * the {@link remixlab.proscene.Scene#mouseGrabberPool()}.
 	 */
 	public InteractiveFrame(Scene scn) {
-		scene = scn;
+		this((Host) scn);
+	}
+
+	/**
+	 * Same as {@link #InteractiveFrame(Scene)}, but the frame is owned by
+	 * {@code h}. When {@code h} is not a Scene the frame is headless: it can be
+	 * spun, tossed and driven programmatically, but it does not belong to any
+	 * mouse grabber pool.
+	 */
+	public InteractiveFrame(Host h) {
+		host = h;
+		scene = host instanceof Scene ? (Scene) host : null;
 
 		action = Scene.MouseAction.NO_MOUSE_ACTION;
 		horiz = true;
@@ -150,8 +162,19 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	 * @see remixlab.proscene.Camera#addKeyFrameToPath(int)
 	 */
 	public InteractiveFrame(Scene scn, InteractiveCameraFrame iFrame) {
+		this((Host) scn, iFrame);
+	}
+
+	/**
+	 * Same as {@link #InteractiveFrame(Scene, InteractiveCameraFrame)}, but the
+	 * frame is owned by {@code h}.
+	 * <p>
+	 * <b>Attention:</b> Internal use.
+	 */
+	public InteractiveFrame(Host h, InteractiveCameraFrame iFrame) {
 		super(iFrame.translation(), iFrame.rotation());
-		scene = scn;
+		host = h;
+		scene = host instanceof Scene ? (Scene) host : null;
 		action = Scene.MouseAction.NO_MOUSE_ACTION;
 		horiz = true;
 
@@ -223,6 +246,8 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	 */
 	public InteractiveFrame clone() {
 		InteractiveFrame clonedIFrame = (InteractiveFrame) super.clone();
+		clonedIFrame.spngTimer = null;
+		clonedIFrame.tossingTimer = null;
 		return clonedIFrame;
 	}
 
@@ -289,7 +314,7 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	 * @see remixlab.proscene.Scene#isInMouseGrabberPool(MouseGrabbable)
 	 */
 	public boolean isInMouseGrabberPool() {
-		return scene.isInMouseGrabberPool(this);
+		return scene != null && scene.isInMouseGrabberPool(this);
 	}	
 
 	/**
@@ -298,7 +323,8 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	 * @see remixlab.proscene.Scene#addInMouseGrabberPool(MouseGrabbable)
 	 */
 	public void addInMouseGrabberPool() {
-		scene.addInMouseGrabberPool(this);
+		if (scene != null)
+			scene.addInMouseGrabberPool(this);
 	}
 
 	/**
@@ -307,7 +333,8 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	 * @see remixlab.proscene.Scene#removeFromMouseGrabberPool(MouseGrabbable)
 	 */
 	public void removeFromMouseGrabberPool() {
-		scene.removeFromMouseGrabberPool(this);
+		if (scene != null)
+			scene.removeFromMouseGrabberPool(this);
 	}
 
 	/**
@@ -569,18 +596,16 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	 * @see #toss()
 	 */
 	public final void stopSpinning() {
-		if(spngTimer!=null) {
+		if(spngTimer!=null)
 			spngTimer.cancel();
-			spngTimer.purge();
-		}
 		isSpng = false;
 	}
 
 	/**
 	 * Starts the spinning of the InteractiveFrame.
 	 * <p>
-	 * This method starts a timer that will call {@link #spin()} every {@code
-	 * updateInterval} milliseconds. The InteractiveFrame {@link #isSpinning()}
+	 * This method schedules a task in the {@link remixlab.proscene.Scene#animationScheduler()}
+	 * that will call {@link #spin()} every {@code updateInterval} milliseconds. The InteractiveFrame {@link #isSpinning()}
 	 * until you call {@link #stopSpinning()}.
 	 * <p>
 	 * <b>Attention: </b>Spinning may be decelerated according to {@link #spinningFriction()}
@@ -592,17 +617,13 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	public void startSpinning(long updateInterval) {
 		isSpng = true;		
 		if(updateInterval>0) {
-			if(spngTimer!=null) {
-				spngTimer.cancel();
-				spngTimer.purge();
-			}
-			spngTimer=new Timer();
-			TimerTask timerTask = new TimerTask() {
-				public void run() {
-					spin();
-				}
-			};
-			spngTimer.scheduleAtFixedRate(timerTask, 0, updateInterval);
+			if(spngTimer==null)
+				spngTimer=new AnimationScheduler.Task(host.animationScheduler()) {
+					protected void execute() {
+						spin();
+					}
+				};
+			spngTimer.scheduleAtFixedRate(updateInterval);
 		}
 	}
 	
@@ -701,18 +722,16 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	 * @see #spin()
 	 */
 	public final void stopTossing() {
-		if(tossingTimer!=null) {
+		if(tossingTimer!=null)
 			tossingTimer.cancel();
-			tossingTimer.purge();
-		}
 		isTossed = false;
 	}
 	
 	/**
 	 * Starts the tossing of the InteractiveFrame.
 	 * <p>
-	 * This method starts a timer that will call {@link #toss()} every {@code
-	 * updateInterval} milliseconds. The InteractiveFrame {@link #isTossing()}
+	 * This method schedules a task in the {@link remixlab.proscene.Scene#animationScheduler()}
+	 * that will call {@link #toss()} every {@code updateInterval} milliseconds. The InteractiveFrame {@link #isTossing()}
 	 * until you call {@link #stopTossing()}.
 	 * <p>
 	 * <b>Attention: </b>Tossing may be decelerated according to {@link #tossingFriction()}
@@ -724,17 +743,13 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	public void startTossing(long updateInterval) {
 		isTossed = true;		
 		if(updateInterval>0) {
-			if(tossingTimer!=null) {
-				tossingTimer.cancel();
-				tossingTimer.purge();
-			}
-			tossingTimer=new Timer();
-			TimerTask timerTask = new TimerTask() {
-				public void run() {
-					toss();
-				}
-			};
-			tossingTimer.scheduleAtFixedRate(timerTask, 0, updateInterval);
+			if(tossingTimer==null)
+				tossingTimer=new AnimationScheduler.Task(host.animationScheduler()) {
+					protected void execute() {
+						toss();
+					}
+				};
+			tossingTimer.scheduleAtFixedRate(updateInterval);
 		}
 	}
 	
@@ -876,7 +891,7 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	public void mouseDragged(Point eventPoint, Camera camera) {
 		int deltaY = 0;
 		if(action != Scene.MouseAction.NO_MOUSE_ACTION)
-			if( scene.isRightHanded() )
+			if( host.isRightHanded() )
 				deltaY = (int) (eventPoint.y - prevPos.y);
 			else
 				deltaY = (int) (prevPos.y - eventPoint.y);
@@ -939,7 +954,7 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 			PVector axis = transformOf(camera.frame().inverseTransformOf(new PVector(0.0f, 0.0f, -1.0f)));
 			 
 			Quaternion rot;
-			if( scene.isRightHanded() )
+			if( host.isRightHanded() )
 				rot = new Quaternion(axis, angle - prev_angle);
 			else
 				rot = new Quaternion(axis, prev_angle - angle);
@@ -1176,9 +1191,9 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	protected Quaternion deformedBallQuaternion(int x, int y, float cx, float cy,	Camera camera) {
 		// Points on the deformed ball
 		float px = rotationSensitivity() *                         ((int)prevPos.x - cx)                           / camera.screenWidth();
-		float py = rotationSensitivity() * (scene.isLeftHanded() ? ((int)prevPos.y - cy) : ( cy - (int)prevPos.y)) / camera.screenHeight();
+		float py = rotationSensitivity() * (!host.isRightHanded() ? ((int)prevPos.y - cy) : ( cy - (int)prevPos.y)) / camera.screenHeight();
 		float dx = rotationSensitivity() *                         (x - cx)             / camera.screenWidth();
-		float dy = rotationSensitivity() * (scene.isLeftHanded() ? (y - cy) : (cy - y)) / camera.screenHeight();
+		float dy = rotationSensitivity() * (!host.isRightHanded() ? (y - cy) : (cy - y)) / camera.screenHeight();
 		
 		PVector p1 = new PVector(px, py, projectOnBall(px, py));
 		PVector p2 = new PVector(dx, dy, projectOnBall(dx, dy));
@@ -0,0 +1,284 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import processing.core.*;
+
+/**
+ * Runs expensive computations (path sampling, spatial index rebuilds, bounding
+ * box fitting over large models...) in the background and hands their results
+ * to the drawing thread at a frame boundary.
+ * <p>
+ * A {@link Job} is split in two: {@link Job#compute()}, which runs on a worker
+ * thread and should only read data it owns (e.g., a copy of the inputs taken
+ * when the job is created), and {@link Job#publish(Object)}, which receives the
+ * result and runs on the drawing thread when {@link #publish()} is called, i.e.,
+ * at the beginning of the next frame (see {@link remixlab.proscene.Scene#pre()}).
+ * Results are hence swapped in atomically with respect to drawing.
+ * <p>
+ * A job whose inputs change before it completes should be {@link Job#cancel()}ed:
+ * it is then never published. Submitting a job with a key (see
+ * {@link #submit(Object, Job)}) cancels the previous job submitted with the same
+ * key, which is handy to keep only the last rebuild of a given object.
+ * <p>
+ * By default the jobs run on a pool of {@code availableProcessors() - 1} (at
+ * least one) daemon threads, which is created the first time a job is submitted.
+ */
+public class JobExecutor {
+	/**
+	 * A background computation producing a result of type {@code T}. Implement
+	 * {@link #compute()} and {@link #publish(Object)}.
+	 * <p>
+	 * A job should be submitted only once.
+	 */
+	public static abstract class Job<T> {
+		private volatile boolean cancelled;
+		private volatile boolean published;
+		private Object key;
+		private T result;
+		private Throwable error;
+
+		/**
+		 * Computes the job result. Called from a worker thread. Long computations
+		 * may poll {@link #isCancelled()} and return early.
+		 */
+		protected abstract T compute();
+
+		/**
+		 * Makes use of the {@link #compute()} result. Called from the drawing thread
+		 * by {@link JobExecutor#publish()}, unless the job was cancelled.
+		 */
+		protected abstract void publish(T result);
+
+		/**
+		 * Called instead of {@link #publish(Object)}, from the drawing thread, when
+		 * {@link #compute()} threw {@code error}. The default implementation simply
+		 * prints a warning and the stack trace of {@code error}, so that a failed
+		 * job does not stop the drawing loop. Override it to handle the failure.
+		 */
+		protected void failed(Throwable error) {
+			PApplet.println("Warning: a background job failed: " + error);
+			error.printStackTrace();
+		}
+
+		/**
+		 * Cancels the job, which will not be published. Has no effect if the job
+		 * has already been published.
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		/**
+		 * Returns {@code true} if the job was cancelled.
+		 */
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		/**
+		 * Returns {@code true} if the job result has been published.
+		 */
+		public boolean isPublished() {
+			return published;
+		}
+
+		private void run() {
+			try {
+				result = compute();
+			} catch (Throwable e) {
+				error = e;
+			}
+		}
+	}
+
+	private ExecutorService executor;
+	private boolean ownsExecutor;
+	private final ConcurrentLinkedQueue<Job<?>> completed = new ConcurrentLinkedQueue<Job<?>>();
+	private final ConcurrentHashMap<Object, Job<?>> keyedJobs = new ConcurrentHashMap<Object, Job<?>>();
+	private final AtomicInteger pending = new AtomicInteger();
+
+	/**
+	 * Creates a job executor running its jobs on its own (lazily created) thread
+	 * pool.
+	 */
+	public JobExecutor() {
+		this(null);
+	}
+
+	/**
+	 * Creates a job executor running its jobs on {@code exec}, which is not shut
+	 * down by {@link #shutdown()}. Pass {@code null} to use a pool of daemon
+	 * threads.
+	 */
+	public JobExecutor(ExecutorService exec) {
+		executor = exec;
+	}
+
+	/**
+	 * Returns the {@code ExecutorService} running the jobs, creating the default
+	 * thread pool if needed.
+	 */
+	public synchronized ExecutorService executor() {
+		if (executor == null) {
+			final AtomicInteger threads = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "proscene-job-" + threads.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			ownsExecutor = true;
+		}
+		return executor;
+	}
+
+	/**
+	 * Runs {@code job} in the background and returns it. May be called from any
+	 * thread.
+	 */
+	public <T> Job<T> submit(final Job<T> job) {
+		pending.incrementAndGet();
+		executor().execute(new Runnable() {
+			public void run() {
+				if (job.isCancelled()) {
+					discard(job);
+					return;
+				}
+				job.run();
+				completed.offer(job);
+			}
+		});
+		return job;
+	}
+
+	/**
+	 * Same as {@link #submit(Job)}, but first cancels the job previously submitted
+	 * with the same {@code key} (compared with {@code equals()}), if it has not
+	 * been published yet.
+	 * 
+	 * @see #cancel(Object)
+	 */
+	public <T> Job<T> submit(Object key, Job<T> job) {
+		job.key = key;
+		Job<?> previous = keyedJobs.put(key, job);
+		if (previous != null)
+			previous.cancel();
+		return submit(job);
+	}
+
+	/**
+	 * Cancels the job submitted with {@code key}, if any, and returns {@code true}
+	 * if there was one.
+	 */
+	public boolean cancel(Object key) {
+		Job<?> job = keyedJobs.remove(key);
+		if (job == null)
+			return false;
+		job.cancel();
+		return true;
+	}
+
+	/**
+	 * Returns the number of submitted jobs that were neither published nor
+	 * discarded yet.
+	 */
+	public int pendingJobs() {
+		return pending.get();
+	}
+
+	/**
+	 * Publishes the results of the jobs completed so far, in completion order, and
+	 * returns the number of published jobs. Cancelled jobs are discarded. Should
+	 * only be called from the drawing thread (see
+	 * {@link remixlab.proscene.Scene#pre()}).
+	 * <p>
+	 * If a job {@link Job#compute()} threw an exception, the job
+	 * {@link Job#failed(Throwable)} method is called instead of
+	 * {@link Job#publish(Object)}. If one of those methods throws, the remaining
+	 * jobs are published anyway and the first exception is then rethrown,
+	 * wrapped in a {@code RuntimeException}.
+	 */
+	public int publish() {
+		int count = 0;
+		RuntimeException failure = null;
+		Job<?> job;
+		while ((job = completed.poll()) != null) {
+			discard(job);
+			if (job.isCancelled())
+				continue;
+			try {
+				if (job.error != null)
+					job.failed(job.error);
+				else {
+					publish(job);
+					count++;
+				}
+			} catch (RuntimeException e) {
+				if (failure == null)
+					failure = new RuntimeException("Something went wrong when publishing a background job", e);
+			}
+		}
+		if (failure != null)
+			throw failure;
+		return count;
+	}
+
+	/**
+	 * Shuts down the default thread pool, if it was created (it is created again
+	 * if another job is submitted). Jobs running on a user provided executor are
+	 * left untouched. Pending jobs are not published.
+	 */
+	public synchronized void shutdown() {
+		if (ownsExecutor) {
+			executor.shutdownNow();
+			executor = null;
+			ownsExecutor = false;
+		}
+	}
+
+	private <T> void publish(Job<T> job) {
+		T result = job.result;
+		job.result = null;
+		job.publish(result);
+		job.published = true;
+	}
+
+	private void discard(Job<?> job) {
+		pending.decrementAndGet();
+		if (job.key != null)
+			keyedJobs.remove(job.key, job);
+	}
+}
@@ -26,6 +26,9 @@
 package remixlab.proscene;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import processing.core.*;
 
@@ -104,21 +107,63 @@ import processing.core.*;
  */
 public class KeyFrameInterpolator implements Cloneable {
 
+	/**
+	 * Minimum number of samples evaluated by each task of
+	 * {@link #interpolateAtTimes(float[], int, float[], float[], ExecutorService)}.
+	 */
+	public static final int PARALLEL_BATCH_SIZE = 2048;
+
+	/**
+	 * Number of Frames sampled per segment by {@link #drawPath(int, int, float)}.
+	 */
+	protected static final int PATH_STEPS = 30;
+
+	/**
+	 * Enumerates the methods used to interpolate the orientations between two
+	 * key frames (see {@link #setOrientationInterpolation(OrientationInterpolation)}).
+	 * Positions are always interpolated with the same cubic spline.
+	 * <p>
+	 * {@code SQUAD} (default) is the exact squad interpolation of
+	 * {@link remixlab.proscene.Quaternion#squad(Quaternion, Quaternion, Quaternion, Quaternion, float)},
+	 * which evaluates three slerps (an {@code acos} and three {@code sin} each).
+	 * <p>
+	 * {@code CORRECTED_NLERP} evaluates the same squad construction, replacing each
+	 * slerp by a normalized linear interpolation with a polynomially corrected
+	 * parameter. It is trigonometry free (about five times faster) and the
+	 * orientation remains smooth at the key frames. Each approximated slerp
+	 * deviates from the exact one by less than 0.005 degrees for rotations up to
+	 * 108 degrees apart (0.05 degrees in the worst, 180 degrees case). The
+	 * interpolated orientations stay within 0.1 degrees of {@code SQUAD} for key
+	 * frames up to 90 degrees apart and 0.5 degrees up to 108 degrees, but the
+	 * error grows quickly beyond (2 degrees at 120, 9 degrees at 150), where key
+	 * frames should be added or {@code SQUAD} used.
+	 * <p>
+	 * {@code NLERP} is the normalized linear interpolation of the two key frame
+	 * orientations, ignoring the squad tangents: the fastest method (more than
+	 * twenty times faster than {@code SQUAD}), but the
+	 * angular velocity is not constant within a segment and is discontinuous at
+	 * the key frames. It deviates from the slerp between the two key frames by
+	 * less than 0.5 degrees for key frames up to 72 degrees apart, 1.7 degrees
+	 * up to 108 degrees and 8.2 degrees in the worst, 180 degrees case.
+	 */
+	public enum OrientationInterpolation {
+		SQUAD, CORRECTED_NLERP, NLERP
+	};
+
 	private class KeyFrame implements Cloneable {
-		private PVector p, tgPVec;
-		private Quaternion q, tgQuat;
+		private PVector p;
+		private Quaternion q;
 		private float tm;
 		private Frame frm;
 
 		KeyFrame(Frame fr, float t, boolean setRef) {
 			tm = t;
-			if (setRef) {
+			if (setRef)
 				frm = fr;
-				updateValues();
-			} else {
+			else {
 				frm = null;
-				p = new PVector(fr.position().x, fr.position().y, fr.position().z);
-				q = new Quaternion(fr.orientation());
+				p = fr.position();
+				q = fr.orientation();
 			}
 		}
 
@@ -127,25 +172,17 @@ public class KeyFrameInterpolator implements Cloneable {
 				KeyFrame clonedKeyFrame = (KeyFrame) super.clone();
 				if (frm != null)
 					clonedKeyFrame.frm = frm.clone();
-				else
+				else {
 					clonedKeyFrame.frm = null;
-				clonedKeyFrame.p = new PVector(position().x, position().y, position().z);
-				clonedKeyFrame.tgPVec = new PVector(tgP().x, tgP().y, tgP().z);
-				clonedKeyFrame.q = new Quaternion(orientation());
-				clonedKeyFrame.tgQuat = new Quaternion(tgQ());
+					clonedKeyFrame.p = new PVector(p.x, p.y, p.z);
+					clonedKeyFrame.q = new Quaternion(q);
+				}
 				return clonedKeyFrame;
 			} catch (CloneNotSupportedException e) {
 				throw new Error("Something went wrong when cloning the KeyFrame");
 			}
 		}
 
-		void updateValues() {
-			if (frame() != null) {
-				p = frame().position();
-				q = frame().orientation();
-			}
-		}
-
 		PVector position() {
 			return p;
 		}
@@ -154,14 +191,6 @@ public class KeyFrameInterpolator implements Cloneable {
 			return q;
 		}
 
-		PVector tgP() {
-			return tgPVec;
-		}
-
-		Quaternion tgQ() {
-			return tgQuat;
-		}
-
 		float time() {
 			return tm;
 		}
@@ -169,31 +198,16 @@ public class KeyFrameInterpolator implements Cloneable {
 		Frame frame() {
 			return frm;
 		}
-
-		void flipOrientationIfNeeded(Quaternion prev) {
-			if (Quaternion.dotProduct(prev, q) < 0.0f)
-				q.negate();
-		}
-
-		void computeTangent(KeyFrame prev, KeyFrame next) {
-			tgPVec = PVector.mult(PVector.sub(next.position(), prev.position()), 0.5f);
-			tgQuat = Quaternion.squadTangent(prev.orientation(), q, next.orientation());
-		}
 	}
 
 	private List<KeyFrame> keyFr;
-	private ListIterator<KeyFrame> currentFrame0;
-	private ListIterator<KeyFrame> currentFrame1;
-	private ListIterator<KeyFrame> currentFrame2;
-	private ListIterator<KeyFrame> currentFrame3;
+	private KeyFramePath kfPath;
 	private List<Frame> path;
 	// A s s o c i a t e d f r a m e
 	private Frame fr;
-	private Frame myFrame;// needed for drawPath
 
 	// R h y t h m
-	private Timer timer;
-  //private TimerTask timerTask;
+	private AnimationScheduler.Task timer;
 	private int period;
 	private float interpolationTm;
 	private float interpolationSpd;
@@ -204,13 +218,16 @@ public class KeyFrameInterpolator implements Cloneable {
 
 	// C a c h e d v a l u e s a n d f l a g s
 	private boolean pathIsValid;
+	private boolean asyncPath;
+	private JobExecutor.Job<float[]> pathJob;
 	private boolean valuesAreValid;
-	private boolean currentFrmValid;
-	private boolean splineCacheIsValid;
-	private PVector v1, v2;
+	private boolean pathIsCompiled;
+	private PVector interpolatedPos;
+	private Quaternion interpolatedQuat;
 
   //S C E N E
-  public Scene scene;
+  public Host host;
+  public Scene scene; // null for headless interpolators
   
   /**
    * Convenience constructor that simply calls {@code this(scn, new Frame())}.
@@ -224,6 +241,18 @@ public class KeyFrameInterpolator implements Cloneable {
   	this(scn, new Frame());
   }
 
+  /**
+   * Same as {@link #KeyFrameInterpolator(Scene)}, but the interpolator is owned
+   * by {@code h}, whose {@link remixlab.proscene.Host#animationScheduler()}
+   * runs the interpolation. When {@code h} is not a Scene the interpolator is
+   * headless and {@link #drawPath(int, int, float)} does nothing.
+   * 
+   * @see remixlab.proscene.HeadlessHost
+   */
+  public KeyFrameInterpolator(Host h) {
+  	this(h, new Frame());
+  }
+
 	/**
 	 * Creates a KeyFrameInterpolator, with {@code frame} as associated
 	 * {@link #frame()}. The {@code p3d} object will be used if
@@ -235,9 +264,20 @@ public class KeyFrameInterpolator implements Cloneable {
 	 * {@link #interpolationPeriod()} are set to their default values.
 	 */
 	public KeyFrameInterpolator(Scene scn, Frame frame) {
-		scene = scn;
-		myFrame = new Frame();
+		this((Host) scn, frame);
+	}
+
+	/**
+	 * Same as {@link #KeyFrameInterpolator(Scene, Frame)}, but the interpolator
+	 * is owned by {@code h}. See {@link #KeyFrameInterpolator(Host)}.
+	 */
+	public KeyFrameInterpolator(Host h, Frame frame) {
+		host = h;
+		scene = host instanceof Scene ? (Scene) host : null;
 		keyFr = new ArrayList<KeyFrame>();
+		kfPath = new KeyFramePath();
+		interpolatedPos = new PVector();
+		interpolatedQuat = new Quaternion();
 		path = new ArrayList<Frame>();
 		fr = null;
 		period = 40;
@@ -247,13 +287,8 @@ public class KeyFrameInterpolator implements Cloneable {
 		lpInterpolation = false;
 		pathIsValid = false;
 		valuesAreValid = true;
-		currentFrmValid = false;
+		pathIsCompiled = false;
 		setFrame(frame);
-
-		currentFrame0 = keyFr.listIterator();
-		currentFrame1 = keyFr.listIterator();
-		currentFrame2 = keyFr.listIterator();
-		currentFrame3 = keyFr.listIterator();
 	}
 
 	/**
@@ -266,14 +301,20 @@ public class KeyFrameInterpolator implements Cloneable {
 		try {
 			KeyFrameInterpolator clonedKfi = (KeyFrameInterpolator) super.clone();
 			clonedKfi.keyFr = new ArrayList<KeyFrame>();
+			clonedKfi.timer = null;
 			ListIterator<KeyFrame> it = keyFr.listIterator();
 			while (it.hasNext()) {
 				clonedKfi.keyFr.add(it.next().clone());
 			}
-			clonedKfi.currentFrame0 = keyFr.listIterator(currentFrame0.nextIndex());
-			clonedKfi.currentFrame1 = keyFr.listIterator(currentFrame1.nextIndex());
-			clonedKfi.currentFrame2 = keyFr.listIterator(currentFrame2.nextIndex());
-			clonedKfi.currentFrame3 = keyFr.listIterator(currentFrame3.nextIndex());			
+			clonedKfi.path = new ArrayList<Frame>();
+			clonedKfi.kfPath = new KeyFramePath();
+			clonedKfi.kfPath.setOrientationInterpolation(kfPath.orientationInterpolation());
+			clonedKfi.interpolatedPos = new PVector();
+			clonedKfi.interpolatedQuat = new Quaternion();
+			clonedKfi.pathIsValid = false;
+			clonedKfi.pathJob = null;
+			clonedKfi.valuesAreValid = false;
+			clonedKfi.pathIsCompiled = false;
 			return clonedKfi;
 		} catch (CloneNotSupportedException e) {
 			throw new Error(
@@ -397,6 +438,27 @@ public class KeyFrameInterpolator implements Cloneable {
 			period = myPeriod;
 	}
 
+	/**
+	 * Returns the method used to interpolate the orientations of the
+	 * {@link #frame()} between two key frames. Default is
+	 * {@link OrientationInterpolation#SQUAD}.
+	 * 
+	 * @see #setOrientationInterpolation(OrientationInterpolation)
+	 */
+	public OrientationInterpolation orientationInterpolation() {
+		return kfPath.orientationInterpolation();
+	}
+
+	/**
+	 * Sets the {@link #orientationInterpolation()}. The faster approximations are
+	 * meant for large numbers of interpolators whose accuracy is not critical
+	 * (see {@link OrientationInterpolation} for their maximum error).
+	 */
+	public void setOrientationInterpolation(OrientationInterpolation interpolation) {
+		kfPath.setOrientationInterpolation(interpolation);
+		invalidatePath();
+	}
+
 	/**
 	 * Convenience function that simply calls  {@code setLoopInterpolation(true)}. 
 	 */
@@ -472,8 +534,7 @@ public class KeyFrameInterpolator implements Cloneable {
 
 	protected void invalidateValues() {
 		valuesAreValid = false;
-		pathIsValid = false;
-		splineCacheIsValid = false;
+		invalidatePath();
 	}
 
 	/**
@@ -488,8 +549,9 @@ public class KeyFrameInterpolator implements Cloneable {
 	/**
 	 * Starts the interpolation process.
 	 * <p>
-	 * A timer is started with an {@link #interpolationPeriod()} period that
-	 * updates the {@link #frame()}'s position and orientation.
+	 * A task is scheduled with an {@link #interpolationPeriod()} period in the
+	 * {@link remixlab.proscene.Scene#animationScheduler()}, that updates the
+	 * {@link #frame()}'s position and orientation.
 	 * {@link #interpolationIsStarted()} will return {@code true} until
 	 * {@link #stopInterpolation()} or {@link #toggleInterpolation()} is called.
 	 * <p>
@@ -520,17 +582,13 @@ public class KeyFrameInterpolator implements Cloneable {
 			if ((interpolationSpeed() < 0.0)
 					&& (interpolationTime() <= keyFr.get(0).time()))
 				setInterpolationTime(keyFr.get(keyFr.size() - 1).time());
-			if(timer != null) {
-				timer.cancel();
-				timer.purge();
-			}
-			timer=new Timer();
-			TimerTask timerTask = new TimerTask() {
-				public void run() {
-					update();
-				}
-			};
-			timer.scheduleAtFixedRate(timerTask, 0, interpolationPeriod());
+			if(timer == null)
+				timer = new AnimationScheduler.Task(host.animationScheduler()) {
+					protected void execute() {
+						update();
+					}
+				};
+			timer.scheduleAtFixedRate(interpolationPeriod());
 
 			interpolationStrt = true;
 			update();
@@ -542,10 +600,8 @@ public class KeyFrameInterpolator implements Cloneable {
 	 * {@link #interpolationIsStarted()} and {@link #toggleInterpolation()}.
 	 */
 	public void stopInterpolation() {
-		if(timer != null) {
+		if(timer != null)
 			timer.cancel();
-			timer.purge();
-		}
 		interpolationStrt = false;
 	}
 
@@ -631,8 +687,8 @@ public class KeyFrameInterpolator implements Cloneable {
 			frame.addListener(this);
 
 		valuesAreValid = false;
-		pathIsValid = false;
-		currentFrmValid = false;
+		invalidatePath();
+		pathIsCompiled = false;
 		resetInterpolation();
 	}
 	
@@ -645,8 +701,8 @@ public class KeyFrameInterpolator implements Cloneable {
 		if (index < 0 || index >= keyFr.size())
 			return;
 		valuesAreValid = false;
-		pathIsValid = false;
-		currentFrmValid = false;
+		invalidatePath();
+		pathIsCompiled = false;
 		if( interpolationIsStarted() )
 			stopInterpolation();
 		KeyFrame kf = keyFr.remove(index);
@@ -667,9 +723,9 @@ public class KeyFrameInterpolator implements Cloneable {
 		stopInterpolation();
 		removeFramesFromMouseGrabberPool();
 		keyFr.clear();
-		pathIsValid = false;
+		invalidatePath();
 		valuesAreValid = false;
-		currentFrmValid = false;
+		pathIsCompiled = false;
 	}
 
 	/**
@@ -700,34 +756,36 @@ public class KeyFrameInterpolator implements Cloneable {
 		}
 	}
 
+	/**
+	 * Internal method. Brings the {@link #compiledPath()} up to date: the path is
+	 * compiled from scratch when key frames were added or removed, otherwise only
+	 * the segments adjacent to the (reference) key frames that were modified are
+	 * recomputed.
+	 */
 	protected void updateModifiedFrameValues() {
-		Quaternion prevQ = keyFr.get(0).orientation();
-
-		KeyFrame kf;
-		for (int i = 0; i < keyFr.size(); ++i) {
-			kf = keyFr.get(i);
-			kf.updateValues();
-			kf.flipOrientationIfNeeded(prevQ);
-			prevQ = kf.orientation();
-		}
-
-		KeyFrame prev = keyFr.get(0);
-		kf = keyFr.get(0);
-
-		int index = 1;
-		while (kf != null) {
-			KeyFrame next = (index < keyFr.size()) ? keyFr.get(index) : null;
-			index++;
-			if (next != null)
-				kf.computeTangent(prev, next);
-			else
-				kf.computeTangent(prev, kf);
-			prev = kf;
-			kf = next;
-		}
+		if (!pathIsCompiled) {
+			kfPath.setKeyFrameCount(keyFr.size());
+			for (int i = 0; i < keyFr.size(); ++i) {
+				KeyFrame kf = keyFr.get(i);
+				kfPath.setKeyFrame(i, kf.time(), kf.frame(), kf.position(), kf.orientation());
+			}
+			kfPath.compile();
+			pathIsCompiled = true;
+		} else
+			kfPath.update();
 		valuesAreValid = true;
 	}
 
+	/**
+	 * Returns the compiled representation of the path, updated to the current
+	 * key frame values.
+	 */
+	public KeyFramePath compiledPath() {
+		if (!valuesAreValid)
+			updateModifiedFrameValues();
+		return kfPath;
+	}
+
 	/**
 	 * Convenience function that simply calls {@code drawPath(1, 6, 100)}
 	 */
@@ -773,61 +831,165 @@ public class KeyFrameInterpolator implements Cloneable {
 	 * of {@link remixlab.proscene.Scene#radius()} should give good results.
 	 */
 	public void drawPath(int mask, int nbFrames, float scale) {
-		int nbSteps = 30;
+		if (scene == null)
+			return;
 		if (!pathIsValid) {
-			path.clear();
+			if (asyncPath && !keyFr.isEmpty()) {
+				// the previous path is drawn until the new one is published
+				if (pathJob == null)
+					submitPathJob();
+				if (path.isEmpty())
+					return;
+			}
+			else {
+				updatePath();
+				if (!pathIsValid)
+					return;
+			}
+		}
+		scene.drawPath(path, mask, nbFrames, PATH_STEPS, scale);
+	}
+
+	/**
+	 * Returns {@code true} if the path drawn by {@link #drawPath(int, int, float)}
+	 * is sampled in the background (see {@link #setAsynchronousPathUpdate(boolean)}).
+	 * Default is {@code false}.
+	 */
+	public boolean asynchronousPathUpdate() {
+		return asyncPath;
+	}
 
-			if (keyFr.isEmpty())
-				return;
+	/**
+	 * When {@code async} is {@code true}, the path drawn by
+	 * {@link #drawPath(int, int, float)} is sampled by a job of the
+	 * {@link remixlab.proscene.Scene#jobExecutor()} instead of within the drawing
+	 * method. The previous path is drawn until the new one is published at the
+	 * next {@link remixlab.proscene.Scene#pre()}, and the job is cancelled if the
+	 * key frames are modified meanwhile. Has no effect on headless interpolators.
+	 */
+	public void setAsynchronousPathUpdate(boolean async) {
+		asyncPath = async;
+		if (!async)
+			cancelPathJob();
+	}
 
-			if (!valuesAreValid)
-				updateModifiedFrameValues();
+	/**
+	 * Internal use. Marks the drawn path as stale, cancelling its pending
+	 * background update, if any.
+	 */
+	protected void invalidatePath() {
+		pathIsValid = false;
+		cancelPathJob();
+	}
 
-			if (keyFr.get(0) == keyFr.get(keyFr.size() - 1))
-				path.add(new Frame(keyFr.get(0).position(), keyFr.get(0).orientation()));
-			else {
-				KeyFrame[] kf = new KeyFrame[4];
-				kf[0] = keyFr.get(0);
-				kf[1] = kf[0];
-
-				int index = 1;
-				kf[2] = (index < keyFr.size()) ? keyFr.get(index) : null;
-				index++;
-				kf[3] = (index < keyFr.size()) ? keyFr.get(index) : null;
-
-				while (kf[2] != null) {
-					PVector diff = PVector.sub(kf[2].position(), kf[1].position());
-					PVector vec1 = PVector.add(PVector.mult(diff, 3.0f), PVector.mult(
-							kf[1].tgP(), (-2.0f)));
-					vec1 = PVector.sub(vec1, kf[2].tgP());
-					PVector vec2 = PVector.add(PVector.mult(diff, (-2.0f)), kf[1].tgP());
-					vec2 = PVector.add(vec2, kf[2].tgP());
-
-					for (int step = 0; step < nbSteps; ++step) {
-						float alpha = step / (float) nbSteps;
-						myFrame.setPosition(PVector.add(kf[1].position(), PVector.mult(
-								PVector.add(kf[1].tgP(), PVector.mult(PVector.add(vec1, PVector
-										.mult(vec2, alpha)), alpha)), alpha)));
-						myFrame.setOrientation(Quaternion.squad(kf[1].orientation(), kf[1]
-								.tgQ(), kf[2].tgQ(), kf[2].orientation(), alpha));
-						path.add(new Frame(myFrame));
-					}
+	private void cancelPathJob() {
+		if (pathJob != null) {
+			pathJob.cancel();
+			pathJob = null;
+		}
+	}
 
-					// Shift
-					kf[0] = kf[1];
-					kf[1] = kf[2];
-					kf[2] = kf[3];
+	/**
+	 * Samples a copy of the path in the background. The result is published by
+	 * the Scene from the drawing thread.
+	 */
+	private void submitPathJob() {
+		if (!valuesAreValid)
+			updateModifiedFrameValues();
+		final KeyFramePath p = kfPath.clone();
+		pathJob = scene.jobExecutor().submit(new JobExecutor.Job<float[]>() {
+			protected float[] compute() {
+				return samplePath(p);
+			}
 
-					index++;
-					kf[3] = (index < keyFr.size()) ? keyFr.get(index) : null;
+			protected void publish(float[] samples) {
+				pathJob = null;
+				setPath(samples);
+				pathIsValid = true;
+			}
+		});
+	}
+
+	/**
+	 * Internal use. Samples the interpolated path ({@link #PATH_STEPS} Frames per
+	 * segment) that is drawn by {@link #drawPath(int, int, float)}.
+	 */
+	protected void updatePath() {
+		if (keyFr.isEmpty()) {
+			path.clear();
+			return;
+		}
+
+		if (!valuesAreValid)
+			updateModifiedFrameValues();
+
+		setPath(samplePath(kfPath));
+		pathIsValid = true;
+	}
+
+	/**
+	 * Returns the path samples, packed as {@code x, y, z, qx, qy, qz, qw} float
+	 * sequences. Only reads {@code p}, so that it may run on any thread.
+	 */
+	private static float[] samplePath(KeyFramePath p) {
+		int keys = p.keyFrameCount();
+		if (keys == 0)
+			return new float[0];
+		int count = keys == 1 ? 1 : p.segmentCount() * PATH_STEPS + 1;
+		float[] samples = new float[7 * count];
+		PVector pos = new PVector();
+		Quaternion q = new Quaternion();
+		int i = 0;
+		if (keys > 1)
+			for (int segment = 0; segment < p.segmentCount(); ++segment)
+				for (int step = 0; step < PATH_STEPS; ++step) {
+					float alpha = step / (float) PATH_STEPS;
+					p.evaluate(segment, alpha, pos, q);
+					i = putSample(samples, i, pos, q);
 				}
-				// Add last KeyFrame
-				path.add(new Frame(kf[1].position(), kf[1].orientation()));
+		// Add last KeyFrame
+		int last = keys - 1;
+		putSample(samples, i, p.position(last, pos), p.orientation(last, q));
+		return samples;
+	}
+
+	private static int putSample(float[] samples, int i, PVector pos, Quaternion q) {
+		samples[i++] = pos.x;
+		samples[i++] = pos.y;
+		samples[i++] = pos.z;
+		samples[i++] = q.x;
+		samples[i++] = q.y;
+		samples[i++] = q.z;
+		samples[i++] = q.w;
+		return i;
+	}
+
+	/**
+	 * Sets the drawn path from the {@link #samplePath(KeyFramePath)} result,
+	 * reusing its Frames: their translation and rotation are written in place,
+	 * and new Frames are only created when the path grows.
+	 */
+	private void setPath(float[] samples) {
+		int count = samples.length / 7;
+		while (path.size() > count)
+			path.remove(path.size() - 1);
+		for (int i = 0, j = 0; i < count; i++, j += 7) {
+			if (i < path.size()) {
+				Frame f = path.get(i);
+				PVector t = f.translation();
+				t.set(samples[j], samples[j + 1], samples[j + 2]);
+				f.setTranslation(t);
+				Quaternion q = f.rotation();
+				q.x = samples[j + 3];
+				q.y = samples[j + 4];
+				q.z = samples[j + 5];
+				q.w = samples[j + 6];
+				f.setRotation(q);
 			}
-			pathIsValid = true;
+			else
+				path.add(new Frame(new PVector(samples[j], samples[j + 1], samples[j + 2]),
+						new Quaternion(samples[j + 3], samples[j + 4], samples[j + 5], samples[j + 6], false)));
 		}
-		
-		scene.drawPath(path, mask, nbFrames, nbSteps, scale);
 	}
 
 	/**
@@ -841,8 +1003,9 @@ public class KeyFrameInterpolator implements Cloneable {
 	 * state is returned.
 	 */
 	public Frame keyFrame(int index) {
-		KeyFrame kf = keyFr.get(index);
-		return new Frame(kf.position(), kf.orientation());
+		if (!valuesAreValid)
+			updateModifiedFrameValues();
+		return new Frame(kfPath.position(index, null), kfPath.orientation(index, null));
 	}
 
 	/**
@@ -899,70 +1062,100 @@ public class KeyFrameInterpolator implements Cloneable {
 			return keyFr.get(keyFr.size() - 1).time();
 	}
 
-	protected void updateCurrentKeyFrameForTime(float time) {
-		// Assertion: times are sorted in monotone order.
-		// Assertion: keyFrame_ is not empty
-
-		// TODO: Special case for loops when closed path is implemented !!
-		if (!currentFrmValid)
-			// Recompute everything from scratch
-			currentFrame1 = keyFr.listIterator();
-
-		// currentFrame_[1]->peekNext() <---> keyFr.get(currentFrame1.nextIndex());
-		while (keyFr.get(currentFrame1.nextIndex()).time() > time) {
-			currentFrmValid = false;
-			if (!currentFrame1.hasPrevious())
-				break;
-			currentFrame1.previous();
-		}
-
-		if (!currentFrmValid)
-			// *currentFrame_[2] = *currentFrame_[1]; <---> currentFrame2 =
-			// keyFr.listIterator( currentFrame1.nextIndex() );
-			currentFrame2 = keyFr.listIterator(currentFrame1.nextIndex());
+	/**
+	 * Convenience function that simply calls
+	 * {@code interpolateAtTimes(times, count, positions, orientations, null)}.
+	 * 
+	 * @see #interpolateAtTimes(float[], int, float[], float[], ExecutorService)
+	 */
+	public void interpolateAtTimes(float[] times, int count, float[] positions, float[] orientations) {
+		interpolateAtTimes(times, count, positions, orientations, null);
+	}
 
-		while (keyFr.get(currentFrame2.nextIndex()).time() < time) {
-			currentFrmValid = false;
+	/**
+	 * Evaluates the path at the {@code count} first {@code times} (expressed in
+	 * seconds) and stores the positions (x,y,z) and orientations (x,y,z,w) of sample
+	 * {@code i} at {@code 3*i} in {@code positions} and at {@code 4*i} in
+	 * {@code orientations}. Either array may be {@code null}. Neither the
+	 * {@link #frame()} nor the {@link #interpolationTime()} are modified.
+	 * <p>
+	 * This is meant to drive many objects along the same path (e.g., at different
+	 * time offsets) without a KeyFrameInterpolator nor a Frame per object. When
+	 * {@link #loopInterpolation()} is {@code true} times are wrapped into the
+	 * [{@link #firstTime()}..{@link #lastTime()}] range, otherwise they are clamped.
+	 * <p>
+	 * When {@code executor} is not {@code null} and there are more than
+	 * {@link #PARALLEL_BATCH_SIZE} samples, the samples are split in batches which
+	 * are evaluated concurrently on the {@code executor} (and on the calling
+	 * thread). The method returns when all of them are done. Key frames should not
+	 * be modified meanwhile.
+	 */
+	public void interpolateAtTimes(float[] times, int count, float[] positions, float[] orientations, ExecutorService executor) {
+		if (keyFr.isEmpty() || count <= 0)
+			return;
 
-			if (!currentFrame2.hasNext())
-				break;
+		if (!valuesAreValid)
+			updateModifiedFrameValues();
 
-			currentFrame2.next();
+		final KeyFramePath compiled = kfPath;
+		final boolean loop = loopInterpolation();
+		if (executor == null || count <= PARALLEL_BATCH_SIZE) {
+			compiled.evaluate(times, 0, count, loop, positions, orientations);
+			return;
 		}
 
-		if (!currentFrmValid) {
-			currentFrame1 = keyFr.listIterator(currentFrame2.nextIndex());
-
-			if ((currentFrame1.hasPrevious())
-					&& (time < keyFr.get(currentFrame2.nextIndex()).time()))
-				currentFrame1.previous();
-
-			currentFrame0 = keyFr.listIterator(currentFrame1.nextIndex());
-
-			if (currentFrame0.hasPrevious())
-				currentFrame0.previous();
-
-			currentFrame3 = keyFr.listIterator(currentFrame2.nextIndex());
+		int batches = Math.min((count + PARALLEL_BATCH_SIZE - 1) / PARALLEL_BATCH_SIZE, 4 * Runtime.getRuntime().availableProcessors());
+		int batchSize = (count + batches - 1) / batches;
+		List<Future<?>> futures = new ArrayList<Future<?>>(batches);
+		final float[] t = times, p = positions, o = orientations;
+		for (int from = batchSize; from < count; from += batchSize) {
+			final int start = from, end = Math.min(count, from + batchSize);
+			futures.add(executor.submit(new Runnable() {
+				public void run() {
+					compiled.evaluate(t, start, end, loop, p, o);
+				}
+			}));
+		}
+		compiled.evaluate(times, 0, Math.min(count, batchSize), loop, positions, orientations);
+		try {
+			for (Future<?> future : futures)
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while evaluating the KeyFrameInterpolator path", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Something went wrong when evaluating the KeyFrameInterpolator path", e.getCause());
+		}
+	}
 
-			if (currentFrame3.hasNext())
-				currentFrame3.next();
+	/**
+	 * Internal use. Updates the current key frames, i.e., the path segment
+	 * containing {@code time}, which {@link #interpolateAtTime(float)} then
+	 * evaluates. Called by {@link #interpolateAtTime(float)}.
+	 */
+	protected void updateCurrentKeyFrameForTime(float time) {
+		segmentForTime(time);
+	}
 
-			currentFrmValid = true;
-			splineCacheIsValid = false;
-		}
+	/**
+	 * Returns the index of the key frame that starts the path segment containing
+	 * {@code time} (see {@link remixlab.proscene.KeyFramePath#segment(float)}),
+	 * which becomes the current one.
+	 */
+	private int segmentForTime(float time) {
+		if (!valuesAreValid)
+			updateModifiedFrameValues();
+		return kfPath.segment(time);
 	}
 
+	/**
+	 * Segment coefficients are now precomputed by the {@link #compiledPath()}. This
+	 * method simply makes sure it is up to date.
+	 */
+	@Deprecated
 	public void updateSplineCache() {
-		PVector delta = PVector.sub(
-				keyFr.get(currentFrame2.nextIndex()).position(), keyFr.get(
-						currentFrame1.nextIndex()).position());
-		v1 = PVector.add(PVector.mult(delta, 3.0f), PVector.mult(keyFr.get(
-				currentFrame1.nextIndex()).tgP(), (-2.0f)));
-		v1 = PVector.sub(v1, keyFr.get(currentFrame2.nextIndex()).tgP());
-		v2 = PVector.add(PVector.mult(delta, (-2.0f)), keyFr.get(
-				currentFrame1.nextIndex()).tgP());
-		v2 = PVector.add(v2, keyFr.get(currentFrame2.nextIndex()).tgP());
-		splineCacheIsValid = true;
+		if (!valuesAreValid)
+			updateModifiedFrameValues();
 	}
 
 	/**
@@ -983,33 +1176,12 @@ public class KeyFrameInterpolator implements Cloneable {
 			updateModifiedFrameValues();
 
 		updateCurrentKeyFrameForTime(time);
+		kfPath.evaluate(time, interpolatedPos, interpolatedQuat);
 
-		if (!splineCacheIsValid)
-			updateSplineCache();
-
-		float alpha;
-		float dt = keyFr.get(currentFrame2.nextIndex()).time()
-				- keyFr.get(currentFrame1.nextIndex()).time();
-		if (dt == 0.0f)
-			alpha = 0.0f;
-		else
-			alpha = (time - keyFr.get(currentFrame1.nextIndex()).time()) / dt;
-
-		// Linear interpolation - debug
-		// Vec pos = alpha*(currentFrame2->peekNext()->position()) +
-		// (1.0-alpha)*(currentFrame1->peekNext()->position());
-		// Vec pos = currentFrame_[1]->peekNext()->position() + alpha *
-		// (currentFrame_[1]->peekNext()->tgP() + alpha * (v1+alpha*v2));
-		PVector pos = PVector.add(keyFr.get(currentFrame1.nextIndex()).position(),
-				PVector.mult(PVector.add(keyFr.get(currentFrame1.nextIndex()).tgP(),
-						PVector.mult(PVector.add(v1, PVector.mult(v2, alpha)), alpha)),
-						alpha));
-		Quaternion q = Quaternion.squad(keyFr.get(currentFrame1.nextIndex())
-				.orientation(), keyFr.get(currentFrame1.nextIndex()).tgQ(), keyFr.get(
-				currentFrame2.nextIndex()).tgQ(), keyFr.get(currentFrame2.nextIndex())
-				.orientation(), alpha);
-
-		frame().setPositionWithConstraint(pos);
-		frame().setRotationWithConstraint(q);
+		// published as a whole when the frame is double buffered
+		frame().beginUpdate();
+		frame().setPositionWithConstraint(interpolatedPos);
+		frame().setRotationWithConstraint(interpolatedQuat);
+		frame().endUpdate();
 	}
 }
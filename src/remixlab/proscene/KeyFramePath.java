@@ -0,0 +1,669 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import processing.core.*;
+
+/**
+ * Compiled representation of a KeyFrameInterpolator path.
+ * <p>
+ * Key frame times, positions and (sign corrected) orientations are packed in float
+ * arrays, together with the position and orientation tangents of each key frame
+ * and, for each segment between two consecutive key frames, the cubic position
+ * coefficients and the four squad control quaternions (see
+ * {@link remixlab.proscene.Quaternion#squad(Quaternion, Quaternion, Quaternion, Quaternion, float)}).
+ * The segment at a given time is found by binary search (see {@link #segment(float)})
+ * and evaluated without allocations (see {@link #evaluate(float, PVector, Quaternion)}).
+ * <p>
+ * Key frames may be defined by value or by reference to a Frame. In the latter case
+ * {@link #update()} polls the Frame {@link remixlab.proscene.Frame#worldTransformVersion()}
+ * and only recomputes the tangents and segments that depend on the Frames that
+ * actually moved.
+ * <p>
+ * The results are the same as those of the original KeyFrameInterpolator
+ * computations: positions follow a Catmull-Rom like cubic Hermite spline and
+ * orientations are squad interpolated, unless a faster approximation is selected with
+ * {@link #setOrientationInterpolation(KeyFrameInterpolator.OrientationInterpolation)}.
+ */
+public class KeyFramePath implements Cloneable {
+	/**
+	 * Number of floats per key frame in the key and tangent arrays: position (3)
+	 * followed by orientation (4).
+	 */
+	public static final int KEY_SIZE = 7;
+
+	/**
+	 * Number of floats per segment: position {@code p0} (3), tangent {@code t0} (3),
+	 * {@code v1} (3) and {@code v2} (3), so that the position at {@code alpha} in
+	 * [0..1] is {@code p0 + alpha * (t0 + alpha * (v1 + alpha * v2))}, followed by
+	 * the squad control quaternions {@code a}, {@code tgA}, {@code tgB} and {@code b}
+	 * (4 each).
+	 */
+	public static final int SEGMENT_SIZE = 28;
+
+	protected int count;
+	protected float[] times;
+	protected Frame[] frames;
+	protected long[] versions;
+	// raw key frame values, as given or read from the frames
+	protected float[] raw;
+	// position and sign corrected orientation
+	protected float[] keys;
+	protected float[] tangents;
+	protected float[] segments;
+
+	private boolean[] dirty;
+	private boolean[] affected;
+	private int lastSegment;
+	private KeyFrameInterpolator.OrientationInterpolation orientationInterpolation;
+
+	/**
+	 * Creates an empty path.
+	 */
+	public KeyFramePath() {
+		orientationInterpolation = KeyFrameInterpolator.OrientationInterpolation.SQUAD;
+		setKeyFrameCount(0);
+	}
+
+	/**
+	 * Deep copy of the path. Referenced Frames are shared.
+	 */
+	public KeyFramePath clone() {
+		try {
+			KeyFramePath clonedPath = (KeyFramePath) super.clone();
+			clonedPath.times = times.clone();
+			clonedPath.frames = frames.clone();
+			clonedPath.versions = versions.clone();
+			clonedPath.raw = raw.clone();
+			clonedPath.keys = keys.clone();
+			clonedPath.tangents = tangents.clone();
+			clonedPath.segments = segments.clone();
+			clonedPath.dirty = dirty.clone();
+			clonedPath.affected = affected.clone();
+			return clonedPath;
+		} catch (CloneNotSupportedException e) {
+			throw new Error("Something went wrong when cloning the KeyFramePath");
+		}
+	}
+
+	/**
+	 * Returns the method used to interpolate the orientations between two key
+	 * frames. Default is {@link KeyFrameInterpolator.OrientationInterpolation#SQUAD}.
+	 * 
+	 * @see #setOrientationInterpolation(KeyFrameInterpolator.OrientationInterpolation)
+	 */
+	public KeyFrameInterpolator.OrientationInterpolation orientationInterpolation() {
+		return orientationInterpolation;
+	}
+
+	/**
+	 * Sets the {@link #orientationInterpolation()}. Since all the methods share the
+	 * same segment data, the path does not need to be recompiled.
+	 */
+	public void setOrientationInterpolation(KeyFrameInterpolator.OrientationInterpolation interpolation) {
+		orientationInterpolation = interpolation;
+	}
+
+	/**
+	 * Returns the number of key frames of the path.
+	 */
+	public int keyFrameCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of segments of the path, i.e., {@link #keyFrameCount()} - 1
+	 * (or 0 if the path is empty).
+	 */
+	public int segmentCount() {
+		return count > 1 ? count - 1 : 0;
+	}
+
+	/**
+	 * Sets the number of key frames of the path. Key frame values are then defined
+	 * with {@link #setKeyFrame(int, float, Frame, PVector, Quaternion)} and the path
+	 * has to be {@link #compile()}d.
+	 */
+	public void setKeyFrameCount(int n) {
+		count = n;
+		times = new float[n];
+		frames = new Frame[n];
+		versions = new long[n];
+		raw = new float[KEY_SIZE * n];
+		keys = new float[KEY_SIZE * n];
+		tangents = new float[KEY_SIZE * n];
+		segments = new float[SEGMENT_SIZE * Math.max(0, n - 1)];
+		dirty = new boolean[n];
+		affected = new boolean[n];
+		lastSegment = 0;
+	}
+
+	/**
+	 * Defines the {@code index} key frame. When {@code frame} is not {@code null} the
+	 * key frame position and orientation are read from it (and {@code position} and
+	 * {@code orientation} are ignored), otherwise {@code position} and
+	 * {@code orientation} are copied. Key frame times should be monotonously increasing.
+	 */
+	public void setKeyFrame(int index, float time, Frame frame, PVector position, Quaternion orientation) {
+		times[index] = time;
+		frames[index] = frame;
+		if (frame != null)
+			readFrame(index);
+		else {
+			int o = KEY_SIZE * index;
+			raw[o] = position.x;
+			raw[o + 1] = position.y;
+			raw[o + 2] = position.z;
+			raw[o + 3] = orientation.x;
+			raw[o + 4] = orientation.y;
+			raw[o + 5] = orientation.z;
+			raw[o + 6] = orientation.w;
+		}
+		dirty[index] = true;
+	}
+
+	private void readFrame(int index) {
+		Frame frame = frames[index];
+		versions[index] = frame.worldTransformVersion();
+		PVector p = frame.position();
+		Quaternion q = frame.orientation();
+		int o = KEY_SIZE * index;
+		raw[o] = p.x;
+		raw[o + 1] = p.y;
+		raw[o + 2] = p.z;
+		raw[o + 3] = q.x;
+		raw[o + 4] = q.y;
+		raw[o + 5] = q.z;
+		raw[o + 6] = q.w;
+	}
+
+	/**
+	 * Recomputes the whole path.
+	 */
+	public void compile() {
+		for (int i = 0; i < count; i++)
+			dirty[i] = true;
+		recompute();
+	}
+
+	/**
+	 * Reads back the key frames defined by reference to a Frame whose
+	 * {@link remixlab.proscene.Frame#worldTransformVersion()} changed, together with
+	 * the key frames that were (re)defined with
+	 * {@link #setKeyFrame(int, float, Frame, PVector, Quaternion)}, and recomputes
+	 * the tangents and segments adjacent to them. Returns {@code true} if the path
+	 * changed.
+	 */
+	public boolean update() {
+		for (int i = 0; i < count; i++)
+			if (frames[i] != null && frames[i].worldTransformVersion() != versions[i]) {
+				readFrame(i);
+				dirty[i] = true;
+			}
+		return recompute();
+	}
+
+	private boolean recompute() {
+		int first = -1, last = -1;
+		for (int i = 0; i < count; i++)
+			if (dirty[i]) {
+				if (first < 0)
+					first = i;
+				last = i;
+			}
+		if (first < 0)
+			return false;
+
+		for (int i = 0; i < count; i++)
+			affected[i] = false;
+
+		// 1. Key values. An orientation is flipped so that it lies in the hemisphere of
+		// the previous one, hence a sign change propagates to the following key frames.
+		boolean prevChanged = false;
+		for (int k = first; k < count; k++) {
+			if (!dirty[k] && !prevChanged)
+				if (k > last)
+					break;
+				else
+					continue;
+			int o = KEY_SIZE * k;
+			float sign = 1;
+			if (k > 0) {
+				int p = o - KEY_SIZE;
+				if (keys[p + 3] * raw[o + 3] + keys[p + 4] * raw[o + 4] + keys[p + 5] * raw[o + 5] + keys[p + 6] * raw[o + 6] < 0.0f)
+					sign = -1;
+			}
+			boolean changed = dirty[k];
+			for (int c = 0; c < KEY_SIZE; c++) {
+				float v = c < 3 ? raw[o + c] : sign * raw[o + c];
+				if (keys[o + c] != v) {
+					keys[o + c] = v;
+					changed = true;
+				}
+			}
+			dirty[k] = false;
+			prevChanged = changed;
+			if (changed)
+				affected[k] = true;
+		}
+
+		// 2. Tangents depend on the previous and next key frames
+		for (int k = 0; k < count; k++)
+			if ((affected[k]) || (k > 0 && affected[k - 1]) || (k < count - 1 && affected[k + 1]))
+				computeTangent(k);
+
+		// 3. Segments depend on their two key frames values and tangents
+		for (int s = 0; s < count - 1; s++) {
+			boolean recompute = false;
+			for (int k = Math.max(0, s - 1); k <= Math.min(count - 1, s + 2) && !recompute; k++)
+				recompute = affected[k];
+			if (recompute)
+				computeSegment(s);
+		}
+		return true;
+	}
+
+	private void computeTangent(int k) {
+		int prev = Math.max(0, k - 1);
+		int next = Math.min(count - 1, k + 1);
+		int o = KEY_SIZE * k, op = KEY_SIZE * prev, on = KEY_SIZE * next;
+		for (int c = 0; c < 3; c++)
+			tangents[o + c] = (keys[on + c] - keys[op + c]) * 0.5f;
+		Quaternion tg = Quaternion.squadTangent(quaternion(keys, op), quaternion(keys, o), quaternion(keys, on));
+		tangents[o + 3] = tg.x;
+		tangents[o + 4] = tg.y;
+		tangents[o + 5] = tg.z;
+		tangents[o + 6] = tg.w;
+	}
+
+	private static Quaternion quaternion(float[] a, int o) {
+		return new Quaternion(a[o + 3], a[o + 4], a[o + 5], a[o + 6], false);
+	}
+
+	private void computeSegment(int s) {
+		int k1 = KEY_SIZE * s, k2 = k1 + KEY_SIZE;
+		int o = SEGMENT_SIZE * s;
+		for (int c = 0; c < 3; c++) {
+			float delta = keys[k2 + c] - keys[k1 + c];
+			float tg1 = tangents[k1 + c];
+			float tg2 = tangents[k2 + c];
+			segments[o + c] = keys[k1 + c];
+			segments[o + 3 + c] = tg1;
+			segments[o + 6 + c] = delta * 3.0f + tg1 * (-2.0f) - tg2;
+			segments[o + 9 + c] = delta * (-2.0f) + tg1 + tg2;
+		}
+		for (int c = 0; c < 4; c++) {
+			segments[o + 12 + c] = keys[k1 + 3 + c];
+			segments[o + 16 + c] = tangents[k1 + 3 + c];
+			segments[o + 20 + c] = tangents[k2 + 3 + c];
+			segments[o + 24 + c] = keys[k2 + 3 + c];
+		}
+	}
+
+	/**
+	 * Returns the time of the {@code index} key frame.
+	 */
+	public float time(int index) {
+		return times[index];
+	}
+
+	/**
+	 * Returns the time of the first key frame, or 0 if the path is empty.
+	 */
+	public float firstTime() {
+		return count == 0 ? 0.0f : times[0];
+	}
+
+	/**
+	 * Returns the time of the last key frame, or 0 if the path is empty.
+	 */
+	public float lastTime() {
+		return count == 0 ? 0.0f : times[count - 1];
+	}
+
+	/**
+	 * Copies the position of the {@code index} key frame into {@code dest}
+	 * (which is allocated if {@code null}) and returns it.
+	 */
+	public PVector position(int index, PVector dest) {
+		if (dest == null)
+			dest = new PVector();
+		int o = KEY_SIZE * index;
+		dest.x = keys[o];
+		dest.y = keys[o + 1];
+		dest.z = keys[o + 2];
+		return dest;
+	}
+
+	/**
+	 * Copies the (sign corrected) orientation of the {@code index} key frame into
+	 * {@code dest} (which is allocated if {@code null}) and returns it.
+	 */
+	public Quaternion orientation(int index, Quaternion dest) {
+		if (dest == null)
+			dest = new Quaternion();
+		int o = KEY_SIZE * index;
+		dest.x = keys[o + 3];
+		dest.y = keys[o + 4];
+		dest.z = keys[o + 5];
+		dest.w = keys[o + 6];
+		return dest;
+	}
+
+	/**
+	 * Returns the index of the key frame that starts the segment containing
+	 * {@code time}, i.e., the largest index {@code i} such that
+	 * {@code time(i) <= time}, or -1 if {@code time} is smaller than the
+	 * {@link #firstTime()}. Uses a binary search, unless {@code time} falls in the
+	 * segment that was found by the previous call.
+	 */
+	public int segment(float time) {
+		int s = lastSegment;
+		if (s < count - 1 && times[s] <= time && time < times[s + 1])
+			return s;
+		int result = search(time);
+		if (result >= 0 && result < count - 1)
+			lastSegment = result;
+		return result;
+	}
+
+	private int search(float time) {
+		int lo = 0, hi = count - 1, result = -1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (times[mid] <= time) {
+				result = mid;
+				lo = mid + 1;
+			} else
+				hi = mid - 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluates the path at {@code time} and stores the result in {@code pos} and
+	 * {@code q}. Times before the {@link #firstTime()} (resp. after the
+	 * {@link #lastTime()}) give the first (resp. last) key frame. Nothing is done if
+	 * the path is empty.
+	 */
+	public void evaluate(float time, PVector pos, Quaternion q) {
+		if (count == 0)
+			return;
+		int s = segment(time);
+		if (s < 0)
+			key(0, pos, q);
+		else if (s == count - 1 || times[s] == time)
+			key(s, pos, q);
+		else
+			evaluate(s, (time - times[s]) / (times[s + 1] - times[s]), pos, q);
+	}
+
+	/**
+	 * Evaluates the path at {@code sampleTimes[from..to-1]}, as
+	 * {@link #evaluate(float, PVector, Quaternion)} does, and writes the positions
+	 * (x,y,z) and orientations (x,y,z,w) of sample {@code i} at {@code 3*i} in
+	 * {@code positions} and {@code 4*i} in {@code orientations}, respectively.
+	 * Either array may be {@code null}. When {@code loop} is {@code true}, times
+	 * are first wrapped into the [{@link #firstTime()}..{@link #lastTime()}] range.
+	 * <p>
+	 * Unlike {@link #evaluate(float, PVector, Quaternion)} this method does not
+	 * modify the path state, hence disjoint ranges may be evaluated concurrently
+	 * (provided the path itself is not modified meanwhile).
+	 */
+	public void evaluate(float[] sampleTimes, int from, int to, boolean loop, float[] positions, float[] orientations) {
+		if (count == 0)
+			return;
+		float first = firstTime();
+		float duration = lastTime() - first;
+		loop = loop && duration > 0;
+		KeyFrameInterpolator.OrientationInterpolation interpolation = orientationInterpolation;
+		PVector pos = new PVector();
+		Quaternion q = new Quaternion();
+		int s = 0;
+		for (int i = from; i < to; i++) {
+			float time = sampleTimes[i];
+			if (loop && (time < first || time > first + duration)) {
+				time = (time - first) % duration;
+				time = first + (time < 0 ? time + duration : time);
+			}
+			// samples are usually sorted or clustered: try the previous segment first
+			if (!(s >= 0 && s < count - 1 && times[s] <= time && time < times[s + 1]))
+				s = search(time);
+			if (s < 0)
+				key(0, pos, q);
+			else if (s == count - 1 || times[s] == time)
+				key(s, pos, q);
+			else
+				evaluate(segments, SEGMENT_SIZE * s, (time - times[s]) / (times[s + 1] - times[s]), interpolation, pos, q);
+			if (positions != null) {
+				positions[3 * i] = pos.x;
+				positions[3 * i + 1] = pos.y;
+				positions[3 * i + 2] = pos.z;
+			}
+			if (orientations != null) {
+				orientations[4 * i] = q.x;
+				orientations[4 * i + 1] = q.y;
+				orientations[4 * i + 2] = q.z;
+				orientations[4 * i + 3] = q.w;
+			}
+		}
+	}
+
+	private void key(int index, PVector pos, Quaternion q) {
+		position(index, pos);
+		orientation(index, q);
+	}
+
+	/**
+	 * Evaluates segment {@code s} at {@code alpha} (in [0..1]) and stores the result
+	 * in {@code pos} and {@code q}.
+	 */
+	public void evaluate(int s, float alpha, PVector pos, Quaternion q) {
+		evaluate(segments, SEGMENT_SIZE * s, alpha, orientationInterpolation, pos, q);
+	}
+
+	/**
+	 * Evaluates the segment stored at {@code o} in {@code seg} (see {@link #SEGMENT_SIZE})
+	 * at {@code alpha}, using squad orientation interpolation. Thread safe.
+	 */
+	protected static void evaluate(float[] seg, int o, float alpha, PVector pos, Quaternion q) {
+		evaluate(seg, o, alpha, KeyFrameInterpolator.OrientationInterpolation.SQUAD, pos, q);
+	}
+
+	/**
+	 * Evaluates the segment stored at {@code o} in {@code seg} (see {@link #SEGMENT_SIZE})
+	 * at {@code alpha}, using the given orientation {@code interpolation}. Thread safe.
+	 */
+	protected static void evaluate(float[] seg, int o, float alpha,
+			KeyFrameInterpolator.OrientationInterpolation interpolation, PVector pos, Quaternion q) {
+		pos.x = seg[o] + (seg[o + 3] + (seg[o + 6] + seg[o + 9] * alpha) * alpha) * alpha;
+		pos.y = seg[o + 1] + (seg[o + 4] + (seg[o + 7] + seg[o + 10] * alpha) * alpha) * alpha;
+		pos.z = seg[o + 2] + (seg[o + 5] + (seg[o + 8] + seg[o + 11] * alpha) * alpha) * alpha;
+		switch (interpolation) {
+		case CORRECTED_NLERP:
+			correctedSquad(seg, o + 12, alpha, q);
+			break;
+		case NLERP:
+			nlerp(seg, o + 12, alpha, q);
+			break;
+		default:
+			squad(seg, o + 12, alpha, q);
+			break;
+		}
+	}
+
+	/**
+	 * Same as {@link remixlab.proscene.Quaternion#squad(Quaternion, Quaternion, Quaternion, Quaternion, float)}
+	 * for the four quaternions packed at {@code o} in {@code a}, but without
+	 * allocations.
+	 */
+	protected static void squad(float[] a, int o, float t, Quaternion q) {
+		float c1, c2, cosAngle, angle, sinAngle;
+
+		// ab = slerp(a, b, t, true)
+		cosAngle = a[o] * a[o + 12] + a[o + 1] * a[o + 13] + a[o + 2] * a[o + 14] + a[o + 3] * a[o + 15];
+		if ((1.0 - PApplet.abs(cosAngle)) < 0.01) {
+			c1 = 1.0f - t;
+			c2 = t;
+		} else {
+			angle = PApplet.acos(PApplet.abs(cosAngle));
+			sinAngle = PApplet.sin(angle);
+			c1 = PApplet.sin(angle * (1.0f - t)) / sinAngle;
+			c2 = PApplet.sin(angle * t) / sinAngle;
+		}
+		if (cosAngle < 0.0)
+			c1 = -c1;
+		float abx = c1 * a[o] + c2 * a[o + 12];
+		float aby = c1 * a[o + 1] + c2 * a[o + 13];
+		float abz = c1 * a[o + 2] + c2 * a[o + 14];
+		float abw = c1 * a[o + 3] + c2 * a[o + 15];
+
+		// tg = slerp(tgA, tgB, t, false)
+		cosAngle = a[o + 4] * a[o + 8] + a[o + 5] * a[o + 9] + a[o + 6] * a[o + 10] + a[o + 7] * a[o + 11];
+		if ((1.0 - PApplet.abs(cosAngle)) < 0.01) {
+			c1 = 1.0f - t;
+			c2 = t;
+		} else {
+			angle = PApplet.acos(PApplet.abs(cosAngle));
+			sinAngle = PApplet.sin(angle);
+			c1 = PApplet.sin(angle * (1.0f - t)) / sinAngle;
+			c2 = PApplet.sin(angle * t) / sinAngle;
+		}
+		float tgx = c1 * a[o + 4] + c2 * a[o + 8];
+		float tgy = c1 * a[o + 5] + c2 * a[o + 9];
+		float tgz = c1 * a[o + 6] + c2 * a[o + 10];
+		float tgw = c1 * a[o + 7] + c2 * a[o + 11];
+
+		// slerp(ab, tg, 2t(1-t), false)
+		float u = 2.0f * t * (1.0f - t);
+		cosAngle = abx * tgx + aby * tgy + abz * tgz + abw * tgw;
+		if ((1.0 - PApplet.abs(cosAngle)) < 0.01) {
+			c1 = 1.0f - u;
+			c2 = u;
+		} else {
+			angle = PApplet.acos(PApplet.abs(cosAngle));
+			sinAngle = PApplet.sin(angle);
+			c1 = PApplet.sin(angle * (1.0f - u)) / sinAngle;
+			c2 = PApplet.sin(angle * u) / sinAngle;
+		}
+		q.x = c1 * abx + c2 * tgx;
+		q.y = c1 * aby + c2 * tgy;
+		q.z = c1 * abz + c2 * tgz;
+		q.w = c1 * abw + c2 * tgw;
+	}
+
+	/**
+	 * Approximation of {@link #squad(float[], int, float, Quaternion)} where each of
+	 * the three slerps is replaced by a normalized linear interpolation whose
+	 * parameter is corrected with a polynomial fit of the slerp angle, so that no
+	 * trigonometric function is evaluated.
+	 * 
+	 * @see KeyFrameInterpolator.OrientationInterpolation#CORRECTED_NLERP
+	 */
+	protected static void correctedSquad(float[] a, int o, float t, Quaternion q) {
+		float c1, c2, cosAngle, n;
+
+		// ab ~ slerp(a, b, t, true)
+		cosAngle = a[o] * a[o + 12] + a[o + 1] * a[o + 13] + a[o + 2] * a[o + 14] + a[o + 3] * a[o + 15];
+		c2 = correctedTime(cosAngle, t);
+		c1 = cosAngle < 0.0 ? c2 - 1.0f : 1.0f - c2;
+		float abx = c1 * a[o] + c2 * a[o + 12];
+		float aby = c1 * a[o + 1] + c2 * a[o + 13];
+		float abz = c1 * a[o + 2] + c2 * a[o + 14];
+		float abw = c1 * a[o + 3] + c2 * a[o + 15];
+		n = 1.0f / (float) Math.sqrt(Math.max(abx * abx + aby * aby + abz * abz + abw * abw, 1E-12f));
+		abx *= n;
+		aby *= n;
+		abz *= n;
+		abw *= n;
+
+		// tg ~ slerp(tgA, tgB, t, false)
+		cosAngle = a[o + 4] * a[o + 8] + a[o + 5] * a[o + 9] + a[o + 6] * a[o + 10] + a[o + 7] * a[o + 11];
+		c2 = correctedTime(cosAngle, t);
+		c1 = 1.0f - c2;
+		float tgx = c1 * a[o + 4] + c2 * a[o + 8];
+		float tgy = c1 * a[o + 5] + c2 * a[o + 9];
+		float tgz = c1 * a[o + 6] + c2 * a[o + 10];
+		float tgw = c1 * a[o + 7] + c2 * a[o + 11];
+		n = 1.0f / (float) Math.sqrt(Math.max(tgx * tgx + tgy * tgy + tgz * tgz + tgw * tgw, 1E-12f));
+		tgx *= n;
+		tgy *= n;
+		tgz *= n;
+		tgw *= n;
+
+		// ~ slerp(ab, tg, 2t(1-t), false)
+		float u = 2.0f * t * (1.0f - t);
+		cosAngle = abx * tgx + aby * tgy + abz * tgz + abw * tgw;
+		c2 = correctedTime(cosAngle, u);
+		c1 = 1.0f - c2;
+		setNormalized(q, c1 * abx + c2 * tgx, c1 * aby + c2 * tgy, c1 * abz + c2 * tgz, c1 * abw + c2 * tgw);
+	}
+
+	/**
+	 * Normalized linear interpolation of the {@code a} and {@code b} quaternions of
+	 * the squad control quaternions packed at {@code o} in {@code a} (the tangents
+	 * are ignored).
+	 * 
+	 * @see KeyFrameInterpolator.OrientationInterpolation#NLERP
+	 */
+	protected static void nlerp(float[] a, int o, float t, Quaternion q) {
+		float cosAngle = a[o] * a[o + 12] + a[o + 1] * a[o + 13] + a[o + 2] * a[o + 14] + a[o + 3] * a[o + 15];
+		float c1 = cosAngle < 0.0 ? t - 1.0f : 1.0f - t;
+		setNormalized(q, c1 * a[o] + t * a[o + 12], c1 * a[o + 1] + t * a[o + 13], c1 * a[o + 2] + t * a[o + 14], c1
+				* a[o + 3] + t * a[o + 15]);
+	}
+
+	/**
+	 * Returns the parameter {@code u} such that the normalized {@code (1-u) a + u b}
+	 * approximates {@code slerp(a, b, t)}, {@code cosAngle} being the dot product of
+	 * the two unit quaternions (the polynomial fit is the one proposed by
+	 * A. Kapoulkine for "onlerp").
+	 */
+	private static float correctedTime(float cosAngle, float t) {
+		float d = Math.abs(cosAngle);
+		float A = 1.0904f + d * (-3.2452f + d * (3.55645f - d * 1.43519f));
+		float B = 0.848013f + d * (-1.06021f + d * 0.215638f);
+		float k = A * (t - 0.5f) * (t - 0.5f) + B;
+		return t + t * (t - 0.5f) * (t - 1.0f) * k;
+	}
+
+	private static void setNormalized(Quaternion q, float x, float y, float z, float w) {
+		float n = (float) Math.sqrt(x * x + y * y + z * z + w * w);
+		if (n > 0.0f) {
+			n = 1.0f / n;
+			q.x = x * n;
+			q.y = y * n;
+			q.z = z * n;
+			q.w = w * n;
+		} else {
+			q.x = 0;
+			q.y = 0;
+			q.z = 0;
+			q.w = 1;
+		}
+	}
+}
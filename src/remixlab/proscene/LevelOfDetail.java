@@ -0,0 +1,408 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+package remixlab.proscene;
+
+import processing.core.*;
+
+/**
+ * Selects, once per frame and for many objects at once, the level of detail
+ * each object should be drawn with, based on the on screen (pixel) size of its
+ * geometric error.
+ * <p>
+ * Objects are registered with a bounding sphere and the geometric error of
+ * each of their levels of detail (see
+ * {@link #add(PVector, float, float[], Frame)}), and are thereafter referred to
+ * by the integer id that method returns. Level {@code 0} is the most detailed
+ * one: the errors should increase with the level. The error of a level is the
+ * largest distance (in world units) between that level and the actual
+ * surface.
+ * <p>
+ * {@link #update()} projects those errors using the Camera state (see also
+ * {@link remixlab.proscene.Camera#pixelP5Ratio(PVector)}) and selects, for
+ * each object, the coarsest level whose error is smaller than
+ * {@link #maxPixelError()} pixels. Objects whose bounding sphere diameter is
+ * smaller than {@link #minPixelSize()} pixels are culled (their level is
+ * {@link #CULLED}), so that distant detail costs nothing. To avoid popping,
+ * level switches (and culling) are delayed by a {@link #hysteresis()} band:
+ * use it like this:
+ * <p>
+ * {@code lod.update();}<br>
+ * {@code for (int id = 0; id < lod.capacity(); id++)}<br>
+ * {@code   if (lod.level(id) != LevelOfDetail.CULLED)}<br>
+ * {@code     drawObject(id, lod.level(id));}<br>
+ * <p>
+ * No objects are created by {@link #update()}.
+ */
+public class LevelOfDetail {
+	/**
+	 * The {@link #level(int)} of an object that is too small on screen to be
+	 * drawn, or that is not registered.
+	 */
+	public static final int CULLED = -1;
+
+	protected Camera camera;
+	protected float maxPixelError;
+	protected float minPixelSize;
+	protected float hysteresis;
+
+	// O b j e c t s (bounding sphere center, defined in the object frame)
+	protected int objCount;
+	protected int liveCount;
+	protected float[] centers;
+	protected float[] radii;
+	protected float[][] errors;
+	protected Frame[] frames;
+	protected boolean[] alive;
+	protected int[] levels;
+	protected float[] pixelSizes;
+	protected int[] freeIds;
+	protected int freeCount;
+
+	private PVector tmpVec;
+
+	/**
+	 * Creates an empty level of detail selector for {@code camera}.
+	 */
+	public LevelOfDetail(Camera camera) {
+		this(camera, 64);
+	}
+
+	/**
+	 * Creates an empty level of detail selector for {@code camera}, with room
+	 * for {@code capacity} objects. It grows as needed.
+	 * <p>
+	 * The {@link #maxPixelError()} is set to {@code 1}, the
+	 * {@link #minPixelSize()} to {@code 2} and the {@link #hysteresis()} to
+	 * {@code 0.1}.
+	 */
+	public LevelOfDetail(Camera camera, int capacity) {
+		this.camera = camera;
+		capacity = PApplet.max(1, capacity);
+		centers = new float[3 * capacity];
+		radii = new float[capacity];
+		errors = new float[capacity][];
+		frames = new Frame[capacity];
+		alive = new boolean[capacity];
+		levels = new int[capacity];
+		pixelSizes = new float[capacity];
+		freeIds = new int[capacity];
+		tmpVec = new PVector();
+		setMaxPixelError(1);
+		setMinPixelSize(2);
+		setHysteresis(0.1f);
+	}
+
+	/**
+	 * Returns the Camera the levels of detail are selected for.
+	 */
+	public Camera camera() {
+		return camera;
+	}
+
+	/**
+	 * Returns the largest on screen error (in pixels) allowed for the selected
+	 * level of detail. Default value is {@code 1}.
+	 * 
+	 * @see #setMaxPixelError(float)
+	 */
+	public float maxPixelError() {
+		return maxPixelError;
+	}
+
+	/**
+	 * Sets the {@link #maxPixelError()}. Larger values select coarser levels.
+	 */
+	public void setMaxPixelError(float pixels) {
+		maxPixelError = PApplet.max(0, pixels);
+	}
+
+	/**
+	 * Returns the on screen diameter (in pixels) of the bounding sphere under
+	 * which an object is culled. Default value is {@code 2}.
+	 * 
+	 * @see #setMinPixelSize(float)
+	 */
+	public float minPixelSize() {
+		return minPixelSize;
+	}
+
+	/**
+	 * Sets the {@link #minPixelSize()}. Use {@code 0} to never cull objects.
+	 */
+	public void setMinPixelSize(float pixels) {
+		minPixelSize = PApplet.max(0, pixels);
+	}
+
+	/**
+	 * Returns the relative width of the band around the {@link #maxPixelError()}
+	 * and {@link #minPixelSize()} thresholds in which the current level of
+	 * detail (or culling) of an object is kept. Default value is {@code 0.1}.
+	 * <p>
+	 * An object switches to a coarser level when that level error falls under
+	 * {@code maxPixelError() * (1 - hysteresis())} and to a finer level when the
+	 * current level error exceeds {@code maxPixelError() * (1 + hysteresis())}.
+	 * Similarly, it is culled when it gets smaller than
+	 * {@code minPixelSize() * (1 - hysteresis())} and drawn again when it gets
+	 * larger than {@code minPixelSize() * (1 + hysteresis())}.
+	 */
+	public float hysteresis() {
+		return hysteresis;
+	}
+
+	/**
+	 * Sets the {@link #hysteresis()}, which is clamped to [0..1]. Use {@code 0}
+	 * to have the levels of detail only depend on the current Camera state.
+	 */
+	public void setHysteresis(float h) {
+		hysteresis = PApplet.constrain(h, 0, 1);
+	}
+
+	/**
+	 * Convenience function that simply calls
+	 * {@code add(center, radius, errors, null)}.
+	 */
+	public int add(PVector center, float radius, float[] errors) {
+		return add(center, radius, errors, null);
+	}
+
+	/**
+	 * Registers an object whose bounding sphere has the given {@code center}
+	 * (defined in the coordinate system of {@code frame}, {@code null} meaning
+	 * the world coordinate system) and {@code radius}, and returns its id.
+	 * <p>
+	 * {@code errors} holds the geometric error of each level of detail of the
+	 * object, the most detailed one first. It is referenced, not copied. An
+	 * object with a {@code null} or empty {@code errors} has a single level
+	 * (that is only subject to culling).
+	 * <p>
+	 * The object {@link #level(int)} is {@link #CULLED} until the next
+	 * {@link #update()}.
+	 */
+	public int add(PVector center, float radius, float[] errors, Frame frame) {
+		int id;
+		if (freeCount > 0)
+			id = freeIds[--freeCount];
+		else {
+			if (objCount == frames.length)
+				growObjects(2 * objCount);
+			id = objCount++;
+		}
+		alive[id] = true;
+		frames[id] = frame;
+		levels[id] = CULLED;
+		pixelSizes[id] = 0;
+		setSphere(id, center, radius);
+		setErrors(id, errors);
+		liveCount++;
+		return id;
+	}
+
+	/**
+	 * Unregisters the object {@code id}. Its id may be returned again by a
+	 * later {@link #add(PVector, float, float[], Frame)}.
+	 */
+	public void remove(int id) {
+		if (!isRegistered(id))
+			return;
+		alive[id] = false;
+		frames[id] = null;
+		errors[id] = null;
+		levels[id] = CULLED;
+		freeIds[freeCount++] = id;
+		liveCount--;
+	}
+
+	/**
+	 * Removes all the objects.
+	 */
+	public void clear() {
+		for (int i = 0; i < objCount; i++) {
+			alive[i] = false;
+			frames[i] = null;
+			errors[i] = null;
+			levels[i] = CULLED;
+		}
+		objCount = 0;
+		liveCount = 0;
+		freeCount = 0;
+	}
+
+	/**
+	 * Returns {@code true} if {@code id} refers to a registered object.
+	 */
+	public boolean isRegistered(int id) {
+		return id >= 0 && id < objCount && alive[id];
+	}
+
+	/**
+	 * Returns the number of registered objects.
+	 */
+	public int size() {
+		return liveCount;
+	}
+
+	/**
+	 * Returns an upper bound of the registered object ids, that is, all the ids
+	 * are smaller than this value.
+	 */
+	public int capacity() {
+		return objCount;
+	}
+
+	/**
+	 * Returns the Frame the object {@code id} is attached to, or {@code null}
+	 * if its bounding sphere is defined in the world coordinate system.
+	 */
+	public Frame frame(int id) {
+		return frames[id];
+	}
+
+	/**
+	 * Redefines the bounding sphere of the object {@code id}. {@code center}
+	 * is defined in the coordinate system of its {@link #frame(int)}.
+	 */
+	public void setSphere(int id, PVector center, float radius) {
+		if (!isRegistered(id))
+			return;
+		centers[3 * id] = center.x;
+		centers[3 * id + 1] = center.y;
+		centers[3 * id + 2] = center.z;
+		radii[id] = PApplet.abs(radius);
+	}
+
+	/**
+	 * Redefines the geometric {@code errors} of the levels of detail of the
+	 * object {@code id}. See {@link #add(PVector, float, float[], Frame)}.
+	 */
+	public void setErrors(int id, float[] errors) {
+		if (!isRegistered(id))
+			return;
+		this.errors[id] = errors;
+		if (levels[id] >= levelCount(id))
+			levels[id] = levelCount(id) - 1;
+	}
+
+	/**
+	 * Returns the number of levels of detail of the object {@code id}.
+	 */
+	public int levelCount(int id) {
+		float[] e = errors[id];
+		return e == null || e.length == 0 ? 1 : e.length;
+	}
+
+	/**
+	 * Returns the level of detail selected for the object {@code id} by the
+	 * last {@link #update()}, or {@link #CULLED}.
+	 */
+	public int level(int id) {
+		return id >= 0 && id < objCount ? levels[id] : CULLED;
+	}
+
+	/**
+	 * Returns the on screen diameter (in pixels) of the bounding sphere of the
+	 * object {@code id}, as computed by the last {@link #update()}.
+	 */
+	public float pixelSize(int id) {
+		return pixelSizes[id];
+	}
+
+	/**
+	 * Selects the level of detail of all the registered objects, in a single
+	 * pass. Call it once per frame, once the Camera is set up (e.g., at the
+	 * beginning of your {@code draw()}).
+	 * <p>
+	 * The projected size of an object is evaluated at the depth of its bounding
+	 * sphere center (see {@link remixlab.proscene.Camera#pixelP5Ratio(PVector)}).
+	 * Objects whose center is closer than the Camera
+	 * {@link remixlab.proscene.Camera#zNear()} are evaluated at that distance.
+	 */
+	public void update() {
+		PMatrix3D mv = camera.cachedModelViewMatrix();
+		boolean perspective = camera.type() == Camera.Type.PERSPECTIVE;
+		float zNear = camera.zNear();
+		// pixels per world unit, at a unit depth in perspective
+		float scale;
+		if (perspective)
+			scale = camera.screenHeight() / (2.0f * PApplet.tan(camera.fieldOfView() / 2.0f));
+		else
+			scale = camera.screenHeight() / (2.0f * camera.cachedOrthoWidthHeight()[1]);
+		float grow = maxPixelError * (1 - hysteresis);
+		float keep = maxPixelError * (1 + hysteresis);
+		float show = minPixelSize * (1 + hysteresis);
+		float hide = minPixelSize * (1 - hysteresis);
+		for (int id = 0; id < objCount; id++) {
+			if (!alive[id])
+				continue;
+			int o = 3 * id;
+			float x = centers[o], y = centers[o + 1], z = centers[o + 2];
+			if (frames[id] != null) {
+				tmpVec.set(x, y, z);
+				frames[id].inverseCoordinatesOf(tmpVec, tmpVec);
+				x = tmpVec.x;
+				y = tmpVec.y;
+				z = tmpVec.z;
+			}
+			float ratio = scale;
+			if (perspective)
+				ratio /= PApplet.max(zNear, -(mv.m20 * x + mv.m21 * y + mv.m22 * z + mv.m23));
+			float size = 2 * radii[id] * ratio;
+			pixelSizes[id] = size;
+			int current = levels[id];
+			if (size < (current == CULLED ? show : hide)) {
+				levels[id] = CULLED;
+				continue;
+			}
+			float[] e = errors[id];
+			int n = levelCount(id);
+			if (current == CULLED)
+				current = n - 1;
+			// the coarsest acceptable level: coarser levels than the current one
+			// must be below the lower threshold, finer ones below the upper one
+			int level = 0;
+			for (int l = n - 1; l > 0; l--)
+				if (e[l] * ratio <= (l > current ? grow : keep)) {
+					level = l;
+					break;
+				}
+			levels[id] = level;
+		}
+	}
+
+	protected void growObjects(int capacity) {
+		centers = PApplet.expand(centers, 3 * capacity);
+		radii = PApplet.expand(radii, capacity);
+		float[][] e = new float[capacity][];
+		System.arraycopy(errors, 0, e, 0, errors.length);
+		errors = e;
+		Frame[] f = new Frame[capacity];
+		System.arraycopy(frames, 0, f, 0, frames.length);
+		frames = f;
+		alive = PApplet.expand(alive, capacity);
+		levels = PApplet.expand(levels, capacity);
+		pixelSizes = PApplet.expand(pixelSizes, capacity);
+		freeIds = PApplet.expand(freeIds, capacity);
+	}
+}
@@ -211,4 +211,23 @@ public class MathUtils /**implements PConstants*/ {
 		m[2][2] = pM.m22;
 		return m;
 	}	
-}
\ No newline at end of file
+
+	/**
+	 * Utility function that stores in {@code dest} (which is allocated if
+	 * {@code null}) the inverse of the rigid transformation {@code m} (a rotation
+	 * followed by a translation, without scaling) and returns it.
+	 * <p>
+	 * The inverse is computed analytically (transposed rotation and rotated
+	 * opposite translation), hence {@code m} should really be rigid.
+	 * {@code dest} and {@code m} should be different objects.
+	 */
+	public static final PMatrix3D rigidInverse(PMatrix3D m, PMatrix3D dest) {
+		if (dest == null)
+			dest = new PMatrix3D();
+		dest.set(m.m00, m.m10, m.m20, -(m.m00 * m.m03 + m.m10 * m.m13 + m.m20 * m.m23),
+				     m.m01, m.m11, m.m21, -(m.m01 * m.m03 + m.m11 * m.m13 + m.m21 * m.m23),
+				     m.m02, m.m12, m.m22, -(m.m02 * m.m03 + m.m12 * m.m13 + m.m22 * m.m23),
+				     0, 0, 0, 1);
+		return dest;
+	}
+}
@@ -0,0 +1,404 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import java.util.HashMap;
+import java.util.List;
+
+import processing.core.*;
+
+/**
+ * A screen space uniform grid of the projected {@link remixlab.proscene.Frame#position()}
+ * of the InteractiveFrames found in the {@link remixlab.proscene.Scene#mouseGrabberPool()}.
+ * <p>
+ * The grid is used by {@link remixlab.proscene.DesktopEvents#mouseMoved(processing.event.MouseEvent)}
+ * to find the {@link remixlab.proscene.Scene#mouseGrabber()} without calling
+ * {@link remixlab.proscene.MouseGrabbable#checkIfGrabsMouse(int, int, Camera)} on every
+ * member of the pool: only the InteractiveFrames bucketed in the cells surrounding the
+ * mouse, those that grabbed the mouse the last time and the MouseGrabbers that cannot be
+ * indexed (see below) are tested. The result is the same as that of a linear scan of
+ * the pool, i.e., when several MouseGrabbers grab the mouse the one that comes last in
+ * the {@link remixlab.proscene.Scene#mouseGrabberPool()} is returned.
+ * <p>
+ * Projected positions are only recomputed when the Camera matrices or screen size change
+ * (which covers every Camera frame update), or, at most once per drawn frame, for those
+ * frames whose {@link remixlab.proscene.Frame#worldTransformVersion()} changed. Only
+ * InteractiveFrames whose class does not override
+ * {@link remixlab.proscene.InteractiveFrame#checkIfGrabsMouse(int, int, Camera)} are
+ * indexed, since the grid relies on the default square {@link remixlab.proscene.InteractiveFrame#grabsMouseThreshold()}
+ * region. All other MouseGrabbers are tested on every call.
+ * <p>
+ * <b>Attention:</b> Since frame changes are polled once per frame, a frame moved by
+ * some other mean than the mouse between two mouse events of the same frame is picked
+ * at its new position only from the next frame on.
+ */
+public class MouseGrabberGrid {
+	/**
+	 * Minimum size (in pixels) of a grid cell.
+	 */
+	public static final int MIN_CELL_SIZE = 8;
+
+	protected Scene scene;
+
+	// pool snapshot, indexed by pool position
+	protected MouseGrabbable[] pool = new MouseGrabbable[0];
+	protected InteractiveFrame[] indexed = new InteractiveFrame[0];
+	protected long[] versions = new long[0];
+	protected int[] thresholds = new int[0];
+	protected float[] projX = new float[0];
+	protected float[] projY = new float[0];
+	protected int poolSize;
+	protected int[] others = new int[0];
+	protected int othersCount;
+	protected int maxThreshold;
+
+	// grid buckets (counting sort of the indexed pool positions)
+	protected int cols, rows;
+	protected float cellSize;
+	protected int[] cellStart = new int[1];
+	protected int[] cellItems = new int[0];
+	protected int[] itemCell = new int[0];
+	private int[] cellFill = new int[0];
+
+	// camera snapshot
+	private Camera lastCamera;
+	private long cameraVersion;
+	private int[] viewport = new int[4];
+	private PVector pos = new PVector();
+
+	// validation state
+	private boolean poolChanged = true;
+	private int lastValidation = -1;
+	private boolean bucketsChanged = true;
+
+	// grabbers of the last call, as pool positions
+	private int[] grabbing = new int[4];
+	private int grabbingCount;
+	private int[] nextGrabbing = new int[4];
+	private int nextGrabbingCount;
+	private int[] visited = new int[0];
+	private int visitStamp;
+	private int best;
+
+	private HashMap<Class<?>, Boolean> indexableClasses = new HashMap<Class<?>, Boolean>();
+
+	/**
+	 * Creates an empty grid for the {@link remixlab.proscene.Scene#mouseGrabberPool()}
+	 * of {@code scn}.
+	 */
+	public MouseGrabberGrid(Scene scn) {
+		scene = scn;
+	}
+
+	/**
+	 * Marks the {@link remixlab.proscene.Scene#mouseGrabberPool()} as modified, so that the
+	 * grid is rebuilt by the next {@link #checkIfGrabsMouse(int, int)}. Called by the Scene
+	 * methods that modify the pool. Call it yourself if you modify the
+	 * {@link remixlab.proscene.Scene#mouseGrabberPool()} list directly.
+	 */
+	public void invalidate() {
+		poolChanged = true;
+	}
+
+	/**
+	 * Calls {@link remixlab.proscene.MouseGrabbable#checkIfGrabsMouse(int, int, Camera)} on
+	 * the MouseGrabbers that may grab the mouse at ({@code x}, {@code y}) and returns the
+	 * one that comes last in the {@link remixlab.proscene.Scene#mouseGrabberPool()} among
+	 * those that {@link remixlab.proscene.MouseGrabbable#grabsMouse()}, or {@code null} if
+	 * none of them grabs it.
+	 */
+	public MouseGrabbable checkIfGrabsMouse(int x, int y) {
+		Camera camera = scene.camera();
+		update(camera);
+
+		visitStamp++;
+		if (visitStamp == Integer.MAX_VALUE) {
+			visitStamp = 1;
+			for (int i = 0; i < poolSize; i++)
+				visited[i] = 0;
+		}
+		best = -1;
+		nextGrabbingCount = 0;
+
+		// previous grabbers should release the mouse (or keep it, see keepsGrabbingMouse)
+		for (int k = 0; k < grabbingCount; k++)
+			check(grabbing[k], x, y, camera);
+		for (int k = 0; k < othersCount; k++)
+			check(others[k], x, y, camera);
+
+		if (cols > 0 && cellItems.length > 0) {
+			// one extra pixel absorbs rounding differences with Camera.projectedCoordinatesOf
+			float r = maxThreshold + 1;
+			int cx0 = cell(x - r, cols);
+			int cx1 = cell(x + r, cols);
+			int cy0 = cell(y - r, rows);
+			int cy1 = cell(y + r, rows);
+			for (int cy = cy0; cy <= cy1; cy++)
+				for (int cx = cx0; cx <= cx1; cx++) {
+					int c = cy * cols + cx;
+					for (int k = cellStart[c]; k < cellStart[c + 1]; k++)
+						check(cellItems[k], x, y, camera);
+				}
+		}
+
+		int[] tmp = grabbing;
+		grabbing = nextGrabbing;
+		nextGrabbing = tmp;
+		grabbingCount = nextGrabbingCount;
+
+		return best < 0 ? null : pool[best];
+	}
+
+	private void check(int i, int x, int y, Camera camera) {
+		if (visited[i] == visitStamp)
+			return;
+		visited[i] = visitStamp;
+		MouseGrabbable mg = pool[i];
+		mg.checkIfGrabsMouse(x, y, camera);
+		if (mg.grabsMouse()) {
+			addGrabbing(i);
+			if (i > best)
+				best = i;
+		}
+	}
+
+	private void addGrabbing(int i) {
+		if (nextGrabbingCount == nextGrabbing.length) {
+			int[] a = new int[nextGrabbing.length * 2];
+			System.arraycopy(nextGrabbing, 0, a, 0, nextGrabbingCount);
+			nextGrabbing = a;
+		}
+		nextGrabbing[nextGrabbingCount++] = i;
+	}
+
+	private int cell(float v, int n) {
+		int c = PApplet.floor(v / cellSize);
+		return c < 0 ? 0 : (c >= n ? n - 1 : c);
+	}
+
+	/**
+	 * Brings the grid up to date with the pool, the frames and the camera. See the class
+	 * documentation for details.
+	 */
+	protected void update(Camera camera) {
+		List<MouseGrabbable> list = scene.mouseGrabberPool();
+		if (!poolChanged && list.size() != poolSize)
+			poolChanged = true;
+
+		int frameCount = scene.parent.frameCount;
+		if (poolChanged) {
+			snapshot(list, camera);
+			lastValidation = frameCount;
+			poolChanged = false;
+		} else if (frameCount != lastValidation) {
+			validate(list);
+			lastValidation = frameCount;
+		}
+
+		if (cameraChanged(camera)) {
+			camera.getViewport(viewport);
+			for (int i = 0; i < poolSize; i++)
+				if (indexed[i] != null)
+					project(i, camera);
+			bucketsChanged = true;
+		}
+
+		if (bucketsChanged) {
+			bucket(camera);
+			bucketsChanged = false;
+		}
+	}
+
+	private void snapshot(List<MouseGrabbable> list, Camera camera) {
+		poolSize = list.size();
+		if (pool.length < poolSize) {
+			int n = Math.max(poolSize, pool.length * 2);
+			pool = new MouseGrabbable[n];
+			indexed = new InteractiveFrame[n];
+			versions = new long[n];
+			thresholds = new int[n];
+			projX = new float[n];
+			projY = new float[n];
+			visited = new int[n];
+			itemCell = new int[n];
+			others = new int[n];
+		}
+		othersCount = 0;
+		grabbingCount = 0;
+		camera.getViewport(viewport);
+		for (int i = 0; i < poolSize; i++) {
+			MouseGrabbable mg = list.get(i);
+			pool[i] = mg;
+			visited[i] = 0;
+			if (isIndexable(mg)) {
+				InteractiveFrame f = (InteractiveFrame) mg;
+				indexed[i] = f;
+				versions[i] = f.worldTransformVersion();
+				thresholds[i] = f.grabsMouseThreshold();
+				project(i, camera);
+			} else {
+				indexed[i] = null;
+				others[othersCount++] = i;
+			}
+			// positions changed: rebuild the list of current grabbers from their flags
+			if (mg.grabsMouse()) {
+				if (grabbingCount == grabbing.length) {
+					int[] a = new int[grabbing.length * 2];
+					System.arraycopy(grabbing, 0, a, 0, grabbingCount);
+					grabbing = a;
+				}
+				grabbing[grabbingCount++] = i;
+			}
+		}
+		for (int i = poolSize; i < pool.length; i++) {
+			pool[i] = null;
+			indexed[i] = null;
+		}
+		if (nextGrabbing.length < grabbing.length)
+			nextGrabbing = new int[grabbing.length];
+		visitStamp = 0;
+		bucketsChanged = true;
+	}
+
+	private void validate(List<MouseGrabbable> list) {
+		Camera camera = scene.camera();
+		for (int i = 0; i < poolSize; i++) {
+			if (list.get(i) != pool[i]) {
+				snapshot(list, camera);
+				return;
+			}
+			InteractiveFrame f = indexed[i];
+			if (f == null)
+				continue;
+			long v = f.worldTransformVersion();
+			if (v != versions[i]) {
+				versions[i] = v;
+				project(i, camera);
+				bucketsChanged = true;
+			}
+			if (thresholds[i] != f.grabsMouseThreshold()) {
+				thresholds[i] = f.grabsMouseThreshold();
+				bucketsChanged = true;
+			}
+		}
+	}
+
+	/**
+	 * Returns {@code true} if {@code mg} is an InteractiveFrame whose class does not
+	 * override {@link remixlab.proscene.InteractiveFrame#checkIfGrabsMouse(int, int, Camera)},
+	 * i.e., if its grabbing region is known by the grid.
+	 */
+	protected boolean isIndexable(MouseGrabbable mg) {
+		if (!(mg instanceof InteractiveFrame))
+			return false;
+		Class<?> c = mg.getClass();
+		Boolean result = indexableClasses.get(c);
+		if (result == null) {
+			try {
+				result = c.getMethod("checkIfGrabsMouse", int.class, int.class, Camera.class).getDeclaringClass() == InteractiveFrame.class;
+			} catch (NoSuchMethodException e) {
+				result = false;
+			}
+			indexableClasses.put(c, result);
+		}
+		return result;
+	}
+
+	private boolean cameraChanged(Camera camera) {
+		long version = camera.stateVersion();
+		if ((camera == lastCamera) && (version == cameraVersion))
+			return false;
+		lastCamera = camera;
+		cameraVersion = version;
+		return true;
+	}
+
+	/**
+	 * Same computation as {@link remixlab.proscene.Camera#projectedCoordinatesOf(PVector)}
+	 * but without allocations.
+	 */
+	private void project(int i, Camera camera) {
+		indexed[i].position(pos);
+		PMatrix3D m = camera.cachedProjectionTimesModelview();
+		float w = m.m30 * pos.x + m.m31 * pos.y + m.m32 * pos.z + m.m33;
+		if (w == 0.0) {
+			projX[i] = 0;
+			projY[i] = 0;
+			return;
+		}
+		float px = m.m00 * pos.x + m.m01 * pos.y + m.m02 * pos.z + m.m03;
+		float py = m.m10 * pos.x + m.m11 * pos.y + m.m12 * pos.z + m.m13;
+		px /= w;
+		py /= w;
+		projX[i] = (px * 0.5f + 0.5f) * viewport[2] + viewport[0];
+		projY[i] = (py * 0.5f + 0.5f) * viewport[3] + viewport[1];
+	}
+
+	private void bucket(Camera camera) {
+		maxThreshold = 0;
+		int count = 0;
+		for (int i = 0; i < poolSize; i++)
+			if (indexed[i] != null) {
+				count++;
+				if (thresholds[i] > maxThreshold)
+					maxThreshold = thresholds[i];
+			}
+		if (count == 0) {
+			cols = rows = 0;
+			cellItems = new int[0];
+			return;
+		}
+		cellSize = Math.max(MIN_CELL_SIZE, 2 * maxThreshold);
+		cols = Math.max(1, PApplet.ceil(camera.screenWidth() / cellSize));
+		rows = Math.max(1, PApplet.ceil(camera.screenHeight() / cellSize));
+		int cells = cols * rows;
+		if (cellStart.length < cells + 1)
+			cellStart = new int[cells + 1];
+		else
+			for (int c = 0; c <= cells; c++)
+				cellStart[c] = 0;
+		if (cellItems.length != count)
+			cellItems = new int[count];
+
+		// counting sort: frames projected off screen go to the border cells
+		for (int i = 0; i < poolSize; i++)
+			if (indexed[i] != null) {
+				int c = cell(projY[i], rows) * cols + cell(projX[i], cols);
+				itemCell[i] = c;
+				cellStart[c + 1]++;
+			}
+		for (int c = 0; c < cells; c++)
+			cellStart[c + 1] += cellStart[c];
+		if (cellFill.length < cells)
+			cellFill = new int[cells];
+		System.arraycopy(cellStart, 0, cellFill, 0, cells);
+		// items of the same cell keep their pool order
+		for (int i = 0; i < poolSize; i++)
+			if (indexed[i] != null)
+				cellItems[cellFill[itemCell[i]]++] = i;
+	}
+}
@@ -0,0 +1,623 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import processing.core.*;
+
+/**
+ * A software (CPU only) occlusion culler based on a hierarchical depth buffer.
+ * <p>
+ * A handful of occluders (triangle meshes, typically simplified walls, floors
+ * and big buildings, see {@link #addOccluder(float[], int[], Frame)}) are
+ * rasterized into a low resolution depth buffer using the
+ * {@link remixlab.proscene.Camera#cachedProjectionTimesModelview()}. A depth
+ * pyramid, each texel of which holds the farthest depth of the four texels
+ * below it, is then built, so that an axis aligned box can be tested against a
+ * few texels only: the box is occluded if its nearest point is farther than
+ * the farthest occluder depth found in its screen rectangle.
+ * <p>
+ * Use it together with frustum culling, like this:
+ * <p>
+ * {@code culler.update(executor); // once per frame, optional}<br>
+ * {@code int n = culler.cull(bvh);}<br>
+ * {@code int [] ids = culler.visibleObjects();}<br>
+ * {@code for (int i = 0; i < n; i++)}<br>
+ * {@code   drawObject(ids[i]);}<br>
+ * <p>
+ * Visibility queries lazily call {@link #update()} when the Camera (see
+ * {@link remixlab.proscene.Camera#stateVersion()}) or an occluder moved since
+ * the last update. Call {@link #update(ExecutorService)} beforehand to have
+ * the rasterization split in bands of {@link #TILE_HEIGHT} rows run by worker
+ * threads.
+ * <p>
+ * Occluders are sampled at the buffer pixel centers. Hence they should lie
+ * inside the geometry they stand for, otherwise objects peeking out by less
+ * than a buffer pixel may be culled. Both faces of the occluder triangles are
+ * rasterized. No objects are created by the queries nor by the updates (once
+ * the buffers have grown to their working size).
+ */
+public class OcclusionCuller {
+	/**
+	 * Number of depth buffer rows rasterized by each task of
+	 * {@link #update(ExecutorService)}.
+	 */
+	public static final int TILE_HEIGHT = 16;
+
+	static final float MIN_W = 1E-5f;
+	private static final byte INVISIBLE_ORD = (byte) Camera.Visibility.INVISIBLE.ordinal();
+
+	protected Camera camera;
+
+	// O c c l u d e r s
+	protected List<Occluder> occluders;
+	protected boolean occludersChanged;
+
+	// D e p t h p y r a m i d (level 0 is the depth buffer)
+	protected int width, height;
+	protected float[][] levels;
+	protected int[] levelWidth;
+	protected int[] levelHeight;
+	protected long cameraVersion;
+
+	// S c r e e n t r i a n g l e s (x, y, z of the 3 vertices)
+	protected float[] triangles;
+	protected int triangleCount;
+
+	// C u l l i n g
+	protected int[] visible;
+	protected int visibleCount;
+
+	private PMatrix3D mvp;
+	private PMatrix3D world;
+	private float[] clip;
+	private float[] polygon;
+
+	/**
+	 * An occluder mesh and the Frame it is defined in.
+	 */
+	protected static class Occluder {
+		float[] vertices;
+		int[] triangles;
+		Frame frame;
+		long version;
+	}
+
+	/**
+	 * Convenience constructor that simply calls {@code this(camera, 256, 128)}.
+	 */
+	public OcclusionCuller(Camera camera) {
+		this(camera, 256, 128);
+	}
+
+	/**
+	 * Creates an occlusion culler for {@code camera} whose depth buffer is
+	 * {@code width} x {@code height} pixels large. The buffer covers the whole
+	 * Camera viewport, whatever its aspect ratio.
+	 */
+	public OcclusionCuller(Camera camera, int width, int height) {
+		this.camera = camera;
+		occluders = new ArrayList<Occluder>();
+		this.width = PApplet.max(1, width);
+		this.height = PApplet.max(1, height);
+		int n = 1;
+		for (int w = this.width, h = this.height; w > 1 || h > 1; w = (w + 1) / 2, h = (h + 1) / 2)
+			n++;
+		levels = new float[n][];
+		levelWidth = new int[n];
+		levelHeight = new int[n];
+		for (int l = 0, w = this.width, h = this.height; l < n; l++, w = (w + 1) / 2, h = (h + 1) / 2) {
+			levelWidth[l] = w;
+			levelHeight[l] = h;
+			levels[l] = new float[w * h];
+		}
+		triangles = new float[0];
+		visible = new int[0];
+		mvp = new PMatrix3D();
+		world = new PMatrix3D();
+		clip = new float[3 * 4];
+		polygon = new float[4 * 4];
+		occludersChanged = true;
+	}
+
+	/**
+	 * Returns the Camera the occluders are rasterized from.
+	 */
+	public Camera camera() {
+		return camera;
+	}
+
+	/**
+	 * Returns the width of the depth buffer, in pixels.
+	 */
+	public int width() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the depth buffer, in pixels.
+	 */
+	public int height() {
+		return height;
+	}
+
+	/**
+	 * Returns the number of levels of the depth pyramid.
+	 */
+	public int levelCount() {
+		return levels.length;
+	}
+
+	/**
+	 * Returns the depth values of the pyramid {@code level} (0 being the depth
+	 * buffer itself), row by row, bottom row first. Depths range in [0..1] (near
+	 * and far planes respectively), as with
+	 * {@link remixlab.proscene.Camera#projectedCoordinatesOf(PVector)}.
+	 * <p>
+	 * The returned array is owned by the culler: do not modify it.
+	 */
+	public float[] depth(int level) {
+		return levels[level];
+	}
+
+	/**
+	 * Registers an occluder triangle mesh defined in the coordinate system of
+	 * {@code frame} ({@code null} meaning the world coordinate system) and
+	 * returns its id.
+	 * <p>
+	 * {@code vertices} holds consecutive x, y, z vertex coordinates and each
+	 * consecutive index triplet of {@code triangles} defines a triangle. When
+	 * {@code triangles} is {@code null}, each consecutive vertex triplet defines
+	 * a triangle. Both arrays are referenced, not copied: call
+	 * {@link #invalidate()} after modifying them.
+	 */
+	public int addOccluder(float[] vertices, int[] triangles, Frame frame) {
+		Occluder o = new Occluder();
+		o.vertices = vertices;
+		o.triangles = triangles;
+		o.frame = frame;
+		occludersChanged = true;
+		for (int i = 0; i < occluders.size(); i++)
+			if (occluders.get(i) == null) {
+				occluders.set(i, o);
+				return i;
+			}
+		occluders.add(o);
+		return occluders.size() - 1;
+	}
+
+	/**
+	 * Unregisters the occluder {@code id}.
+	 */
+	public void removeOccluder(int id) {
+		if (id < 0 || id >= occluders.size() || occluders.get(id) == null)
+			return;
+		occluders.set(id, null);
+		occludersChanged = true;
+	}
+
+	/**
+	 * Removes all the occluders.
+	 */
+	public void clearOccluders() {
+		occluders.clear();
+		occludersChanged = true;
+	}
+
+	/**
+	 * Forces the next query (or {@link #update()}) to rasterize the occluders
+	 * again. Call it after modifying an occluder mesh.
+	 */
+	public void invalidate() {
+		occludersChanged = true;
+	}
+
+	/**
+	 * Returns {@code true} if neither the Camera nor any occluder changed since
+	 * the last {@link #update()}.
+	 */
+	public boolean isUpToDate() {
+		if (occludersChanged || camera.stateVersion() != cameraVersion)
+			return false;
+		for (int i = 0; i < occluders.size(); i++) {
+			Occluder o = occluders.get(i);
+			if (o != null && o.frame != null && o.frame.worldTransformVersion() != o.version)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Convenience function that simply calls {@code update(null)}.
+	 */
+	public void update() {
+		update(null);
+	}
+
+	/**
+	 * Rasterizes the occluders into the depth buffer and builds the depth
+	 * pyramid, unless {@link #isUpToDate()}.
+	 * <p>
+	 * When {@code executor} is not {@code null}, the depth buffer is split in
+	 * bands of {@link #TILE_HEIGHT} rows which are rasterized concurrently on the
+	 * {@code executor} (and on the calling thread). The method returns when all
+	 * of them are done.
+	 */
+	public void update(ExecutorService executor) {
+		if (isUpToDate())
+			return;
+		cameraVersion = camera.stateVersion();
+		occludersChanged = false;
+		setupTriangles();
+		if (executor == null || height <= TILE_HEIGHT)
+			rasterize(0, height);
+		else {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int from = TILE_HEIGHT; from < height; from += TILE_HEIGHT) {
+				final int start = from, end = PApplet.min(height, from + TILE_HEIGHT);
+				futures.add(executor.submit(new Runnable() {
+					public void run() {
+						rasterize(start, end);
+					}
+				}));
+			}
+			rasterize(0, TILE_HEIGHT);
+			try {
+				for (Future<?> future : futures)
+					future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Interrupted while rasterizing the occluders", e);
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Something went wrong when rasterizing the occluders", e.getCause());
+			}
+		}
+		buildPyramid();
+	}
+
+	/**
+	 * Returns {@code true} if the axis aligned box defined by its {@code p1} and
+	 * {@code p2} corners is hidden by the occluders, and {@code false} otherwise
+	 * (including when it is outside the Camera frustum or crosses its near
+	 * plane).
+	 */
+	public boolean aaBoxIsOccluded(PVector p1, PVector p2) {
+		if (!isUpToDate())
+			update();
+		return isOccluded(PApplet.min(p1.x, p2.x), PApplet.min(p1.y, p2.y), PApplet.min(p1.z, p2.z),
+				PApplet.max(p1.x, p2.x), PApplet.max(p1.y, p2.y), PApplet.max(p1.z, p2.z));
+	}
+
+	/**
+	 * Same as {@link remixlab.proscene.Camera#aaBoxIsVisible(PVector, PVector)},
+	 * but {@link remixlab.proscene.Camera.Visibility#INVISIBLE} is also returned
+	 * when the box is {@link #aaBoxIsOccluded(PVector, PVector)}.
+	 */
+	public Camera.Visibility aaBoxIsVisible(PVector p1, PVector p2) {
+		Camera.Visibility v = camera.aaBoxIsVisible(p1, p2);
+		if (v != Camera.Visibility.INVISIBLE && aaBoxIsOccluded(p1, p2))
+			return Camera.Visibility.INVISIBLE;
+		return v;
+	}
+
+	/**
+	 * Same as
+	 * {@link remixlab.proscene.Camera#aaBoxesAreVisible(float[], float[], int, byte[])},
+	 * but the boxes that are hidden by the occluders are also classified as
+	 * {@link remixlab.proscene.Camera.Visibility#INVISIBLE}. Returns the number
+	 * of boxes which are not.
+	 */
+	public int aaBoxesAreVisible(float[] mins, float[] maxs, int count, byte[] results) {
+		camera.aaBoxesAreVisible(mins, maxs, count, results);
+		if (!isUpToDate())
+			update();
+		int visibleBoxes = 0;
+		for (int k = 0, j = 0; k < count; k++, j += 3) {
+			if (results[k] == INVISIBLE_ORD)
+				continue;
+			if (isOccluded(mins[j], mins[j + 1], mins[j + 2], maxs[j], maxs[j + 1], maxs[j + 2]))
+				results[k] = INVISIBLE_ORD;
+			else
+				visibleBoxes++;
+		}
+		return visibleBoxes;
+	}
+
+	/**
+	 * Frustum culls {@code bvh} against the {@link #camera()} (see
+	 * {@link remixlab.proscene.BoundingVolumeHierarchy#cull(Camera)}) and then
+	 * discards the objects whose world box is occluded. Returns the number of
+	 * remaining objects, whose ids are the first entries of
+	 * {@link #visibleObjects()}.
+	 */
+	public int cull(BoundingVolumeHierarchy bvh) {
+		int n = bvh.cull(camera);
+		if (!isUpToDate())
+			update();
+		if (visible.length < n)
+			visible = new int[PApplet.max(n, 2 * visible.length)];
+		int[] ids = bvh.visibleObjects();
+		float[] b = bvh.worldBounds;
+		visibleCount = 0;
+		for (int i = 0; i < n; i++) {
+			int o = 6 * ids[i];
+			if (!isOccluded(b[o], b[o + 1], b[o + 2], b[o + 3], b[o + 4], b[o + 5]))
+				visible[visibleCount++] = ids[i];
+		}
+		return visibleCount;
+	}
+
+	/**
+	 * Returns the ids of the objects found visible by the last
+	 * {@link #cull(BoundingVolumeHierarchy)}. Only the first
+	 * {@link #visibleCount()} entries are meaningful.
+	 * <p>
+	 * The returned array is owned by the culler: do not modify it.
+	 */
+	public int[] visibleObjects() {
+		return visible;
+	}
+
+	/**
+	 * Returns the number of objects found visible by the last
+	 * {@link #cull(BoundingVolumeHierarchy)}.
+	 */
+	public int visibleCount() {
+		return visibleCount;
+	}
+
+	/**
+	 * Tests the box against the depth pyramid, at the finest level where its
+	 * screen rectangle covers no more than 4x4 texels.
+	 */
+	protected boolean isOccluded(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		PMatrix3D m = camera.cachedProjectionTimesModelview();
+		float x0 = Float.POSITIVE_INFINITY, y0 = Float.POSITIVE_INFINITY, z0 = Float.POSITIVE_INFINITY;
+		float x1 = Float.NEGATIVE_INFINITY, y1 = Float.NEGATIVE_INFINITY;
+		for (int c = 0; c < 8; c++) {
+			float x = (c & 1) == 0 ? minX : maxX;
+			float y = (c & 2) == 0 ? minY : maxY;
+			float z = (c & 4) == 0 ? minZ : maxZ;
+			float w = m.m30 * x + m.m31 * y + m.m32 * z + m.m33;
+			float cz = m.m20 * x + m.m21 * y + m.m22 * z + m.m23;
+			// a box crossing the near plane is never occluded
+			if (w < MIN_W || cz < -w)
+				return false;
+			float sx = ((m.m00 * x + m.m01 * y + m.m02 * z + m.m03) / w + 1) * 0.5f * width;
+			float sy = ((m.m10 * x + m.m11 * y + m.m12 * z + m.m13) / w + 1) * 0.5f * height;
+			x0 = PApplet.min(x0, sx);
+			x1 = PApplet.max(x1, sx);
+			y0 = PApplet.min(y0, sy);
+			y1 = PApplet.max(y1, sy);
+			z0 = PApplet.min(z0, (cz / w + 1) * 0.5f);
+		}
+		// outside of the frustum: left to frustum culling
+		if (x1 < 0 || y1 < 0 || x0 >= width || y0 >= height || z0 > 1)
+			return false;
+		int px0 = PApplet.max(0, (int) x0);
+		int py0 = PApplet.max(0, (int) y0);
+		int px1 = PApplet.min(width - 1, (int) x1);
+		int py1 = PApplet.min(height - 1, (int) y1);
+		int l = 0;
+		while (l < levels.length - 1 && ((px1 >> l) - (px0 >> l) > 3 || (py1 >> l) - (py0 >> l) > 3))
+			l++;
+		float[] level = levels[l];
+		int w = levelWidth[l];
+		for (int ty = py0 >> l; ty <= py1 >> l; ty++)
+			for (int tx = px0 >> l; tx <= px1 >> l; tx++)
+				if (level[ty * w + tx] >= z0)
+					return false;
+		return true;
+	}
+
+	/**
+	 * Transforms the occluder triangles to the depth buffer space, clipping them
+	 * against the near plane.
+	 */
+	protected void setupTriangles() {
+		triangleCount = 0;
+		PMatrix3D pm = camera.cachedProjectionTimesModelview();
+		for (int i = 0; i < occluders.size(); i++) {
+			Occluder o = occluders.get(i);
+			if (o == null || o.vertices == null)
+				continue;
+			mvp.set(pm);
+			if (o.frame != null) {
+				o.version = o.frame.worldTransformVersion();
+				mvp.apply(o.frame.worldMatrix(world));
+			}
+			float[] v = o.vertices;
+			int[] t = o.triangles;
+			int count = t == null ? v.length / 9 : t.length / 3;
+			for (int k = 0; k < count; k++) {
+				int n = 0;
+				for (int e = 0; e < 3; e++) {
+					int a = 3 * (t == null ? 3 * k + e : t[3 * k + e]);
+					float x = v[a], y = v[a + 1], z = v[a + 2];
+					clip[n++] = mvp.m00 * x + mvp.m01 * y + mvp.m02 * z + mvp.m03;
+					clip[n++] = mvp.m10 * x + mvp.m11 * y + mvp.m12 * z + mvp.m13;
+					clip[n++] = mvp.m20 * x + mvp.m21 * y + mvp.m22 * z + mvp.m23;
+					clip[n++] = mvp.m30 * x + mvp.m31 * y + mvp.m32 * z + mvp.m33;
+				}
+				clipAndAdd();
+			}
+		}
+	}
+
+	/**
+	 * Clips the clip space triangle held in {@code clip} against the near plane
+	 * ({@code z >= -w}) and adds the resulting (up to two) screen triangles.
+	 */
+	private void clipAndAdd() {
+		// Sutherland-Hodgman against a single plane: at most 4 output vertices
+		int inside = 0;
+		for (int e = 0; e < 3; e++)
+			if (clip[4 * e + 2] + clip[4 * e + 3] >= 0)
+				inside++;
+		if (inside == 0)
+			return;
+		if (inside == 3) {
+			addTriangle(clip, 0, 4, 8);
+			return;
+		}
+		int n = 0;
+		float[] poly = polygon;
+		for (int e = 0; e < 3; e++) {
+			int a = 4 * e;
+			int b = 4 * ((e + 1) % 3);
+			float da = clip[a + 2] + clip[a + 3];
+			float db = clip[b + 2] + clip[b + 3];
+			if (da >= 0) {
+				System.arraycopy(clip, a, poly, 4 * n++, 4);
+			}
+			if ((da >= 0) != (db >= 0)) {
+				float s = da / (da - db);
+				for (int c = 0; c < 4; c++)
+					poly[4 * n + c] = clip[a + c] + s * (clip[b + c] - clip[a + c]);
+				n++;
+			}
+		}
+		for (int k = 1; k + 1 < n; k++)
+			addTriangle(poly, 0, 4 * k, 4 * (k + 1));
+	}
+
+	/**
+	 * Performs the perspective division of the three clip space vertices of
+	 * {@code v} (starting at {@code a}, {@code b} and {@code c}) and appends the
+	 * resulting triangle to the screen triangles.
+	 */
+	private void addTriangle(float[] v, int a, int b, int c) {
+		if (v[a + 3] < MIN_W || v[b + 3] < MIN_W || v[c + 3] < MIN_W)
+			return;
+		if (triangles.length < 9 * (triangleCount + 1)) {
+			float[] grown = new float[PApplet.max(9 * 64, 2 * triangles.length)];
+			System.arraycopy(triangles, 0, grown, 0, 9 * triangleCount);
+			triangles = grown;
+		}
+		int o = 9 * triangleCount++;
+		toScreen(v, a, o);
+		toScreen(v, b, o + 3);
+		toScreen(v, c, o + 6);
+	}
+
+	private void toScreen(float[] v, int i, int o) {
+		triangles[o] = (v[i] / v[i + 3] + 1) * 0.5f * width;
+		triangles[o + 1] = (v[i + 1] / v[i + 3] + 1) * 0.5f * height;
+		triangles[o + 2] = (v[i + 2] / v[i + 3] + 1) * 0.5f;
+	}
+
+	/**
+	 * Clears rows {@code [from, to)} of the depth buffer and rasterizes the
+	 * screen triangles over them, keeping the nearest depth of each pixel
+	 * (sampled at its center).
+	 * <p>
+	 * Distinct row ranges may be rasterized concurrently.
+	 */
+	protected void rasterize(int from, int to) {
+		float[] depth = levels[0];
+		Arrays.fill(depth, from * width, to * width, 1);
+		for (int t = 0, o = 0; t < triangleCount; t++, o += 9) {
+			float x0 = triangles[o], y0 = triangles[o + 1], z0 = triangles[o + 2];
+			float x1 = triangles[o + 3], y1 = triangles[o + 4], z1 = triangles[o + 5];
+			float x2 = triangles[o + 6], y2 = triangles[o + 7], z2 = triangles[o + 8];
+			float area = (x1 - x0) * (y2 - y0) - (y1 - y0) * (x2 - x0);
+			if (area == 0 || Float.isNaN(area))
+				continue;
+			// positive winding: both faces are rasterized
+			if (area < 0) {
+				float tmp = x1;
+				x1 = x2;
+				x2 = tmp;
+				tmp = y1;
+				y1 = y2;
+				y2 = tmp;
+				tmp = z1;
+				z1 = z2;
+				z2 = tmp;
+				area = -area;
+			}
+			int minX = PApplet.max(0, (int) Math.ceil(PApplet.min(x0, PApplet.min(x1, x2)) - 0.5f));
+			int maxX = PApplet.min(width - 1, (int) Math.floor(PApplet.max(x0, PApplet.max(x1, x2)) - 0.5f));
+			int minY = PApplet.max(from, (int) Math.ceil(PApplet.min(y0, PApplet.min(y1, y2)) - 0.5f));
+			int maxY = PApplet.min(to - 1, (int) Math.floor(PApplet.max(y0, PApplet.max(y1, y2)) - 0.5f));
+			if (minX > maxX || minY > maxY)
+				continue;
+			float dzdx = ((z1 - z0) * (y2 - y0) - (z2 - z0) * (y1 - y0)) / area;
+			float dzdy = ((z2 - z0) * (x1 - x0) - (z1 - z0) * (x2 - x0)) / area;
+			// edge functions at the center of the first pixel of the bounding box
+			float px = minX + 0.5f, py = minY + 0.5f;
+			float w0Row = (x2 - x1) * (py - y1) - (y2 - y1) * (px - x1);
+			float w1Row = (x0 - x2) * (py - y2) - (y0 - y2) * (px - x2);
+			float w2Row = (x1 - x0) * (py - y0) - (y1 - y0) * (px - x0);
+			float zRow = z0 + dzdx * (px - x0) + dzdy * (py - y0);
+			for (int y = minY; y <= maxY; y++) {
+				float w0 = w0Row, w1 = w1Row, w2 = w2Row, z = zRow;
+				for (int x = minX, i = y * width + minX; x <= maxX; x++, i++) {
+					if (w0 >= 0 && w1 >= 0 && w2 >= 0) {
+						float d = PApplet.max(0, z);
+						if (d < depth[i])
+							depth[i] = d;
+					}
+					w0 -= y2 - y1;
+					w1 -= y0 - y2;
+					w2 -= y1 - y0;
+					z += dzdx;
+				}
+				w0Row += x2 - x1;
+				w1Row += x0 - x2;
+				w2Row += x1 - x0;
+				zRow += dzdy;
+			}
+		}
+	}
+
+	/**
+	 * Builds the depth pyramid levels from the depth buffer: each texel keeps the
+	 * farthest depth of the (up to) four texels it covers in the level below.
+	 */
+	protected void buildPyramid() {
+		for (int l = 1; l < levels.length; l++) {
+			float[] src = levels[l - 1], dst = levels[l];
+			int sw = levelWidth[l - 1], sh = levelHeight[l - 1];
+			int dw = levelWidth[l], dh = levelHeight[l];
+			for (int y = 0; y < dh; y++) {
+				int sy0 = 2 * y, sy1 = PApplet.min(sh - 1, 2 * y + 1);
+				for (int x = 0; x < dw; x++) {
+					int sx0 = 2 * x, sx1 = PApplet.min(sw - 1, 2 * x + 1);
+					dst[y * dw + x] = PApplet.max(PApplet.max(src[sy0 * sw + sx0], src[sy0 * sw + sx1]),
+							PApplet.max(src[sy1 * sw + sx0], src[sy1 * sw + sx1]));
+				}
+			}
+		}
+	}
+}
@@ -313,12 +313,30 @@ public class Quaternion implements PConstants {
 	 *          the second Quaternion
 	 */
 	public final static Quaternion multiply(Quaternion q1, Quaternion q2) {
+		return multiply(q1, q2, null);
+	}
+
+	/**
+	 * Stores the (normalized) product of quaternions {@code q1} and {@code q2}
+	 * in {@code dest} and returns it. A new Quaternion is created if {@code dest}
+	 * is {@code null}. {@code dest} may be {@code q1} or {@code q2}.
+	 * 
+	 * @param q1
+	 *          the first Quaternion
+	 * @param q2
+	 *          the second Quaternion
+	 * @param dest
+	 *          the Quaternion where the result is stored
+	 * 
+	 * @see #multiply(Quaternion, Quaternion)
+	 */
+	public final static Quaternion multiply(Quaternion q1, Quaternion q2, Quaternion dest) {
 		float x, y, z, w;
 		w = q1.w * q2.w - q1.x * q2.x - q1.y * q2.y - q1.z * q2.z;
 		x = q1.w * q2.x + q2.w * q1.x + q1.y * q2.z - q1.z * q2.y;
 		y = q1.w * q2.y + q2.w * q1.y - q1.x * q2.z + q1.z * q2.x;
 		z = q1.w * q2.z + q2.w * q1.z + q1.x * q2.y - q1.y * q2.x;
-		return new Quaternion(x, y, z, w);
+		return result(dest, x, y, z, w, true);
 	}
 
 	/**
@@ -361,9 +379,29 @@ public class Quaternion implements PConstants {
 	 *          the other Quaternion
 	 */
 	public final void multiplyInverse(Quaternion q1) {
-		Quaternion tempQuat = new Quaternion(q1);
-		tempQuat.invert();
-		this.multiply(tempQuat);
+		// q1 is normalized before being inverted, as in inverse()
+		float norm = PApplet.sqrt(squaredNorm(q1));
+		float qx = 0, qy = 0, qz = 0, qw = 1;
+		if (norm > 0.0f) {
+			qx = q1.x / norm;
+			qy = q1.y / norm;
+			qz = q1.z / norm;
+			qw = q1.w / norm;
+		}
+		float sqNorm = qx * qx + qy * qy + qz * qz + qw * qw;
+		qx /= -sqNorm;
+		qy /= -sqNorm;
+		qz /= -sqNorm;
+		qw /= sqNorm;
+		float x, y, w;
+
+		w = this.w * qw - this.x * qx - this.y * qy - this.z * qz;
+		x = this.w * qx + qw * this.x + this.y * qz - this.z * qy;
+		y = this.w * qy + qw * this.y - this.x * qz + this.z * qx;
+		this.z = this.w * qz + qw * this.z + this.x * qy - this.y * qx;
+		this.w = w;
+		this.x = x;
+		this.y = y;
 	}
 
 	/**
@@ -377,9 +415,43 @@ public class Quaternion implements PConstants {
 	 *          the second Quaternion
 	 */
 	public static final Quaternion multiplyInverse(Quaternion q1, Quaternion q2) {
-		Quaternion tempQuat = new Quaternion(q2);
-		tempQuat.invert();
-		return Quaternion.multiply(q1, tempQuat);
+		return multiplyInverse(q1, q2, null);
+	}
+
+	/**
+	 * Stores the (normalized) product of Quaternion {@code q1} by the inverse of
+	 * Quaternion {@code q2} (i.e., {@code q1 * q2^-1}) in {@code dest} and
+	 * returns it. A new Quaternion is created if {@code dest} is {@code null}.
+	 * {@code dest} may be {@code q1} or {@code q2}.
+	 * 
+	 * @param q1
+	 *          the first Quaternion
+	 * @param q2
+	 *          the second Quaternion
+	 * @param dest
+	 *          the Quaternion where the result is stored
+	 */
+	public static final Quaternion multiplyInverse(Quaternion q1, Quaternion q2, Quaternion dest) {
+		// q2 is normalized before being inverted, as in inverse()
+		float norm = PApplet.sqrt(squaredNorm(q2));
+		float qx = 0, qy = 0, qz = 0, qw = 1;
+		if (norm > 0.0f) {
+			qx = q2.x / norm;
+			qy = q2.y / norm;
+			qz = q2.z / norm;
+			qw = q2.w / norm;
+		}
+		float sqNorm = qx * qx + qy * qy + qz * qz + qw * qw;
+		qx /= -sqNorm;
+		qy /= -sqNorm;
+		qz /= -sqNorm;
+		qw /= sqNorm;
+		float x, y, z, w;
+		w = q1.w * qw - q1.x * qx - q1.y * qy - q1.z * qz;
+		x = q1.w * qx + qw * q1.x + q1.y * qz - q1.z * qy;
+		y = q1.w * qy + qw * q1.y - q1.x * qz + q1.z * qx;
+		z = q1.w * qz + qw * q1.z + q1.x * qy - q1.y * qx;
+		return result(dest, x, y, z, w, true);
 	}
 
 	/**
@@ -394,9 +466,25 @@ public class Quaternion implements PConstants {
 	 * @see #invert()
 	 */
 	public final Quaternion inverse() {
-		Quaternion tempQuat = new Quaternion(this);
-		tempQuat.invert();
-		return tempQuat;
+		return inverse(null);
+	}
+
+	/**
+	 * Stores the inverse Quaternion (inverse rotation) in {@code dest} and
+	 * returns it. A new Quaternion is created if {@code dest} is {@code null}.
+	 * 
+	 * @param dest
+	 *          the Quaternion where the result is stored
+	 * 
+	 * @see #inverse()
+	 */
+	public final Quaternion inverse(Quaternion dest) {
+		if (dest == null)
+			dest = new Quaternion(this);
+		else
+			dest.set(this);
+		dest.invert();
+		return dest;
 	}
 
 	/**
@@ -452,8 +540,58 @@ public class Quaternion implements PConstants {
 	 * 
 	 * @param v
 	 *          the PVector
+	 * 
+	 * @see #rotate(PVector, PVector)
 	 */
 	public final PVector rotate(PVector v) {
+		return rotate(v, null);
+	}
+
+	/**
+	 * Stores the image of {@code v} by the Quaternion rotation in {@code dest}
+	 * and returns it. A new PVector is created if {@code dest} is {@code null}.
+	 * {@code dest} may be {@code v} itself.
+	 * 
+	 * @param v
+	 *          the PVector
+	 * @param dest
+	 *          the PVector where the result is stored
+	 */
+	public final PVector rotate(PVector v, PVector dest) {
+		return rotate(x, y, z, w, v, dest);
+	}
+
+	/**
+	 * Returns the image of {@code v} by the Quaternion {@link #inverse()}
+	 * rotation.
+	 * <p>
+	 * {@link #rotate(PVector)} performs an inverse transformation.
+	 * 
+	 * @param v
+	 *          the PVector
+	 * 
+	 * @see #inverseRotate(PVector, PVector)
+	 */
+	public final PVector inverseRotate(PVector v) {
+		return inverseRotate(v, null);
+	}
+
+	/**
+	 * Stores the image of {@code v} by the Quaternion {@link #inverse()}
+	 * rotation in {@code dest} and returns it. A new PVector is created if
+	 * {@code dest} is {@code null}. {@code dest} may be {@code v} itself.
+	 * 
+	 * @param v
+	 *          the PVector
+	 * @param dest
+	 *          the PVector where the result is stored
+	 */
+	public final PVector inverseRotate(PVector v, PVector dest) {
+		float sqNorm = squaredNorm(this);
+		return rotate(-x / sqNorm, -y / sqNorm, -z / sqNorm, w / sqNorm, v, dest);
+	}
+
+	private static PVector rotate(float x, float y, float z, float w, PVector v, PVector dest) {
 		float q00 = 2.0f * x * x;
 		float q11 = 2.0f * y * y;
 		float q22 = 2.0f * z * z;
@@ -467,25 +605,14 @@ public class Quaternion implements PConstants {
 
 		float q23 = 2.0f * z * w;
 
-		return new PVector((1.0f - q11 - q22) * v.x + (q01 - q23) * v.y
-				+ (q02 + q13) * v.z, (q01 + q23) * v.x + (1.0f - q22 - q00) * v.y
-				+ (q12 - q03) * v.z, (q02 - q13) * v.x + (q12 + q03) * v.y
-				+ (1.0f - q11 - q00) * v.z);
-	}
+		float rx = (1.0f - q11 - q22) * v.x + (q01 - q23) * v.y + (q02 + q13) * v.z;
+		float ry = (q01 + q23) * v.x + (1.0f - q22 - q00) * v.y + (q12 - q03) * v.z;
+		float rz = (q02 - q13) * v.x + (q12 + q03) * v.y + (1.0f - q11 - q00) * v.z;
 
-	/**
-	 * Returns the image of {@code v} by the Quaternion {@link #inverse()}
-	 * rotation.
-	 * <p>
-	 * {@link #rotate(PVector)} performs an inverse transformation.
-	 * 
-	 * @param v
-	 *          the PVector
-	 */
-	public final PVector inverseRotate(PVector v) {
-		Quaternion tempQuat = new Quaternion(x, y, z, w);
-		tempQuat.invert();
-		return tempQuat.rotate(v);
+		if (dest == null)
+			return new PVector(rx, ry, rz);
+		dest.set(rx, ry, rz);
+		return dest;
 	}
 
 	/**
@@ -829,6 +956,18 @@ public class Quaternion implements PConstants {
 	 * @see #rotationMatrix()
 	 */
 	public final PMatrix3D matrix() {
+		return matrix(null);
+	}
+
+	/**
+	 * Same as {@link #matrix()}, but the rotation matrix is stored in {@code dest}
+	 * (which is allocated if {@code null}) and returned.
+	 * 
+	 * @see #matrix()
+	 */
+	public final PMatrix3D matrix(PMatrix3D dest) {
+		if (dest == null)
+			dest = new PMatrix3D();
 
 		float q00 = 2.0f * this.x * this.x;
 		float q11 = 2.0f * this.y * this.y;
@@ -864,8 +1003,9 @@ public class Quaternion implements PConstants {
 		float m23 = 0.0f;
 		float m33 = 1.0f;
 
-		return new PMatrix3D(m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22,
+		dest.set(m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22,
 				m23, m30, m31, m32, m33);
+		return dest;
 	}
 
 	/**
@@ -897,16 +1037,28 @@ public class Quaternion implements PConstants {
 	 * @see #exp()
 	 */
 	public final Quaternion log() {
+		return log(null);
+	}
+
+	/**
+	 * Stores the logarithm of the Quaternion in {@code dest} and returns it. A new
+	 * Quaternion is created if {@code dest} is {@code null}.
+	 * 
+	 * @param dest
+	 *          the Quaternion where the result is stored
+	 * 
+	 * @see #log()
+	 */
+	public final Quaternion log(Quaternion dest) {
 		// Warning: this method should not normalize the Quaternion
 		float len = PApplet.sqrt(this.x * this.x + this.y * this.y + this.z
 				* this.z);
 
 		if (len < 1E-6f)
-			return new Quaternion(this.x, this.y, this.z, 0.0f, false);
+			return result(dest, this.x, this.y, this.z, 0.0f, false);
 		else {
 			float coef = PApplet.acos(this.w) / len;
-			return new Quaternion(this.x * coef, this.y * coef, this.z * coef, 0.0f,
-					false);
+			return result(dest, this.x * coef, this.y * coef, this.z * coef, 0.0f, false);
 		}
 	}
 
@@ -916,15 +1068,28 @@ public class Quaternion implements PConstants {
 	 * @see #log()
 	 */
 	public final Quaternion exp() {
+		return exp(null);
+	}
+
+	/**
+	 * Stores the exponential of the Quaternion in {@code dest} and returns it. A
+	 * new Quaternion is created if {@code dest} is {@code null}.
+	 * 
+	 * @param dest
+	 *          the Quaternion where the result is stored
+	 * 
+	 * @see #exp()
+	 */
+	public final Quaternion exp(Quaternion dest) {
 		float theta = PApplet.sqrt(this.x * this.x + this.y * this.y + this.z
 				* this.z);
 
 		if (theta < 1E-6f)
-			return new Quaternion(this.x, this.y, this.z, PApplet.cos(theta));
+			return result(dest, this.x, this.y, this.z, PApplet.cos(theta), true);
 		else {
 			float coef = PApplet.sin(theta) / theta;
-			return new Quaternion(this.x * coef, this.y * coef, this.z * coef,
-					PApplet.cos(theta));
+			return result(dest, this.x * coef, this.y * coef, this.z * coef,
+					PApplet.cos(theta), true);
 		}
 	}
 
@@ -980,6 +1145,29 @@ public class Quaternion implements PConstants {
 	 */
 	public static final Quaternion slerp(Quaternion a, Quaternion b, float t,
 			boolean allowFlip) {
+		return slerp(a, b, t, allowFlip, null);
+	}
+
+	/**
+	 * Stores the slerp interpolation of quaternions {@code a} and {@code b}, at
+	 * time {@code t}, in {@code dest} and returns it. A new Quaternion is created
+	 * if {@code dest} is {@code null}. {@code dest} may be {@code a} or {@code b}.
+	 * 
+	 * @param a
+	 *          the first Quaternion
+	 * @param b
+	 *          the second Quaternion
+	 * @param t
+	 *          the t interpolation parameter
+	 * @param allowFlip
+	 *          tells whether or not the interpolation allows axis flip
+	 * @param dest
+	 *          the Quaternion where the result is stored
+	 * 
+	 * @see #slerp(Quaternion, Quaternion, float, boolean)
+	 */
+	public static final Quaternion slerp(Quaternion a, Quaternion b, float t,
+			boolean allowFlip, Quaternion dest) {
 		// Warning: this method should not normalize the Quaternion
 		float cosAngle = Quaternion.dotProduct(a, b);
 
@@ -1000,7 +1188,7 @@ public class Quaternion implements PConstants {
 		if (allowFlip && (cosAngle < 0.0))
 			c1 = -c1;
 
-		return new Quaternion(c1 * a.x + c2 * b.x, c1 * a.y + c2 * b.y, c1 * a.z
+		return result(dest, c1 * a.x + c2 * b.x, c1 * a.y + c2 * b.y, c1 * a.z
 				+ c2 * b.z, c1 * a.w + c2 * b.w, false);
 	}
 
@@ -1027,9 +1215,69 @@ public class Quaternion implements PConstants {
 	 */
 	public static final Quaternion squad(Quaternion a, Quaternion tgA,
 			Quaternion tgB, Quaternion b, float t) {
-		Quaternion ab = Quaternion.slerp(a, b, t);
-		Quaternion tg = Quaternion.slerp(tgA, tgB, t, false);
-		return Quaternion.slerp(ab, tg, 2.0f * t * (1.0f - t), false);
+		return squad(a, tgA, tgB, b, t, null);
+	}
+
+	/**
+	 * Stores the squad interpolation of {@code a} and {@code b} at time {@code t},
+	 * using tangents {@code tgA} and {@code tgB}, in {@code dest} and returns it.
+	 * A new Quaternion is created if {@code dest} is {@code null}. {@code dest}
+	 * may be any of the input quaternions. No temporary Quaternion is allocated.
+	 * 
+	 * @see #squad(Quaternion, Quaternion, Quaternion, Quaternion, float)
+	 */
+	public static final Quaternion squad(Quaternion a, Quaternion tgA,
+			Quaternion tgB, Quaternion b, float t, Quaternion dest) {
+		float c1, c2, cosAngle, angle, sinAngle;
+
+		// ab = slerp(a, b, t, true)
+		cosAngle = Quaternion.dotProduct(a, b);
+		if ((1.0 - PApplet.abs(cosAngle)) < 0.01) {
+			c1 = 1.0f - t;
+			c2 = t;
+		} else {
+			angle = PApplet.acos(PApplet.abs(cosAngle));
+			sinAngle = PApplet.sin(angle);
+			c1 = PApplet.sin(angle * (1.0f - t)) / sinAngle;
+			c2 = PApplet.sin(angle * t) / sinAngle;
+		}
+		if (cosAngle < 0.0)
+			c1 = -c1;
+		float abx = c1 * a.x + c2 * b.x;
+		float aby = c1 * a.y + c2 * b.y;
+		float abz = c1 * a.z + c2 * b.z;
+		float abw = c1 * a.w + c2 * b.w;
+
+		// tg = slerp(tgA, tgB, t, false)
+		cosAngle = Quaternion.dotProduct(tgA, tgB);
+		if ((1.0 - PApplet.abs(cosAngle)) < 0.01) {
+			c1 = 1.0f - t;
+			c2 = t;
+		} else {
+			angle = PApplet.acos(PApplet.abs(cosAngle));
+			sinAngle = PApplet.sin(angle);
+			c1 = PApplet.sin(angle * (1.0f - t)) / sinAngle;
+			c2 = PApplet.sin(angle * t) / sinAngle;
+		}
+		float tgx = c1 * tgA.x + c2 * tgB.x;
+		float tgy = c1 * tgA.y + c2 * tgB.y;
+		float tgz = c1 * tgA.z + c2 * tgB.z;
+		float tgw = c1 * tgA.w + c2 * tgB.w;
+
+		// slerp(ab, tg, 2t(1-t), false)
+		float u = 2.0f * t * (1.0f - t);
+		cosAngle = abx * tgx + aby * tgy + abz * tgz + abw * tgw;
+		if ((1.0 - PApplet.abs(cosAngle)) < 0.01) {
+			c1 = 1.0f - u;
+			c2 = u;
+		} else {
+			angle = PApplet.acos(PApplet.abs(cosAngle));
+			sinAngle = PApplet.sin(angle);
+			c1 = PApplet.sin(angle * (1.0f - u)) / sinAngle;
+			c2 = PApplet.sin(angle * u) / sinAngle;
+		}
+		return result(dest, c1 * abx + c2 * tgx, c1 * aby + c2 * tgy, c1 * abz
+				+ c2 * tgz, c1 * abw + c2 * tgw, false);
 	}
 
 	/**
@@ -1081,4 +1329,35 @@ public class Quaternion implements PConstants {
 	public static float squaredNorm(Quaternion q) {
 		return (q.x * q.x) + (q.y * q.y) + (q.z * q.z) + (q.w * q.w);
 	}
+
+	/**
+	 * Sets {@code dest} (created if {@code null}) to the given coordinates,
+	 * normalizing them as {@link #Quaternion(float, float, float, float, boolean)}
+	 * does, and returns it.
+	 */
+	private static Quaternion result(Quaternion dest, float x, float y, float z,
+			float w, boolean normalize) {
+		if (dest == null)
+			return new Quaternion(x, y, z, w, normalize);
+		if (normalize) {
+			float mag = PApplet.sqrt(x * x + y * y + z * z + w * w);
+			if (mag > 0.0f) {
+				dest.x = x / mag;
+				dest.y = y / mag;
+				dest.z = z / mag;
+				dest.w = w / mag;
+			} else {
+				dest.x = 0;
+				dest.y = 0;
+				dest.z = 0;
+				dest.w = 1;
+			}
+		} else {
+			dest.x = x;
+			dest.y = y;
+			dest.z = z;
+			dest.w = w;
+		}
+		return dest;
+	}
 }
@@ -0,0 +1,468 @@
+/**
+ *                     ProScene (version 1.2.0)      
+ *    Copyright (c) 2010-2013 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+
+package remixlab.proscene;
+
+import processing.core.*;
+
+/**
+ * A packed, structure-of-arrays buffer of quaternions.
+ * <p>
+ * The {@code x}, {@code y}, {@code z} and {@code w} coordinates of the
+ * quaternions are stored in four parallel float arrays (see {@link #x()},
+ * {@link #y()}, {@link #z()} and {@link #w()}) and the batch operations
+ * ({@link #multiply(QuaternionBuffer, QuaternionBuffer, QuaternionBuffer, int, int)},
+ * {@link #invert(int, int)}, {@link #normalize(int, int)},
+ * {@link #slerp(QuaternionBuffer, QuaternionBuffer, float, QuaternionBuffer, int, int)},
+ * {@link #rotate(float[], float[], int, int)} and
+ * {@link #inverseRotate(float[], float[], int, int)}) are plain loops over those
+ * arrays, so that bulk orientation work (crowds, rigid body visualization...)
+ * neither allocates nor dereferences a Quaternion per element.
+ * <p>
+ * Each batch operation gives the same results as its {@link Quaternion}
+ * counterpart applied element by element. The {@code [from, to)} range versions
+ * make it easy to split the work among several threads: different ranges of the
+ * same buffers may be processed concurrently.
+ * <p>
+ * Vectors are packed as consecutive {@code x, y, z} triplets in a float array, as
+ * in {@link remixlab.proscene.KeyFrameInterpolator#interpolateAtTimes(float[], int, float[], float[])}.
+ */
+public class QuaternionBuffer {
+	protected float[] x, y, z, w;
+	protected int size;
+
+	/**
+	 * Creates a buffer of {@code size} identity quaternions.
+	 */
+	public QuaternionBuffer(int size) {
+		x = new float[size];
+		y = new float[size];
+		z = new float[size];
+		w = new float[size];
+		this.size = size;
+		setIdentity(0, size);
+	}
+
+	/**
+	 * Creates a buffer holding a copy of the given {@code quaternions}.
+	 */
+	public QuaternionBuffer(Quaternion[] quaternions) {
+		this(quaternions.length);
+		for (int i = 0; i < quaternions.length; i++)
+			set(i, quaternions[i]);
+	}
+
+	/**
+	 * Returns the number of quaternions in the buffer.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of quaternions the buffer can hold without reallocating
+	 * its arrays.
+	 */
+	public int capacity() {
+		return x.length;
+	}
+
+	/**
+	 * Sets the number of quaternions in the buffer. Added quaternions are set to
+	 * the identity. The backing arrays are reallocated when {@code size} exceeds
+	 * the {@link #capacity()}, so references previously obtained with
+	 * {@link #x()}, {@link #y()}, {@link #z()} or {@link #w()} become stale.
+	 */
+	public void setSize(int size) {
+		if (size > x.length) {
+			int capacity = Math.max(size, 2 * x.length);
+			x = grow(x, capacity);
+			y = grow(y, capacity);
+			z = grow(z, capacity);
+			w = grow(w, capacity);
+		}
+		int previous = this.size;
+		this.size = size;
+		if (size > previous)
+			setIdentity(previous, size);
+	}
+
+	private float[] grow(float[] array, int capacity) {
+		float[] result = new float[capacity];
+		System.arraycopy(array, 0, result, 0, size);
+		return result;
+	}
+
+	/**
+	 * Returns the array holding the x coordinates of the quaternions. Only the
+	 * first {@link #size()} entries are meaningful.
+	 */
+	public float[] x() {
+		return x;
+	}
+
+	/**
+	 * Returns the array holding the y coordinates of the quaternions. Only the
+	 * first {@link #size()} entries are meaningful.
+	 */
+	public float[] y() {
+		return y;
+	}
+
+	/**
+	 * Returns the array holding the z coordinates of the quaternions. Only the
+	 * first {@link #size()} entries are meaningful.
+	 */
+	public float[] z() {
+		return z;
+	}
+
+	/**
+	 * Returns the array holding the w coordinates of the quaternions. Only the
+	 * first {@link #size()} entries are meaningful.
+	 */
+	public float[] w() {
+		return w;
+	}
+
+	/**
+	 * Stores the {@code i}-th quaternion in {@code dest} and returns it. A new
+	 * Quaternion is created if {@code dest} is {@code null}.
+	 */
+	public Quaternion get(int i, Quaternion dest) {
+		if (dest == null)
+			return new Quaternion(x[i], y[i], z[i], w[i], false);
+		dest.x = x[i];
+		dest.y = y[i];
+		dest.z = z[i];
+		dest.w = w[i];
+		return dest;
+	}
+
+	/**
+	 * Sets the {@code i}-th quaternion to {@code q} (which is not normalized).
+	 */
+	public void set(int i, Quaternion q) {
+		set(i, q.x, q.y, q.z, q.w);
+	}
+
+	/**
+	 * Sets the {@code i}-th quaternion to the given coordinates (which are not
+	 * normalized).
+	 */
+	public void set(int i, float qx, float qy, float qz, float qw) {
+		x[i] = qx;
+		y[i] = qy;
+		z[i] = qz;
+		w[i] = qw;
+	}
+
+	/**
+	 * Copies the quaternions from {@code packed}, which holds {@link #size()}
+	 * consecutive {@code x, y, z, w} quadruplets (as returned by
+	 * {@link remixlab.proscene.KeyFrameInterpolator#interpolateAtTimes(float[], int, float[], float[])}).
+	 * 
+	 * @see #get(float[])
+	 */
+	public void set(float[] packed) {
+		float[] x = this.x, y = this.y, z = this.z, w = this.w;
+		for (int i = 0; i < size; i++) {
+			x[i] = packed[4 * i];
+			y[i] = packed[4 * i + 1];
+			z[i] = packed[4 * i + 2];
+			w[i] = packed[4 * i + 3];
+		}
+	}
+
+	/**
+	 * Copies the quaternions into {@code packed} as {@link #size()} consecutive
+	 * {@code x, y, z, w} quadruplets. A new array is created if {@code packed} is
+	 * {@code null}.
+	 * 
+	 * @see #set(float[])
+	 */
+	public float[] get(float[] packed) {
+		if (packed == null)
+			packed = new float[4 * size];
+		float[] x = this.x, y = this.y, z = this.z, w = this.w;
+		for (int i = 0; i < size; i++) {
+			packed[4 * i] = x[i];
+			packed[4 * i + 1] = y[i];
+			packed[4 * i + 2] = z[i];
+			packed[4 * i + 3] = w[i];
+		}
+		return packed;
+	}
+
+	/**
+	 * Sets the quaternions in {@code [from, to)} to the identity.
+	 */
+	public void setIdentity(int from, int to) {
+		for (int i = from; i < to; i++) {
+			x[i] = 0;
+			y[i] = 0;
+			z[i] = 0;
+			w[i] = 1;
+		}
+	}
+
+	/**
+	 * Stores the products {@code a[i] * b[i]} in {@code dest[i]}, for {@code i}
+	 * in {@code [from, to)}. {@code dest} may be {@code a} or {@code b}.
+	 * <p>
+	 * As {@link remixlab.proscene.Quaternion#multiply(Quaternion)}, the products
+	 * are not normalized (see {@link #normalize(int, int)}).
+	 */
+	public static void multiply(QuaternionBuffer a, QuaternionBuffer b,
+			QuaternionBuffer dest, int from, int to) {
+		float[] ax = a.x, ay = a.y, az = a.z, aw = a.w;
+		float[] bx = b.x, by = b.y, bz = b.z, bw = b.w;
+		float[] dx = dest.x, dy = dest.y, dz = dest.z, dw = dest.w;
+		for (int i = from; i < to; i++) {
+			float x = aw[i] * bx[i] + bw[i] * ax[i] + ay[i] * bz[i] - az[i] * by[i];
+			float y = aw[i] * by[i] + bw[i] * ay[i] - ax[i] * bz[i] + az[i] * bx[i];
+			float z = aw[i] * bz[i] + bw[i] * az[i] + ax[i] * by[i] - ay[i] * bx[i];
+			float w = aw[i] * bw[i] - ax[i] * bx[i] - ay[i] * by[i] - az[i] * bz[i];
+			dx[i] = x;
+			dy[i] = y;
+			dz[i] = z;
+			dw[i] = w;
+		}
+	}
+
+	/**
+	 * Sets every quaternion in the buffer to its product by {@code b}'s
+	 * quaternion of the same index ({@code this[i] = this[i] * b[i]}).
+	 * 
+	 * @see #multiply(QuaternionBuffer, QuaternionBuffer, QuaternionBuffer, int, int)
+	 */
+	public void multiply(QuaternionBuffer b) {
+		multiply(this, b, this, 0, size);
+	}
+
+	/**
+	 * Sets the quaternions in {@code [from, to)} to their product by {@code q}
+	 * ({@code this[i] = this[i] * q}). Use {@link #preMultiply(Quaternion, int, int)}
+	 * to compute {@code q * this[i]} instead.
+	 */
+	public void multiply(Quaternion q, int from, int to) {
+		float qx = q.x, qy = q.y, qz = q.z, qw = q.w;
+		float[] ax = this.x, ay = this.y, az = this.z, aw = this.w;
+		for (int i = from; i < to; i++) {
+			float x = aw[i] * qx + qw * ax[i] + ay[i] * qz - az[i] * qy;
+			float y = aw[i] * qy + qw * ay[i] - ax[i] * qz + az[i] * qx;
+			float z = aw[i] * qz + qw * az[i] + ax[i] * qy - ay[i] * qx;
+			float w = aw[i] * qw - ax[i] * qx - ay[i] * qy - az[i] * qz;
+			ax[i] = x;
+			ay[i] = y;
+			az[i] = z;
+			aw[i] = w;
+		}
+	}
+
+	/**
+	 * Sets the quaternions in {@code [from, to)} to the product of {@code q} by
+	 * them ({@code this[i] = q * this[i]}), e.g., to express local orientations in
+	 * the coordinate system of {@code q}.
+	 * 
+	 * @see #multiply(Quaternion, int, int)
+	 */
+	public void preMultiply(Quaternion q, int from, int to) {
+		float qx = q.x, qy = q.y, qz = q.z, qw = q.w;
+		float[] bx = this.x, by = this.y, bz = this.z, bw = this.w;
+		for (int i = from; i < to; i++) {
+			float x = qw * bx[i] + bw[i] * qx + qy * bz[i] - qz * by[i];
+			float y = qw * by[i] + bw[i] * qy - qx * bz[i] + qz * bx[i];
+			float z = qw * bz[i] + bw[i] * qz + qx * by[i] - qy * bx[i];
+			float w = qw * bw[i] - qx * bx[i] - qy * by[i] - qz * bz[i];
+			bx[i] = x;
+			by[i] = y;
+			bz[i] = z;
+			bw[i] = w;
+		}
+	}
+
+	/**
+	 * Inverts the quaternions in {@code [from, to)}, as
+	 * {@link remixlab.proscene.Quaternion#invert()} does.
+	 */
+	public void invert(int from, int to) {
+		float[] x = this.x, y = this.y, z = this.z, w = this.w;
+		for (int i = from; i < to; i++) {
+			float sqNorm = x[i] * x[i] + y[i] * y[i] + z[i] * z[i] + w[i] * w[i];
+			w[i] /= sqNorm;
+			x[i] /= -sqNorm;
+			y[i] /= -sqNorm;
+			z[i] /= -sqNorm;
+		}
+	}
+
+	/**
+	 * Inverts all the quaternions in the buffer.
+	 * 
+	 * @see #invert(int, int)
+	 */
+	public void invert() {
+		invert(0, size);
+	}
+
+	/**
+	 * Normalizes the quaternions in {@code [from, to)}, as
+	 * {@link remixlab.proscene.Quaternion#normalize()} does (null quaternions
+	 * become the identity).
+	 */
+	public void normalize(int from, int to) {
+		float[] x = this.x, y = this.y, z = this.z, w = this.w;
+		for (int i = from; i < to; i++) {
+			float norm = (float) Math.sqrt(x[i] * x[i] + y[i] * y[i] + z[i] * z[i] + w[i]
+					* w[i]);
+			if (norm > 0.0f) {
+				x[i] /= norm;
+				y[i] /= norm;
+				z[i] /= norm;
+				w[i] /= norm;
+			} else {
+				x[i] = 0;
+				y[i] = 0;
+				z[i] = 0;
+				w[i] = 1;
+			}
+		}
+	}
+
+	/**
+	 * Normalizes all the quaternions in the buffer.
+	 * 
+	 * @see #normalize(int, int)
+	 */
+	public void normalize() {
+		normalize(0, size);
+	}
+
+	/**
+	 * Stores the slerp interpolations of {@code a[i]} and {@code b[i]} at time
+	 * {@code t} in {@code dest[i]}, for {@code i} in {@code [from, to)}, as
+	 * {@link remixlab.proscene.Quaternion#slerp(Quaternion, Quaternion, float)}
+	 * does (shortest path, result not normalized). {@code dest} may be {@code a}
+	 * or {@code b}.
+	 */
+	public static void slerp(QuaternionBuffer a, QuaternionBuffer b, float t,
+			QuaternionBuffer dest, int from, int to) {
+		slerp(a, b, t, null, dest, from, to);
+	}
+
+	/**
+	 * Same as {@link #slerp(QuaternionBuffer, QuaternionBuffer, float, QuaternionBuffer, int, int)},
+	 * but with a different interpolation time {@code t[i]} per quaternion.
+	 */
+	public static void slerp(QuaternionBuffer a, QuaternionBuffer b, float[] t,
+			QuaternionBuffer dest, int from, int to) {
+		slerp(a, b, 0, t, dest, from, to);
+	}
+
+	private static void slerp(QuaternionBuffer a, QuaternionBuffer b, float time,
+			float[] times, QuaternionBuffer dest, int from, int to) {
+		float[] ax = a.x, ay = a.y, az = a.z, aw = a.w;
+		float[] bx = b.x, by = b.y, bz = b.z, bw = b.w;
+		float[] dx = dest.x, dy = dest.y, dz = dest.z, dw = dest.w;
+		for (int i = from; i < to; i++) {
+			float t = times == null ? time : times[i];
+			float cosAngle = ax[i] * bx[i] + ay[i] * by[i] + az[i] * bz[i] + aw[i] * bw[i];
+			float c1, c2;
+			// Linear interpolation for close orientations
+			if ((1.0 - Math.abs(cosAngle)) < 0.01) {
+				c1 = 1.0f - t;
+				c2 = t;
+			} else {
+				// Spherical interpolation
+				float angle = (float) Math.acos(Math.abs(cosAngle));
+				float sinAngle = (float) Math.sin(angle);
+				c1 = (float) Math.sin(angle * (1.0f - t)) / sinAngle;
+				c2 = (float) Math.sin(angle * t) / sinAngle;
+			}
+			// Use the shortest path
+			if (cosAngle < 0.0)
+				c1 = -c1;
+			dx[i] = c1 * ax[i] + c2 * bx[i];
+			dy[i] = c1 * ay[i] + c2 * by[i];
+			dz[i] = c1 * az[i] + c2 * bz[i];
+			dw[i] = c1 * aw[i] + c2 * bw[i];
+		}
+	}
+
+	/**
+	 * Stores in {@code dest} the images of the vectors {@code v} by the rotation
+	 * of the quaternion of the same index, for the quaternions (and vectors) in
+	 * {@code [from, to)}. Vectors are packed as {@code x, y, z} triplets.
+	 * {@code dest} may be {@code v} itself.
+	 * 
+	 * @see remixlab.proscene.Quaternion#rotate(PVector, PVector)
+	 */
+	public void rotate(float[] v, float[] dest, int from, int to) {
+		rotate(v, dest, from, to, false);
+	}
+
+	/**
+	 * Stores in {@code dest} the images of the vectors {@code v} by the inverse
+	 * rotation of the quaternion of the same index, for the quaternions (and
+	 * vectors) in {@code [from, to)}. Vectors are packed as {@code x, y, z}
+	 * triplets. {@code dest} may be {@code v} itself.
+	 * 
+	 * @see remixlab.proscene.Quaternion#inverseRotate(PVector, PVector)
+	 */
+	public void inverseRotate(float[] v, float[] dest, int from, int to) {
+		rotate(v, dest, from, to, true);
+	}
+
+	private void rotate(float[] v, float[] dest, int from, int to, boolean inverse) {
+		float[] qx = this.x, qy = this.y, qz = this.z, qw = this.w;
+		for (int i = from; i < to; i++) {
+			float x = qx[i], y = qy[i], z = qz[i], w = qw[i];
+			if (inverse) {
+				float sqNorm = x * x + y * y + z * z + w * w;
+				x = -x / sqNorm;
+				y = -y / sqNorm;
+				z = -z / sqNorm;
+				w = w / sqNorm;
+			}
+			float q00 = 2.0f * x * x;
+			float q11 = 2.0f * y * y;
+			float q22 = 2.0f * z * z;
+			float q01 = 2.0f * x * y;
+			float q02 = 2.0f * x * z;
+			float q03 = 2.0f * x * w;
+			float q12 = 2.0f * y * z;
+			float q13 = 2.0f * y * w;
+			float q23 = 2.0f * z * w;
+
+			int o = 3 * i;
+			float vx = v[o], vy = v[o + 1], vz = v[o + 2];
+			dest[o] = (1.0f - q11 - q22) * vx + (q01 - q23) * vy + (q02 + q13) * vz;
+			dest[o + 1] = (q01 + q23) * vx + (1.0f - q22 - q00) * vy + (q12 - q03) * vz;
+			dest[o + 2] = (q02 - q13) * vx + (q12 + q03) * vy + (1.0f - q11 - q00) * vz;
+		}
+	}
+}
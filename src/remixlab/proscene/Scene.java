@@ -35,8 +35,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map.Entry;
 
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * A 3D interactive Processing scene.
@@ -97,7 +95,7 @@ import java.util.TimerTask;
  * otherwise), which is useful to notify the outside world when an animation event
  * occurs. See the example <i>Flock</i>.
  */
-public class Scene implements PConstants {
+public class Scene implements PConstants, Host {
 	// proscene version
 	public static final String version = "1.2.0";
 	/**
@@ -368,6 +366,13 @@ public class Scene implements PConstants {
 
 	// M o u s e G r a b b e r
 	protected List<MouseGrabbable> MouseGrabberPool;
+	protected MouseGrabberGrid mouseGrabberGrid;
+
+	// A n i m a t i o n   s c h e d u l e r
+	protected AnimationScheduler animationScheduler;
+	protected CommandQueue commandQueue;
+	protected JobExecutor jobExecutor;
+	protected AnimationScheduler.Task hintTimer;
 	protected MouseGrabbable mouseGrbbr;
 	protected boolean mouseGrabberIsAnIFrame;	
 	protected boolean mouseTrckn;
@@ -380,6 +385,10 @@ public class Scene implements PConstants {
 
 	// C O N S T R A I N T S
 	private boolean withConstraint;
+
+	// M A T R I X T R A N S F O R M A T I O N S
+	protected boolean matrixTransformation;
+	protected PMatrix3D transformationMatrix, transformationInverse;
 	
   //LEFT vs RIGHT_HAND
 	protected boolean rightHanded;
@@ -481,6 +490,17 @@ public class Scene implements PConstants {
 		
 		//mouse grabber pool
 		MouseGrabberPool = new ArrayList<MouseGrabbable>();
+		mouseGrabberGrid = new MouseGrabberGrid(this);
+
+		//timed animations
+		animationScheduler = new AnimationScheduler(this);
+		commandQueue = new CommandQueue();
+		jobExecutor = new JobExecutor();
+
+		//frame transformations
+		matrixTransformation = false;
+		transformationMatrix = new PMatrix3D();
+		transformationInverse = new PMatrix3D();
 		
 		//devices
 		devices = new ArrayList<HIDevice>();
@@ -566,10 +586,14 @@ public class Scene implements PConstants {
 	}
 	
 	public void setRightHanded() {
+		if (!rightHanded && (camera() != null))
+			camera().modified();
 		rightHanded = true;
 	}
 	
 	public void setLeftHanded() {
+		if (rightHanded && (camera() != null))
+			camera().modified();
 		rightHanded = false;
 	}
 	
@@ -620,6 +644,64 @@ public class Scene implements PConstants {
 		return MouseGrabberPool;
 	}
 
+	/**
+	 * Returns the screen space grid used to find the {@link #mouseGrabber()} among
+	 * the {@link #mouseGrabberPool()} without testing all of its members.
+	 * <p>
+	 * Call {@link remixlab.proscene.MouseGrabberGrid#invalidate()} if you modify the
+	 * {@link #mouseGrabberPool()} list directly.
+	 */
+	public MouseGrabberGrid mouseGrabberGrid() {
+		return mouseGrabberGrid;
+	}
+
+	/**
+	 * Returns the scheduler running the timed animations of the Scene objects
+	 * (KeyFrameInterpolators, spinning and tossing InteractiveFrames...).
+	 * <p>
+	 * The scheduler is ticked from {@link #drawCommon()} unless it is driven by
+	 * an executor (see
+	 * {@link remixlab.proscene.AnimationScheduler#setExecutor(java.util.concurrent.ScheduledExecutorService, long)}).
+	 */
+	public AnimationScheduler animationScheduler() {
+		return animationScheduler;
+	}
+
+	/**
+	 * Returns the queue used to modify the Scene objects (Frames, Camera,
+	 * KeyFrameInterpolators...) from other threads. The queued commands are
+	 * executed from the drawing thread in {@link #pre()}.
+	 * <p>
+	 * {@code scene.commandQueue().post(CommandQueue.setPosition(frame, p));}
+	 */
+	public CommandQueue commandQueue() {
+		return commandQueue;
+	}
+
+	/**
+	 * Returns the executor running the background jobs of the Scene objects
+	 * (e.g., the asynchronous KeyFrameInterpolator path updates, see
+	 * {@link remixlab.proscene.KeyFrameInterpolator#setAsynchronousPathUpdate(boolean)}).
+	 * The job results are published from the drawing thread in {@link #pre()}.
+	 */
+	public JobExecutor jobExecutor() {
+		return jobExecutor;
+	}
+
+	/**
+	 * Returns the PApplet {@code frameCount}.
+	 */
+	public int frameCount() {
+		return parent.frameCount;
+	}
+
+	/**
+	 * Returns {@code System.currentTimeMillis()}.
+	 */
+	public long time() {
+		return System.currentTimeMillis();
+	}
+
 	/**
 	 * Returns the associated Camera, never {@code null}.
 	 */
@@ -768,8 +850,10 @@ public class Scene implements PConstants {
 	 * {@link #isInMouseGrabberPool(MouseGrabbable)} to know the current state of the MouseGrabber.
 	 */
 	public void addInMouseGrabberPool(MouseGrabbable mouseGrabber) {
-		if (!isInMouseGrabberPool(mouseGrabber))
+		if (!isInMouseGrabberPool(mouseGrabber)) {
 			mouseGrabberPool().add(mouseGrabber);
+			mouseGrabberGrid.invalidate();
+		}
 	}
 
 	/**
@@ -779,7 +863,8 @@ public class Scene implements PConstants {
 	 * that is not in {@link #mouseGrabberPool()} has no effect.
 	 */
 	public void removeFromMouseGrabberPool(MouseGrabbable mouseGrabber) {
-		mouseGrabberPool().remove(mouseGrabber);
+		if (mouseGrabberPool().remove(mouseGrabber))
+			mouseGrabberGrid.invalidate();
 	}
 
 	/**
@@ -791,6 +876,7 @@ public class Scene implements PConstants {
 	 */
 	public void clearMouseGrabberPool() {
 		mouseGrabberPool().clear();
+		mouseGrabberGrid.invalidate();
 	}
 	
 	/**
@@ -912,6 +998,64 @@ public class Scene implements PConstants {
 		camera().enableFrustumEquationsUpdate(flag);
 	}
 
+	/**
+	 * Returns {@code true} if {@link #applyTransformation(Frame)} and
+	 * {@link #applyWorldTransformation(Frame)} directly multiply the renderer
+	 * matrices by the (cached) Frame matrices. Default is {@code false}.
+	 * 
+	 * @see #enableMatrixTransformation(boolean)
+	 */
+	public boolean matrixTransformationIsEnabled() {
+		return matrixTransformation;
+	}
+
+	/**
+	 * Toggles the state of {@link #matrixTransformationIsEnabled()}.
+	 * 
+	 * @see #enableMatrixTransformation(boolean)
+	 */
+	public void toggleMatrixTransformation() {
+		enableMatrixTransformation(!matrixTransformationIsEnabled());
+	}
+
+	/**
+	 * Disables matrix based frame transformations.
+	 * 
+	 * @see #enableMatrixTransformation(boolean)
+	 */
+	public void disableMatrixTransformation() {
+		enableMatrixTransformation(false);
+	}
+
+	/**
+	 * Enables matrix based frame transformations.
+	 * 
+	 * @see #enableMatrixTransformation(boolean)
+	 */
+	public void enableMatrixTransformation() {
+		enableMatrixTransformation(true);
+	}
+
+	/**
+	 * Enables or disables matrix based frame transformations according to
+	 * {@code flag}.
+	 * <p>
+	 * When enabled, {@link #applyTransformation(Frame)} multiplies the renderer
+	 * modelview (and projection times modelview) matrix by
+	 * {@link remixlab.proscene.Frame#matrix(PMatrix3D)}, and the inverse modelview
+	 * matrix by its analytical inverse (see
+	 * {@link remixlab.proscene.MathUtils#rigidInverse(PMatrix3D, PMatrix3D)}), instead
+	 * of calling {@code translate()} and {@code rotate()}, which require the
+	 * rotation axis and angle of the Frame. {@link #applyWorldTransformation(Frame)}
+	 * then uses {@link remixlab.proscene.Frame#worldMatrix(PMatrix3D)} instead of
+	 * walking up the Frame hierarchy.
+	 * 
+	 * @see #matrixTransformationIsEnabled()
+	 */
+	public void enableMatrixTransformation(boolean flag) {
+		matrixTransformation = flag;
+	}
+
 	/**
 	 * Toggles the state of {@link #axisIsDrawn()}.
 	 * 
@@ -1186,11 +1330,18 @@ public class Scene implements PConstants {
 	 * method. This method is registered at the PApplet and hence you don't need
 	 * to call it.
 	 * <p>
-	 * Sets the processing camera parameters from {@link #camera()} and updates
-	 * the frustum planes equations if {@link #enableFrustumEquationsUpdate(boolean)}
-	 * has been set to {@code true}.
+	 * Executes the commands posted to the {@link #commandQueue()}, publishes the
+	 * results of the completed {@link #jobExecutor()} jobs and the double
+	 * buffered Frames (see
+	 * {@link remixlab.proscene.Frame#publishDoubleBufferedFrames()}), sets the
+	 * processing camera parameters from {@link #camera()} and updates the frustum
+	 * planes equations if {@link #enableFrustumEquationsUpdate(boolean)} has been
+	 * set to {@code true}.
 	 */
 	public void pre() {
+		commandQueue.drain();
+		jobExecutor.publish();
+		Frame.publishDoubleBufferedFrames();
 		if (isOffscreen()) return;
 		
 		if ((width != pg3d.width) || (height != pg3d.height)) {
@@ -1233,7 +1384,8 @@ public class Scene implements PConstants {
 	/**
 	 * Internal method. Called by {@link #draw()} and {@link #beginDraw()}.
 	 * <p>
-	 * First performs any scheduled animation, then calls {@link #proscenium()}
+	 * First ticks the {@link #animationScheduler()} (if it is frame synchronous) and
+	 * performs any scheduled animation, then calls {@link #proscenium()}
 	 * which is the main drawing method that could be overloaded. Then, if
 	 * there's an additional drawing method registered at the Scene, calls it (see
 	 * {@link #addDrawHandler(Object, String)}). Finally, displays the
@@ -1251,6 +1403,8 @@ public class Scene implements PConstants {
 	 */
 	protected void drawCommon() {
 		// 1. Animation
+		if( animationScheduler.isFrameSynchronous() )
+			animationScheduler.tick();
 		if( animationIsStarted() )
 			performAnimation();
 		
@@ -2515,6 +2669,20 @@ public class Scene implements PConstants {
 		return new PVector(p.x, p.y, zC);
 	}	
 
+	/**
+	 * Internal method. Schedules {@link #unSetTimerFlag()} to be called one second
+	 * later by the {@link #animationScheduler()}.
+	 */
+	protected void scheduleHintTimeout() {
+		if (hintTimer == null)
+			hintTimer = new AnimationScheduler.Task(animationScheduler) {
+				protected void execute() {
+					unSetTimerFlag();
+				}
+			};
+		hintTimer.schedule(1000);
+	}
+
 	/**
 	 * Called from the timer to stop displaying the point under pixel and arcball
 	 * reference point visual hints.
@@ -3322,25 +3490,13 @@ public class Scene implements PConstants {
 		case ARP_FROM_PIXEL:
 			if (setArcballReferencePointFromPixel(new Point(parent.mouseX, parent.mouseY))) {
 				arpFlag = true;
-				Timer timer=new Timer();
-				TimerTask timerTask = new TimerTask() {
-					public void run() {
-						unSetTimerFlag();
-					}
-				};
-				timer.schedule(timerTask, 1000);
+				scheduleHintTimeout();
 			}
 			break;
 		case RESET_ARP:
 			camera().setArcballReferencePoint(new PVector(0, 0, 0));
 			arpFlag = true;
-			Timer timer=new Timer();
-			TimerTask timerTask = new TimerTask() {
-				public void run() {
-					unSetTimerFlag();
-				}
-			};
-			timer.schedule(timerTask, 1000);
+			scheduleHintTimeout();
 			break;
 		case GLOBAL_HELP:
 			displayGlobalHelp();
@@ -3375,13 +3531,7 @@ public class Scene implements PConstants {
 				if (wP.found) {
 					pupVec = wP.point;
 					pupFlag = true;
-					Timer timer=new Timer();
-					TimerTask timerTask = new TimerTask() {
-						public void run() {
-							unSetTimerFlag();
-						}
-					};
-					timer.schedule(timerTask, 1000);
+					scheduleHintTimeout();
 				}
 			//}
 			break;
@@ -3754,13 +3904,7 @@ public class Scene implements PConstants {
 				if (wP.found) {
 					pupVec = wP.point;
 					pupFlag = true;
-					Timer timer=new Timer();
-					TimerTask timerTask = new TimerTask() {
-						public void run() {
-							unSetTimerFlag();
-						}
-					};
-					timer.schedule(timerTask, 1000);
+					scheduleHintTimeout();
 				}
 			//}
 			break;
@@ -3770,25 +3914,13 @@ public class Scene implements PConstants {
 		case ARP_FROM_PIXEL:
 			if (setArcballReferencePointFromPixel(new Point(parent.mouseX, parent.mouseY))) {
 				arpFlag = true;
-				Timer timer=new Timer();
-				TimerTask timerTask = new TimerTask() {
-					public void run() {
-						unSetTimerFlag();
-					}
-				};
-				timer.schedule(timerTask, 1000);
+				scheduleHintTimeout();
 			}
 			break;
 		case RESET_ARP:
 			camera().setArcballReferencePoint(new PVector(0, 0, 0));
 			arpFlag = true;
-			Timer timer=new Timer();
-			TimerTask timerTask = new TimerTask() {
-				public void run() {
-					unSetTimerFlag();
-				}
-			};
-			timer.schedule(timerTask, 1000);
+			scheduleHintTimeout();
 			break;
 		case CENTER_FRAME:
 			if (interactiveFrame() != null)
@@ -4270,11 +4402,19 @@ public class Scene implements PConstants {
 	 * <b>Attention:</b> When drawing a frame hierarchy as above, this method
 	 * should be used whenever possible (one can also use 
 	 * {@link remixlab.proscene.Frame#matrix()} instead).
+	 * <p>
+	 * A double buffered frame is drawn as it was last published (see
+	 * {@link remixlab.proscene.Frame#published()}).
 	 * 
 	 * @see #applyWorldTransformation(Frame)
 	 * @see remixlab.proscene.Frame#matrix()
 	 */
 	public void applyTransformation(Frame frame) {
+		frame = frame.published();
+		if (matrixTransformationIsEnabled()) {
+			applyRigidMatrix(frame.matrix(transformationMatrix));
+			return;
+		}
 		renderer().translate(frame.translation().x, frame.translation().y, frame.translation().z);
 		renderer().rotate(frame.rotation().angle(), frame.rotation().axis().x, frame.rotation().axis().y, frame.rotation().axis().z);		
 	}
@@ -4286,6 +4426,11 @@ public class Scene implements PConstants {
 	 * @see #applyTransformation(Frame)
 	 */
 	public void applyWorldTransformation(Frame frame) {
+		frame = frame.published();
+		if (matrixTransformationIsEnabled()) {
+			applyRigidMatrix(frame.worldMatrix(transformationMatrix));
+			return;
+		}
 		Frame refFrame = frame.referenceFrame();
 		if(refFrame != null) {
 			applyWorldTransformation(refFrame);
@@ -4295,4 +4440,22 @@ public class Scene implements PConstants {
 			applyTransformation(frame);
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Internal method. Multiplies the renderer matrices by the rigid
+	 * transformation {@code m}, as {@code renderer().applyMatrix(m)} would do, but
+	 * computing the inverse modelview matrix analytically.
+	 * <p>
+	 * The renderer is flushed first, so that the geometry it may still hold is
+	 * drawn with the matrices it was specified with.
+	 * 
+	 * @see #enableMatrixTransformation(boolean)
+	 */
+	protected void applyRigidMatrix(PMatrix3D m) {
+		pg3d.flush();
+		MathUtils.rigidInverse(m, transformationInverse);
+		pg3d.modelview.apply(m);
+		pg3d.modelviewInv.preApply(transformationInverse);
+		pg3d.projmodelview.apply(m);
+	}
+}